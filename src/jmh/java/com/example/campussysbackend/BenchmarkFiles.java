@@ -0,0 +1,26 @@
+package com.example.campussysbackend;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Temp directories for the generated data/ trees the benchmarks run against.
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+    }
+
+    // A fresh directory holding a generated tree; paths into it end with a separator.
+    static String tempTree(String name) throws IOException {
+        return Files.createTempDirectory(name).toString() + "/";
+    }
+
+    static void delete(String root) throws IOException {
+        try (Stream<Path> paths = Files.walk(Paths.get(root))) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Loading 100k booking files: the old Scanner parsing against RecordReader.
+//
+// The dataset is generated once per trial into a temp directory, laid out like
+// data/rooms/ (<roomId>-<bookingId>.txt, 100 rooms x 1000 bookings). Each
+// benchmark reads and parses every file, the way Booking.loadDetailsFromFile
+// does, so one op = one full load of the dataset.
+//
+//   ./gradlew jmh -Pjmh.includes=BookingLoadBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BookingLoadBenchmark {
+
+    private static final int ROOMS = 100;
+    private static final int BOOKINGS_PER_ROOM = 1000;
+    private static final String[] STATUSES = {"Pending", "Approved", "Rejected", "Cancelled"};
+
+    private Path dir;
+    private List<File> files;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        dir = Files.createTempDirectory("bookings");
+        files = new ArrayList<>(ROOMS * BOOKINGS_PER_ROOM);
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.of(2026, 1, 5);
+
+        for (int room = 0; room < ROOMS; room++) {
+            int roomID = 3000 + room;
+            for (int booking = 1; booking <= BOOKINGS_PER_ROOM; booking++) {
+                LocalTime start = LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+                String text = (1000 + random.nextInt(5000)) + "\n"
+                        + roomID + "\n"
+                        + firstDay.plusDays(random.nextInt(365)) + "\n"
+                        + start + "\n"
+                        + start.plusHours(1) + "\n"
+                        + STATUSES[random.nextInt(STATUSES.length)] + "\n";
+                Path file = dir.resolve(roomID + "-" + booking + ".txt");
+                Files.writeString(file, text, StandardCharsets.UTF_8);
+                files.add(file.toFile());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        for (File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    // What Booking did before RecordReader
+    @Benchmark
+    public void scanner(Blackhole bh) throws IOException {
+        for (File file : files) {
+            try (Scanner scanner = new Scanner(file)) {
+                int userID = scanner.nextInt();
+                scanner.nextLine(); // consume rest of line
+                int roomID = scanner.nextInt();
+                scanner.nextLine(); // consume rest of line
+                LocalDate date = LocalDate.parse(scanner.nextLine().trim());
+                LocalTime startTime = LocalTime.parse(scanner.nextLine().trim());
+                LocalTime endTime = LocalTime.parse(scanner.nextLine().trim());
+                String status = scanner.hasNextLine() ? scanner.nextLine().trim() : "Pending";
+
+                bh.consume(userID);
+                bh.consume(roomID);
+                bh.consume(date);
+                bh.consume(startTime);
+                bh.consume(endTime);
+                bh.consume(status);
+            }
+        }
+    }
+
+    @Benchmark
+    public void recordReader(Blackhole bh) throws IOException {
+        for (File file : files) {
+            try (RecordReader in = RecordReader.open(file)) {
+                int userID = in.requireLine().asInt();
+                int roomID = in.requireLine().asInt();
+                LocalDate date = in.requireLine().asDate();
+                LocalTime startTime = in.requireLine().asTime();
+                LocalTime endTime = in.requireLine().asTime();
+                String status = in.nextLine() && !in.isBlank() ? in.asString().trim() : "Pending";
+
+                bh.consume(userID);
+                bh.consume(roomID);
+                bh.consume(date);
+                bh.consume(startTime);
+                bh.consume(endTime);
+                bh.consume(status);
+            }
+        }
+    }
+}
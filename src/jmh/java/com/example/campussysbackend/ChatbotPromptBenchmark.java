@@ -0,0 +1,56 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Building the Gemini request body for one chatbot question. "segments" is
+// ChatbotPrompts.requestBody: the system prompt's bytes are precomputed per
+// userType and only the question is encoded. "concatenated" builds the whole
+// prompt String per request and then encodes all of it, as /askchatbot used to.
+// Run with the gc profiler to compare the bytes allocated per request
+// (gc.alloc.rate.norm):
+//
+//   ./gradlew jmh -Pjmh.includes=ChatbotPromptBenchmark -Pjmh.profilers=gc
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChatbotPromptBenchmark {
+
+    private static final String MODE = "query";
+    private static final String KEYWORDS = "booking, room";
+    private static final String QUESTION = "How do I book a room for my study group tomorrow afternoon?";
+
+    @Param({"student", "faculty"})
+    public String userType;
+
+    private ChatbotPrompts prompts;
+
+    @Setup(Level.Trial)
+    public void build() {
+        prompts = ChatbotPrompts.fromHandlers(CampussysbackendApplication.class);
+        if (!Arrays.equals(segments(), concatenated())) {
+            throw new IllegalStateException("The two request bodies differ");
+        }
+    }
+
+    @Benchmark
+    public byte[] segments() {
+        return prompts.requestBody(userType, MODE, KEYWORDS, QUESTION);
+    }
+
+    @Benchmark
+    public byte[] concatenated() {
+        String fullPrompt = prompts.systemContext(userType)
+                + "\n\nUser mode: " + MODE
+                + "\nUser keywords: " + KEYWORDS
+                + "\nUser question: " + QUESTION;
+        return ("{\"contents\":[{\"parts\":[{\"text\":\"" + ChatbotPrompts.escape(fullPrompt) + "\"}]}]}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Loading one event with N attendees and M feedback entries (one extra file
+// per feedback entry), as /getevent and /registerevent do.
+//
+//   ./gradlew jmh -Pjmh.includes=EventLoadBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EventLoadBenchmark {
+
+    @Param({"10", "1000"})
+    public int attendees;
+
+    @Param({"0", "10", "100"})
+    public int feedback;
+
+    private String root;
+    private String events;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = BenchmarkFiles.tempTree("events");
+        new CampusDataGenerator(root, 42).users(Math.max(attendees, 1)).events(1, attendees, feedback);
+        events = root + "events/";
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        BenchmarkFiles.delete(root);
+    }
+
+    @Benchmark
+    public Event load() throws IOException {
+        return new Event(1, events);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// /getstudentfeedback and /summarizestudentfeedback queries against a
+// FeedbackIndex holding N entries spread over a year: a keyword search, a
+// one-week date range, and a sentiment/theme summary over a month. Each returns
+// a count so the work is not optimized away.
+//
+//   ./gradlew jmh -Pjmh.includes=FeedbackIndexBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FeedbackIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "projector", "lights", "heating", "chairs", "wifi", "great", "talk", "crowded",
+            "room", "late", "useful", "noisy", "clear", "broken", "door", "speaker",
+            "food", "slides", "pace", "not", "good", "boring", "helpful", "queue"
+    };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    @Param({"100000", "1000000"})
+    public int entries;
+
+    private String root;
+    private FeedbackIndex index;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        root = BenchmarkFiles.tempTree("feedback");
+        index = FeedbackIndex.forPath(root + "events/");
+        // Empty directory: the first query builds an empty index, then entries are added
+        index.summarize(null, null);
+        Random random = new Random(42);
+        for (int i = 0; i < entries; i++) {
+            StringBuilder message = new StringBuilder();
+            for (int w = 0; w < 12; w++) {
+                message.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            index.add(1 + i / 100, 1 + i % 100, 1000 + random.nextInt(1000), message.toString(), "lecture",
+                    1 + random.nextInt(5), FIRST_DAY.plusDays(random.nextInt(365)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        FeedbackIndex.clear();
+        BenchmarkFiles.delete(root);
+    }
+
+    @Benchmark
+    public int keywordInAWeek() {
+        return index.find("broken projector", LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 8)).size();
+    }
+
+    @Benchmark
+    public int week() {
+        return index.find(null, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 8)).size();
+    }
+
+    @Benchmark
+    public int monthSummary() {
+        return index.summarize(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)).getTotal();
+    }
+}
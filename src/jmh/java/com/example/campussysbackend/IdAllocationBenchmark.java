@@ -0,0 +1,63 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// ID allocation for the "one ID per line" lists (eventIDs.txt, IDs.txt):
+// next() on a loaded sequence, and the one-off scan of a list of N IDs when a
+// sequence is first used in a process.
+//
+//   ./gradlew jmh -Pjmh.includes=IdAllocationBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IdAllocationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int ids;
+
+    private String root;
+    private String idsFile;
+    private File seqFile;
+    private IdSequence sequence;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = BenchmarkFiles.tempTree("ids");
+        // Only the list matters here; request files would just slow the setup down
+        StringBuilder list = new StringBuilder();
+        for (int id = 1; id <= ids; id++) {
+            list.append(id).append('\n');
+        }
+        idsFile = root + "IDs.txt";
+        Files.writeString(Paths.get(idsFile), list);
+        seqFile = new File(root + "IDs.seq");
+        sequence = IdSequence.forIdsFile(idsFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        IdSequence.clear();
+        BenchmarkFiles.delete(root);
+    }
+
+    @Benchmark
+    public int next() throws IOException {
+        return sequence.next();
+    }
+
+    @Benchmark
+    public int scanOnFirstUse() {
+        IdSequence.clear();
+        seqFile.delete();
+        return IdSequence.forIdsFile(idsFile).current();
+    }
+}
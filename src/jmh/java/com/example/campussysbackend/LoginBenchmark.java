@@ -0,0 +1,57 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The /login credential lookup against a credentials.txt of N users: once the
+// file is loaded, and with a fresh store that has to read the file first
+// (what every /login paid before CredentialStore, and what an edit to the
+// file costs now). The generated passwords are plain text, so this measures
+// the lookup, not PBKDF2.
+//
+//   ./gradlew jmh -Pjmh.includes=LoginBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginBenchmark {
+
+    @Param({"100", "10000"})
+    public int users;
+
+    private String root;
+    private String credentials;
+    private CredentialStore store;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = BenchmarkFiles.tempTree("users");
+        new CampusDataGenerator(root, 42).users(users).credentials();
+        credentials = root + "users/credentials.txt";
+        store = new CredentialStore(credentials);
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        BenchmarkFiles.delete(root);
+    }
+
+    @Benchmark
+    public CredentialStore.Credential loaded() throws IOException {
+        int userID = CampusDataGenerator.FIRST_USER_ID + random.nextInt(users);
+        return store.authenticate(CampusDataGenerator.email(userID), "password" + userID);
+    }
+
+    @Benchmark
+    public CredentialStore.Credential coldFile() throws IOException {
+        int userID = CampusDataGenerator.FIRST_USER_ID + random.nextInt(users);
+        return new CredentialStore(credentials).authenticate(CampusDataGenerator.email(userID), "password" + userID);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Loading a single maintenance request, and building the owner/status index
+// over every request listed in IDs.txt (what the first /getallmaintenance pays).
+//
+//   ./gradlew jmh -Pjmh.includes=MaintenanceLoadBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MaintenanceLoadBenchmark {
+
+    @Param({"100", "10000"})
+    public int requests;
+
+    private String root;
+    private String dir;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = BenchmarkFiles.tempTree("requests");
+        new CampusDataGenerator(root, 42).requests(requests);
+        dir = root + "requests/";
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        BenchmarkFiles.delete(root);
+    }
+
+    @Benchmark
+    public MaintenanceRequest loadOne() throws IOException {
+        int requestID = next++ % requests + 1;
+        return new MaintenanceRequest(requestID, dir + requestID + ".txt");
+    }
+
+    @Benchmark
+    public int buildIndex() {
+        // Dropped first, or forPath(...) would hand back the loaded index
+        MaintenanceIndex.clear();
+        return MaintenanceIndex.forPath(dir).find(null, "pending").size();
+    }
+}
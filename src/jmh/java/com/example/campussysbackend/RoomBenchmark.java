@@ -0,0 +1,57 @@
+package com.example.campussysbackend;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Room construction (the room file plus one file per booking) and the
+// availability check /bookroom runs before every booking.
+//
+//   ./gradlew jmh -Pjmh.includes=RoomBenchmark
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RoomBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int bookings;
+
+    private String root;
+    private String rooms;
+    private Room room;
+    private Random random;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        root = BenchmarkFiles.tempTree("rooms");
+        new CampusDataGenerator(root, 42).rooms(1, bookings);
+        rooms = root + "rooms/";
+        room = new Room(CampusDataGenerator.FIRST_ROOM_ID, 1, rooms);
+        random = new Random(7);
+        today = LocalDate.now();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        BenchmarkFiles.delete(root);
+    }
+
+    @Benchmark
+    public Room construct() throws IOException {
+        return new Room(CampusDataGenerator.FIRST_ROOM_ID, 1, rooms);
+    }
+
+    @Benchmark
+    public boolean isAvailable() {
+        LocalTime start = LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+        return room.isAvailable(today.plusDays(1 + random.nextInt(180)), start, start.plusHours(1));
+    }
+}
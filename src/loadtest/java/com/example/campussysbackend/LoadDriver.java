@@ -0,0 +1,359 @@
+package com.example.campussysbackend;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+// In-process load test: starts the server in this JVM on a free port, then
+// replays a mix of requests against it from concurrent clients and reports
+// latency (p50/p99/max) and throughput per endpoint.
+//
+// The server reads data/ from the working directory, as in production. If
+// there is no data/ there yet, one is generated with CampusDataGenerator first;
+// generator options (rooms=, bookings=, events=, users=, ...) only apply then.
+//
+// Each client is a virtual thread with its own connection, so threads= can be
+// set to thousands. mode= picks the server's request threads: virtual, platform,
+// or both to run the same load against each in turn and compare them; without
+// it the server uses its configured spring.threads.virtual.enabled.
+//
+// Usage: LoadDriver [threads=32] [warmup=10] [duration=60] [mode=virtual|platform|both]
+//                   [generator options...]
+//   ./gradlew loadTest -Pargs="threads=64 duration=120 rooms=10000 bookings=100 events=50000"
+//   ./gradlew loadTest -Pargs="threads=2000 mode=both"
+//
+// Mix (weights out of 100):
+//   GET  /getbookings?userId=        35
+//   POST /login                      25
+//   POST /bookroom                   15
+//   POST /registerevent              15
+//   GET  /getallmaintenance?limit=   10
+
+public final class LoadDriver {
+
+    private static final String DATA = "data";
+
+    enum Endpoint {
+        GET_BOOKINGS("/getbookings", 35),
+        LOGIN("/login", 25),
+        BOOK_ROOM("/bookroom", 15),
+        REGISTER_EVENT("/registerevent", 15),
+        GET_ALL_MAINTENANCE("/getallmaintenance", 10);
+
+        private final String path;
+        private final int weight;
+
+        Endpoint(String path, int weight) {
+            this.path = path;
+            this.weight = weight;
+        }
+    }
+
+    private final HttpClient client;
+    private final String base;
+    private final Map<String, Integer> sizes;
+
+    private LoadDriver(HttpClient client, String base, Map<String, Integer> sizes) {
+        this.client = client;
+        this.base = base;
+        this.sizes = sizes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Integer> run = new HashMap<>(Map.of("threads", 32, "warmup", 10, "duration", 60));
+        List<Boolean> modes = Collections.singletonList(null);
+        List<String> generatorArgs = new ArrayList<>();
+        for (String arg : args) {
+            String name = arg.split("=", 2)[0];
+            if (name.equals("mode")) {
+                modes = modes(arg.substring(name.length() + 1));
+            } else if (run.containsKey(name)) {
+                run.put(name, Integer.parseInt(arg.substring(name.length() + 1)));
+            } else {
+                generatorArgs.add(arg);
+            }
+        }
+
+        Map<String, Integer> sizes = CampusDataGenerator.readManifest(DATA);
+        if (sizes == null) {
+            if (new File(DATA).exists()) {
+                System.out.println(new File(DATA).getAbsolutePath()
+                        + " exists but was not generated; run from an empty directory.");
+                return;
+            }
+            sizes = CampusDataGenerator.options(generatorArgs);
+            long started = System.nanoTime();
+            CampusDataGenerator.generate(DATA, sizes);
+            System.out.printf("Generated %s in %.1f s%n", sizes, seconds(System.nanoTime() - started));
+        } else if (!generatorArgs.isEmpty()) {
+            System.out.println("Using the existing " + DATA + "/ " + sizes + "; ignoring " + generatorArgs);
+        }
+
+        // Keep the console out of the timings and the report
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        Map<String, Stats> totals = new LinkedHashMap<>();
+        try {
+            for (Boolean virtual : modes) {
+                String name = virtual == null ? "configured" : virtual ? "virtual" : "platform";
+                report.printf("%n== Server threads: %s ==%n", name);
+                totals.put(name, measure(report, run, sizes, virtual));
+            }
+        } finally {
+            System.setOut(report);
+        }
+
+        if (totals.size() > 1) {
+            report.printf("%nComparison, %d concurrent clients:%n", run.get("threads"));
+            report.printf("%-22s %9s %7s %10s %9s %9s %9s%n",
+                    "server threads", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+            for (Map.Entry<String, Stats> entry : totals.entrySet()) {
+                print(report, entry.getKey(), entry.getValue(), run.get("duration"));
+            }
+        }
+    }
+
+    private static List<Boolean> modes(String mode) {
+        switch (mode) {
+            case "virtual":
+                return List.of(true);
+            case "platform":
+                return List.of(false);
+            case "both":
+                // Each run starts from cold rooms and indexes (dropResidentState); only the
+                // JIT stays warm, and each run's own warm-up evens that out
+                return List.of(true, false);
+            default:
+                throw new IllegalArgumentException("mode must be virtual, platform or both: " + mode);
+        }
+    }
+
+    // Starts the server (with virtual or platform request threads, or as configured when
+    // null), warms it up, measures, prints the per-endpoint table and returns the total.
+    private static Stats measure(PrintStream report, Map<String, Integer> run, Map<String, Integer> sizes,
+                                 Boolean virtual) throws Exception {
+        dropResidentState();
+        long started = System.nanoTime();
+        // Command-line arguments, so the mode wins over application.properties and
+        // CAMPUSSYS_VIRTUAL_THREADS
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--spring.main.banner-mode=off"));
+        if (virtual != null) {
+            args.add("--spring.threads.virtual.enabled=" + virtual);
+        }
+        ConfigurableApplicationContext context = new SpringApplication(CampussysbackendApplication.class)
+                .run(args.toArray(new String[0]));
+        String effective = context.getEnvironment().getProperty("spring.threads.virtual.enabled");
+        if (virtual != null && !virtual.toString().equals(effective)) {
+            context.close();
+            throw new IllegalStateException("Asked for spring.threads.virtual.enabled=" + virtual
+                    + " but the server started with " + effective);
+        }
+        report.printf("Server started in %.1f s (virtual threads: %s)%n", seconds(System.nanoTime() - started),
+                effective);
+
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(pool)
+                    .build();
+            LoadDriver driver = new LoadDriver(client, base, sizes);
+
+            report.println("Warming up for " + run.get("warmup") + " s...");
+            driver.run(pool, run.get("threads"), run.get("warmup"));
+            report.println("Measuring for " + run.get("duration") + " s with " + run.get("threads") + " clients...");
+            Map<Endpoint, Stats> results = driver.run(pool, run.get("threads"), run.get("duration"));
+            return print(report, results, run.get("duration"));
+        } finally {
+            pool.shutdownNow();
+            context.close();
+        }
+    }
+
+    // Drops the rooms, indexes and ID sequences a previous run left resident, so
+    // every mode starts from data/ on disk.
+    private static void dropResidentState() {
+        RoomRepository.clear();
+        EventIndex.clear();
+        MaintenanceIndex.clear();
+        FeedbackIndex.clear();
+        IdSequence.clear();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Running
+     * ---------------------------------------------------------------------- */
+
+    // Runs every thread for the given time; each thread keeps its own samples.
+    private Map<Endpoint, Stats> run(ExecutorService pool, int threads, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Map<Endpoint, Stats>>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = 31L * t + seconds;
+            workers.add(pool.submit(() -> work(new Random(seed), deadline)));
+        }
+
+        Map<Endpoint, Stats> merged = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            merged.put(endpoint, new Stats());
+        }
+        for (Future<Map<Endpoint, Stats>> worker : workers) {
+            for (Map.Entry<Endpoint, Stats> entry : worker.get().entrySet()) {
+                merged.get(entry.getKey()).addAll(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private Map<Endpoint, Stats> work(Random random, long deadline) {
+        Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+        while (System.nanoTime() < deadline) {
+            Endpoint endpoint = pick(random);
+            HttpRequest request = request(endpoint, random);
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                // A clashing booking is an answer, not a failure
+                ok = status < 400 || (endpoint == Endpoint.BOOK_ROOM && status == 409);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            stats.get(endpoint).add(System.nanoTime() - start, ok);
+        }
+        return stats;
+    }
+
+    private static Endpoint pick(Random random) {
+        int n = random.nextInt(100);
+        for (Endpoint endpoint : Endpoint.values()) {
+            n -= endpoint.weight;
+            if (n < 0) return endpoint;
+        }
+        return Endpoint.GET_BOOKINGS;
+    }
+
+    private HttpRequest request(Endpoint endpoint, Random random) {
+        int userId = CampusDataGenerator.FIRST_USER_ID + random.nextInt(sizes.get("users"));
+        switch (endpoint) {
+            case GET_BOOKINGS:
+                return get(endpoint.path + "?userId=" + userId);
+            case LOGIN:
+                return post(endpoint.path, "{\"email\":\"" + CampusDataGenerator.email(userId)
+                        + "\",\"password\":\"" + CampusDataGenerator.password(userId) + "\"}");
+            case BOOK_ROOM: {
+                int roomId = CampusDataGenerator.FIRST_ROOM_ID + random.nextInt(sizes.get("rooms"));
+                LocalTime start = LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+                return post(endpoint.path, "{\"userId\":" + userId + ",\"roomId\":" + roomId
+                        + ",\"date\":\"" + LocalDate.now().plusDays(1 + random.nextInt(180))
+                        + "\",\"startTime\":\"" + start + "\",\"endTime\":\"" + start.plusHours(1) + "\"}");
+            }
+            case REGISTER_EVENT: {
+                int eventId = 1 + random.nextInt(sizes.get("events"));
+                String action = random.nextInt(4) == 0 ? "cancel" : "register";
+                return post(endpoint.path, "{\"eventId\":" + eventId + ",\"userId\":" + userId
+                        + ",\"action\":\"" + action + "\"}");
+            }
+            default:
+                return get(endpoint.path + (random.nextBoolean() ? "?limit=100" : "?status=Pending&limit=100"));
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Reporting
+     * ---------------------------------------------------------------------- */
+
+    private static Stats print(PrintStream out, Map<Endpoint, Stats> results, int seconds) {
+        out.printf("%n%-22s %9s %7s %10s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        Stats total = new Stats();
+        for (Map.Entry<Endpoint, Stats> entry : results.entrySet()) {
+            print(out, entry.getKey().path, entry.getValue(), seconds);
+            total.addAll(entry.getValue());
+        }
+        print(out, "all", total, seconds);
+        return total;
+    }
+
+    private static void print(PrintStream out, String name, Stats stats, int seconds) {
+        long[] sorted = stats.sorted();
+        out.printf("%-22s %9d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                name, sorted.length, stats.errors, sorted.length / (double) seconds,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    // Latency samples of one endpoint, in nanoseconds. Owned by one thread until merged.
+    private static final class Stats {
+        private long[] samples = new long[1024];
+        private int count;
+        private long errors;
+
+        void add(long nanos, boolean ok) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            if (!ok) errors++;
+        }
+
+        void addAll(Stats other) {
+            if (count + other.count > samples.length) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+            }
+            System.arraycopy(other.samples, 0, samples, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] out = Arrays.copyOf(samples, count);
+            Arrays.sort(out);
+            return out;
+        }
+    }
+}
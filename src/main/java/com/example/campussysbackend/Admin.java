@@ -104,15 +104,19 @@ public class Admin extends User {
     private void loadAdminRequests() throws FileNotFoundException {
         allRequests = new ArrayList<>();
 
-        File idsFile = new File(REQUEST_IDS_FILE);
-        if (!idsFile.exists()) {
+        if (!RecordStores.get().exists(REQUEST_IDS_FILE)) {
             return;
         }
 
         ArrayList<Integer> requestIDs = new ArrayList<>();
-        try (Scanner idScanner = new Scanner(idsFile)) {
-            while (idScanner.hasNextInt()) {
-                requestIDs.add(idScanner.nextInt());
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(REQUEST_IDS_FILE))) {
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                try {
+                    requestIDs.add(in.asInt());
+                } catch (NumberFormatException e) {
+                    break; // the list ends at the first non-number
+                }
             }
         }
 
@@ -131,11 +135,10 @@ public class Admin extends User {
         }
 
         ArrayList<Integer> buildingIDs = new ArrayList<>();
-        try (Scanner buildingScanner = new Scanner(buildingFile)) {
-            while (buildingScanner.hasNextLine()) {
-                String line = buildingScanner.nextLine().trim();
-                if (!line.isEmpty()) {
-                    buildingIDs.add(Integer.parseInt(line));
+        try (RecordReader in = RecordReader.open(buildingFile)) {
+            while (in.nextLine()) {
+                if (!in.isBlank()) {
+                    buildingIDs.add(in.asInt());
                 }
             }
         }
@@ -145,18 +148,17 @@ public class Admin extends User {
             if (!roomsFile.exists()) continue;
 
             ArrayList<Integer> roomIDs = new ArrayList<>();
-            try (Scanner roomsScanner = new Scanner(roomsFile)) {
-                while (roomsScanner.hasNextLine()) {
-                    String line = roomsScanner.nextLine().trim();
-                    if (!line.isEmpty()) {
-                        roomIDs.add(Integer.parseInt(line));
+            try (RecordReader in = RecordReader.open(roomsFile)) {
+                while (in.nextLine()) {
+                    if (!in.isBlank()) {
+                        roomIDs.add(in.asInt());
                     }
                 }
             }
 
             for (int roomID : roomIDs) {
                 // Room path uses data/map/<buildingID>- as prefix
-                Room room = new Room(roomID, buildingID, MAP_BASE_PATH + buildingID + "-");
+                Room room = RoomRepository.getRoom(roomID, buildingID, MAP_BASE_PATH + buildingID + "-");
                 pendingBookings.addAll(room.getPendingBookings());
             }
         }
@@ -164,9 +166,9 @@ public class Admin extends User {
 
     private String[] loadDetails() throws FileNotFoundException {
         String[] out = new String[2];
-        try (Scanner scanner = new Scanner(new File(filepath + ".txt"))) {
-            for (int i = 0; i < 2 && scanner.hasNextLine(); i++) {
-                out[i] = scanner.nextLine();
+        try (RecordReader in = RecordReader.open(new File(filepath + ".txt"))) {
+            for (int i = 0; i < 2 && in.nextLine(); i++) {
+                out[i] = in.asString();
             }
         }
         return out;
@@ -265,11 +267,10 @@ public class Admin extends User {
         }
 
         ArrayList<Integer> userIDs = new ArrayList<>();
-        try (Scanner scanner = new Scanner(idsFile)) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.isEmpty()) continue;
-                int newID = Integer.parseInt(line);
+        try (RecordReader in = RecordReader.open(idsFile)) {
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                int newID = in.asInt();
                 if (filter.accept(newID)) {
                     userIDs.add(newID);
                 }
@@ -294,9 +295,9 @@ public class Admin extends User {
         }
 
         int notificationID = 0;
-        try (Scanner idScanner = new Scanner(notifFile)) {
-            if (idScanner.hasNextInt()) {
-                notificationID = idScanner.nextInt();
+        try (RecordReader in = RecordReader.open(notifFile)) {
+            if (in.nextLine() && !in.isBlank()) {
+                notificationID = in.nextInt();
             }
         }
 
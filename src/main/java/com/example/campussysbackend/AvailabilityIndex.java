@@ -0,0 +1,189 @@
+package com.example.campussysbackend;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-room index of approved booking times, grouped by date.
+//
+// For every date the approved bookings are merged into a sorted array of
+// non-overlapping [start, end) intervals, stored as minute-of-day. A conflict
+// check is then a binary search over that array instead of a walk over every
+// booking in the room. Days are rebuilt (only that date) whenever an approved
+// booking is added or changes status, and readers never block.
+//
+// LocalTime.MAX stands for the end of the day (minute 1440, i.e. 24:00), so a
+// window or a free slot can run up to midnight rather than stopping at 23:59.
+
+class AvailabilityIndex {
+
+    private static final int END_OF_DAY = 24 * 60;
+
+    private final ConcurrentHashMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+
+    /* -------------------------------------------------------------------------
+     * Updates
+     * ---------------------------------------------------------------------- */
+
+    // Adds the booking if it is approved; other statuses do not block a slot.
+    void add(Booking booking) {
+        if (!booking.isApproved()) {
+            return;
+        }
+        days.compute(booking.getDate(), (date, day) -> {
+            List<Booking> approved = day == null ? new ArrayList<>() : new ArrayList<>(day.approved);
+            approved.add(booking);
+            return new Day(approved);
+        });
+    }
+
+    void remove(Booking booking) {
+        days.computeIfPresent(booking.getDate(), (date, day) -> {
+            List<Booking> approved = new ArrayList<>(day.approved);
+            if (!approved.remove(booking)) {
+                return day;
+            }
+            return approved.isEmpty() ? null : new Day(approved);
+        });
+    }
+
+    // Re-index a booking after its status changed.
+    void update(Booking booking) {
+        remove(booking);
+        add(booking);
+    }
+
+    void dropBefore(LocalDate date) {
+        days.keySet().removeIf(d -> d.isBefore(date));
+    }
+
+    /* -------------------------------------------------------------------------
+     * Queries
+     * ---------------------------------------------------------------------- */
+
+    // Same rule as Booking.isClashing: clash if not (end <= otherStart or start >= otherEnd)
+    boolean isFree(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        Day day = days.get(date);
+        if (day == null) {
+            return true;
+        }
+        int start = toMinute(startTime);
+        int end = toMinute(endTime);
+
+        // Intervals are disjoint and sorted, so the last one starting before 'end'
+        // also has the latest end of all candidates.
+        int i = day.lastStartingBefore(end);
+        return i < 0 || day.ends[i] <= start;
+    }
+
+    // Gaps between approved bookings on the given date, clipped to [from, to).
+    List<Slot> freeSlots(LocalDate date, LocalTime from, LocalTime to) {
+        List<Slot> slots = new ArrayList<>();
+        int windowStart = toMinute(from);
+        int windowEnd = toMinute(to);
+        if (windowEnd <= windowStart) {
+            return slots;
+        }
+
+        Day day = days.get(date);
+        if (day == null) {
+            slots.add(new Slot(windowStart, windowEnd));
+            return slots;
+        }
+
+        int cursor = windowStart;
+        int i = Math.max(day.lastStartingBefore(windowStart), 0);
+        for (; i < day.starts.length && day.starts[i] < windowEnd; i++) {
+            if (day.starts[i] > cursor) {
+                slots.add(new Slot(cursor, day.starts[i]));
+            }
+            cursor = Math.max(cursor, day.ends[i]);
+        }
+        if (cursor < windowEnd) {
+            slots.add(new Slot(cursor, windowEnd));
+        }
+        return slots;
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.equals(LocalTime.MAX) ? END_OF_DAY : time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalTime fromMinute(int minute) {
+        return minute == END_OF_DAY ? LocalTime.MAX : LocalTime.of(minute / 60, minute % 60);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Types
+     * ---------------------------------------------------------------------- */
+
+    // Immutable snapshot of one date: the approved bookings plus their merged intervals.
+    private static final class Day {
+        private final List<Booking> approved;
+        private final int[] starts;
+        private final int[] ends;
+
+        private Day(List<Booking> approved) {
+            this.approved = approved;
+
+            int[][] intervals = new int[approved.size()][];
+            for (int i = 0; i < intervals.length; i++) {
+                Booking b = approved.get(i);
+                intervals[i] = new int[] { toMinute(b.getStartTime()), toMinute(b.getEndTime()) };
+            }
+            Arrays.sort(intervals, (a, b) -> Integer.compare(a[0], b[0]));
+
+            // Merge overlapping intervals (touching ones stay separate, same as isClashing)
+            int[] s = new int[intervals.length];
+            int[] e = new int[intervals.length];
+            int n = 0;
+            for (int[] interval : intervals) {
+                if (n > 0 && interval[0] < e[n - 1]) {
+                    e[n - 1] = Math.max(e[n - 1], interval[1]);
+                } else {
+                    s[n] = interval[0];
+                    e[n] = interval[1];
+                    n++;
+                }
+            }
+            this.starts = Arrays.copyOf(s, n);
+            this.ends = Arrays.copyOf(e, n);
+        }
+
+        // Index of the last interval with start < minute, or -1.
+        private int lastStartingBefore(int minute) {
+            int lo = 0;
+            int hi = starts.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < minute) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    // A free time range on a single date.
+    static final class Slot {
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+
+        private Slot(int startMinute, int endMinute) {
+            this.startTime = fromMinute(startMinute);
+            this.endTime = fromMinute(endMinute);
+        }
+
+        public LocalTime getStartTime() {
+            return startTime;
+        }
+
+        public LocalTime getEndTime() {
+            return endTime;
+        }
+    }
+}
@@ -21,6 +21,10 @@ public class Booking {
      * e.g. data/bookings/5.txt
      */
     private String filepath;
+    // Prefix the file name is built from, e.g. data/rooms/3300- (also names the mapped store)
+    private String basePath;
+    // Set by the Room holding this booking so it can re-index on status changes
+    private BookingListener listener;
 
     /* -------------------------------------------------------------------------
      * Constructors
@@ -29,8 +33,11 @@ public class Booking {
     // Load existing booking; basePath is directory or prefix without ID
     public Booking(int bookingID, String basePath) throws FileNotFoundException {
         this.bookingID = bookingID;
+        this.basePath = basePath;
         this.filepath = buildFilePath(basePath, bookingID);
+        long start = System.nanoTime();
         loadDetailsFromFile();
+        StorageMetrics.loaded("Booking", start);
     }
 
     // Load existing booking using default base path: data/bookings/
@@ -53,6 +60,7 @@ public class Booking {
         this.startTime = startTime;
         this.endTime = endTime;
         this.status = "Pending";
+        this.basePath = basePath;
         this.filepath = buildFilePath(basePath, bookingID);
         updateDetails();
     }
@@ -76,6 +84,14 @@ public class Booking {
         return basePath + bookingID + ".txt";
     }
 
+    // Whether a booking with this ID has been stored under the prefix
+    public static boolean exists(String basePath, int bookingID) {
+        if (MappedBookingStore.isEnabled()) {
+            return MappedBookingStore.forPrefix(basePath).contains(bookingID);
+        }
+        return RecordStores.get().exists(buildFilePath(basePath, bookingID));
+    }
+
     /* -------------------------------------------------------------------------
      * Load / save
      * ---------------------------------------------------------------------- */
@@ -87,20 +103,29 @@ public class Booking {
 
     // Actual loader used internally
     private void loadDetailsFromFile() throws FileNotFoundException {
-        try (Scanner scanner = new Scanner(new File(filepath))) {
-            userID = scanner.nextInt();
-            scanner.nextLine(); // consume rest of line
-            roomID = scanner.nextInt();
-            scanner.nextLine(); // consume rest of line
-            date = LocalDate.parse(scanner.nextLine().trim());
-            startTime = LocalTime.parse(scanner.nextLine().trim());
-            endTime = LocalTime.parse(scanner.nextLine().trim());
-
-            if (scanner.hasNextLine()) {
-                status = scanner.nextLine().trim();
-                if (status.isEmpty()) {
-                    status = "Pending";
-                }
+        if (MappedBookingStore.isEnabled()) {
+            MappedBookingStore.Entry entry = MappedBookingStore.forPrefix(basePath).read(bookingID);
+            if (entry == null) {
+                throw new FileNotFoundException(filepath);
+            }
+            userID = entry.getUserID();
+            roomID = entry.getRoomID();
+            date = entry.getDate();
+            startTime = entry.getStartTime();
+            endTime = entry.getEndTime();
+            status = entry.getStatus();
+            return;
+        }
+
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(filepath))) {
+            userID = in.requireLine().asInt();
+            roomID = in.requireLine().asInt();
+            date = in.requireLine().asDate();
+            startTime = in.requireLine().asTime();
+            endTime = in.requireLine().asTime();
+
+            if (in.nextLine() && !in.isBlank()) {
+                status = in.asString().trim();
             } else {
                 status = "Pending";
             }
@@ -108,13 +133,14 @@ public class Booking {
     }
 
     private void updateDetails() throws FileNotFoundException {
-        File file = new File(filepath);
-        File parent = file.getParentFile();
-        if (parent != null && !parent.exists()) {
-            parent.mkdirs();
+        if (MappedBookingStore.isEnabled()) {
+            MappedBookingStore.forPrefix(basePath)
+                    .write(bookingID, userID, roomID, date, startTime, endTime, status);
+            return;
         }
 
-        try (PrintWriter writer = new PrintWriter(file)) {
+        StringWriter text = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(text)) {
             writer.println(userID);
             writer.println(roomID);
             writer.println(date);
@@ -122,6 +148,7 @@ public class Booking {
             writer.println(endTime);
             writer.println(status);
         }
+        RecordStores.get().write(filepath, text.toString());
     }
 
     // Optional explicit save (in case you modify fields and want to persist)
@@ -187,13 +214,33 @@ public class Booking {
     }
 
     // Unified version: no checked exception in signature, but still persists.
+    // If the status cannot be stored the booking keeps its old one and the failure
+    // is rethrown, so the room's indexes (told through the listener only on
+    // success) never disagree with the booking.
     public void setStatus(String status) {
+        String oldStatus = this.status;
         this.status = status;
         try {
-            updateDetails();
+            if (MappedBookingStore.isEnabled()) {
+                // Only the status byte changes
+                MappedBookingStore.forPrefix(basePath).writeStatus(bookingID, status);
+            } else {
+                updateDetails();
+            }
         } catch (FileNotFoundException e) {
-            // Swallow here; callers that cared used to catch at a higher level anyway.
+            this.status = oldStatus;
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            this.status = oldStatus;
+            throw e;
         }
+        if (listener != null && !Objects.equals(oldStatus, status)) {
+            listener.statusChanged(this, oldStatus);
+        }
+    }
+
+    void setListener(BookingListener listener) {
+        this.listener = listener;
     }
 
     /* -------------------------------------------------------------------------
@@ -0,0 +1,16 @@
+package com.example.campussysbackend;
+
+// Callback used by Room to keep in-memory indexes in step with its bookings.
+// A Booking notifies its listener after the new status has been written to disk;
+// a Room additionally reports bookings it starts or stops holding.
+
+interface BookingListener {
+
+    void statusChanged(Booking booking, String oldStatus);
+
+    default void bookingAdded(Booking booking) {
+    }
+
+    default void bookingRemoved(Booking booking) {
+    }
+}
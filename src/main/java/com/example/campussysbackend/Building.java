@@ -39,11 +39,10 @@ public class Building {
         }
 
         ArrayList<Integer> roomIDs = new ArrayList<>();
-        try (Scanner idScanner = new Scanner(mapFile)) {
-            while (idScanner.hasNextLine()) {
-                String line = idScanner.nextLine().trim();
-                if (!line.isEmpty()) {
-                    roomIDs.add(Integer.parseInt(line));
+        try (RecordReader in = RecordReader.open(mapFile)) {
+            while (in.nextLine()) {
+                if (!in.isBlank()) {
+                    roomIDs.add(in.asInt());
                 }
             }
         }
@@ -52,7 +51,7 @@ public class Building {
             int levelIndex = id / 1000; // assumes roomID encoding per level
             if (levelIndex >= 0 && levelIndex < rooms.size()) {
                 rooms.get(levelIndex)
-                        .add(new Room(id, buildingID, MAP_BASE_PATH + buildingID + "-"));
+                        .add(RoomRepository.getRoom(id, buildingID, MAP_BASE_PATH + buildingID + "-"));
             }
         }
     }
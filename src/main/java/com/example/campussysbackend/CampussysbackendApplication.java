@@ -1,26 +1,43 @@
 package com.example.campussysbackend;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.*;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 @SpringBootApplication
 @RestController
 public class CampussysbackendApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(CampussysbackendApplication.class);
+
+    // /getfreeslots: the end of the day, which LocalTime cannot express
+    private static final String END_OF_DAY = "24:00";
+
     public static void main(String[] args) {
         SpringApplication.run(CampussysbackendApplication.class, args);
     }
@@ -32,11 +49,86 @@ public class CampussysbackendApplication {
         config.addAllowedOriginPattern("*");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader(ListResponses.NEXT_CURSOR_HEADER);
+        config.addExposedHeader(RequestLogFilter.HEADER);
+        config.addExposedHeader(ChatbotResponseCache.HEADER);
+        config.addExposedHeader(ChatbotIntentRouter.HEADER);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
     }
 
+    // --- Request IDs and one structured log line per request ---
+    @Bean
+    public RequestLogFilter requestLogFilter() {
+        return new RequestLogFilter();
+    }
+
+    // --- Chatbot prompt, built once from the @ChatbotService handlers below ---
+    @Bean
+    public ChatbotPrompts chatbotPrompts() {
+        return ChatbotPrompts.fromHandlers(CampussysbackendApplication.class);
+    }
+
+    // --- Plain chatbot requests answered without Gemini (see ChatbotIntentRouter) ---
+    @Bean
+    public ChatbotIntentRouter chatbotIntentRouter(
+            ChatbotPrompts prompts,
+            @Value("${campussys.chatbot.router.enabled:true}") boolean enabled) {
+        return new ChatbotIntentRouter(prompts, Clock.systemDefaultZone(), enabled);
+    }
+
+    // --- Chatbot answers, bounded and expiring (see ChatbotResponseCache) ---
+    @Bean
+    public ChatbotResponseCache chatbotResponseCache(
+            @Value("${campussys.chatbot.cache.max-size:10000}") long maxSize,
+            @Value("${campussys.chatbot.cache.ttl:10m}") Duration ttl) {
+        return new ChatbotResponseCache(maxSize, ttl);
+    }
+
+    // --- Limits on calls to Gemini (see UpstreamGuard, CircuitBreaker) ---
+    @Bean
+    public UpstreamGuard chatbotUpstreamGuard(
+            @Value("${campussys.chatbot.upstream.max-concurrent:64}") int maxConcurrent,
+            @Value("${campussys.chatbot.upstream.timeout:20s}") Duration timeout,
+            @Value("${campussys.chatbot.upstream.stream-idle-timeout:10s}") Duration streamIdleTimeout,
+            @Value("${campussys.chatbot.breaker.window:20}") int window,
+            @Value("${campussys.chatbot.breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${campussys.chatbot.breaker.failure-rate:50}") int failureRatePercent,
+            @Value("${campussys.chatbot.breaker.open-for:30s}") Duration openFor) {
+        return new UpstreamGuard(maxConcurrent, timeout, streamIdleTimeout,
+                new CircuitBreaker(window, minimumCalls, failureRatePercent, openFor));
+    }
+
+    // --- Pooled, HTTP/2-capable client for the Gemini calls (see ChatbotHttpClient) ---
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider chatbotConnectionProvider(
+            @Value("${campussys.chatbot.http.max-connections:64}") int maxConnections,
+            @Value("${campussys.chatbot.http.pending-acquire-max:128}") int pendingAcquireMax,
+            @Value("${campussys.chatbot.http.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${campussys.chatbot.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${campussys.chatbot.http.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${campussys.chatbot.http.evict-every:30s}") Duration evictEvery) {
+        return ChatbotHttpClient.connectionProvider(maxConnections, pendingAcquireMax, pendingAcquireTimeout,
+                maxIdleTime, maxLifeTime, evictEvery);
+    }
+
+    @Bean
+    public WebClient chatbotWebClient(
+            ConnectionProvider chatbotConnectionProvider,
+            @Value("${campussys.chatbot.http.http2:true}") boolean http2,
+            @Value("${campussys.chatbot.http.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${campussys.chatbot.http.max-response-size:1MB}") DataSize maxResponseSize) {
+        return ChatbotHttpClient.webClient(chatbotConnectionProvider, http2, connectTimeout,
+                (int) maxResponseSize.toBytes());
+    }
+
+    // --- Load every room once at startup so booking ID counters are seeded ---
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRooms() {
+        RoomRepository.getRooms("data/rooms/");
+    }
+
     // ============================================================
     //                 SERVICE 1: /bookroom (POST)
     // ============================================================
@@ -45,9 +137,16 @@ public class CampussysbackendApplication {
      * Success (201): {@code { status:"Pending", message:"Booking created successfully.", bookingId: <int> }}<br>
      * Conflict (409): {@code { status:"Rejected", message:"Booking time conflicts with an existing booking." }}
      */
+    @ChatbotService(id = 1, name = "Room Booking", body = {
+            "userId: number",
+            "roomId: number",
+            "date: \"YYYY-MM-DD\"",
+            "startTime: \"HH:mm\"",
+            "endTime: \"HH:mm\""
+    })
     @PostMapping("/bookroom")
     public ResponseEntity<?> bookRoom(@RequestBody Map<String, Object> body) {
-        System.out.println("bookroom route accessed!");
+        log.debug("/bookroom route accessed");
 
         try {
             // Extract and parse the request body
@@ -65,76 +164,52 @@ public class CampussysbackendApplication {
             new File(bookingsPath).mkdirs();
             new File(roomsPath).mkdirs();
 
-            // Check if room file exists, create if it doesn't
-            File roomFile = new File(roomsPath + roomId + ".txt");
-            if (!roomFile.exists()) {
-                // Default room file layout (capacity, lastBookingID, then "Bookings" section)
-                PrintWriter writer = new PrintWriter(roomFile);
-                writer.println("50");     // capacity (default)
-                writer.println("0");      // lastBookingID
-                writer.println("Bookings");
-                writer.close();
-            }
+            // Same-room bookings are serialized so the conflict check and the booking stay atomic
+            ReentrantLock roomLock = RoomLocks.forRoom(roomId);
+            roomLock.lock();
+            try {
+                // Get the resident room (creating its file if it doesn't exist yet)
+                Room room = RoomRepository.getOrCreateRoom(roomId, 1, roomsPath);
 
-            // Load the room to check for conflicts
-            Room room = new Room(roomId, 1, roomsPath);
+                // Check if the room is available at the requested time
+                boolean conflict = !room.isAvailable(date, startTime, endTime);
 
-            // Check if the room is available at the requested time
-            boolean conflict = !room.isAvailable(date, startTime, endTime);
+                if (conflict) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("status", "Rejected",
+                                    "message", "Booking time conflicts with an existing booking."));
+                }
 
-            if (conflict) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body(Map.of("status", "Rejected",
-                                "message", "Booking time conflicts with an existing booking."));
-            }
+                // Make the booking (returns the allocated ID, or -1 on a clash)
+                int bookingId = room.makeBooking(date, startTime, endTime, userId);
 
-            // Make the booking
-            boolean bookingSuccess = room.makeBooking(date, startTime, endTime, userId);
+                if (bookingId < 0) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("status", "Rejected",
+                                    "message", "Booking time conflicts with an existing booking."));
+                }
 
-            if (!bookingSuccess) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body(Map.of("status", "Rejected",
-                                "message", "Booking time conflicts with an existing booking."));
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Map.of("status", "Pending",
+                                "message", "Booking created successfully.",
+                                "bookingId", bookingId));
+            } finally {
+                roomLock.unlock();
             }
 
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(Map.of("status", "Pending",
-                            "message", "Booking created successfully.",
-                            "bookingId", getLastBookingId(roomId, roomsPath)));
-
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("/bookroom failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "Failed to create booking: Room file not found."));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("/bookroom rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("status", "Error",
                             "message", "Invalid request data: " + e.getMessage()));
         }
     }
 
-    // Helper method to get the last booking ID for a room
-    // Room file format:
-    //   line 1: capacity
-    //   line 2: lastBookingID
-    //   ...
-    private int getLastBookingId(int roomId, String filepath) throws FileNotFoundException {
-        try (Scanner scanner = new Scanner(new File(filepath + roomId + ".txt"))) {
-            if (!scanner.hasNextLine()) {
-                return 0;
-            }
-            // Skip capacity
-            scanner.nextLine();
-            if (!scanner.hasNextLine()) {
-                return 0;
-            }
-            // Second line is lastBookingID
-            return Integer.parseInt(scanner.nextLine().trim());
-        }
-    }
-
     // ============================================================
     //              SERVICE 2: /scheduleevents (POST)
     // ============================================================
@@ -143,9 +218,18 @@ public class CampussysbackendApplication {
      * Success (201): {@code { status:"Created", message:"Event scheduled.", eventId:<int> }}<br>
      * Error (400/404): {@code { status:"Error", message:"..." }}
      */
+    @ChatbotService(id = 2, name = "Schedule Events", body = {
+            "userId: number",
+            "title: string",
+            "roomId: number",
+            "date: \"YYYY-MM-DD\"",
+            "startTime: \"HH:mm\"",
+            "endTime: \"HH:mm\"",
+            "description: string"
+    })
     @PostMapping("/scheduleevents")
     public ResponseEntity<?> scheduleEvent(@RequestBody Map<String, Object> body) {
-        System.out.println("scheduleevents route accessed!");
+        log.debug("/scheduleevents route accessed");
         try {
             // Validate required fields
             if (body.get("userId") == null || body.get("title") == null ||
@@ -171,26 +255,16 @@ public class CampussysbackendApplication {
             // Ensure directories exist
             new File(eventsPath).mkdirs();
 
-            // Get the next event ID
-            File eventIDsFile = new File(eventsPath + "eventIDs.txt");
-            int eventId = 1;
-
-            if (eventIDsFile.exists()) {
-                Scanner scanner = new Scanner(eventIDsFile);
-                while (scanner.hasNextLine()) {
-                    eventId = Integer.parseInt(scanner.nextLine()) + 1;
-                }
-                scanner.close();
-            }
+            // Get the next event ID (shared, in-memory sequence; no scan of eventIDs.txt)
+            IdSequence eventIds = IdSequence.forIdsFile(eventsPath + "eventIDs.txt");
+            int eventId = eventIds.next();
 
             // Create the event
             Event event = new Event(eventId, userId, title, description,
                     roomId, date, startTime, endTime);
 
             // Update event IDs file
-            PrintWriter writer = new PrintWriter(new FileWriter(eventIDsFile, true));
-            writer.println(eventId);
-            writer.close();
+            eventIds.record(eventId);
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Map.of("status", "Created",
@@ -198,17 +272,17 @@ public class CampussysbackendApplication {
                             "eventId", eventId));
 
         } catch (FileNotFoundException e) {
-            System.out.println(e);
+            log.warn("/scheduleevents rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "Failed to create event: File error."));
         } catch (NumberFormatException e) {
-            System.out.println(e);
+            log.warn("/scheduleevents rejected: {}", e.toString());
             return ResponseEntity.badRequest()
                     .body(Map.of("status", "Error",
                             "message", "Invalid userId or roomId format."));
         } catch (Exception e) {
-            System.out.println(e);
+            log.error("/scheduleevents failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "An error occurred: " + e.getMessage()));
@@ -223,9 +297,14 @@ public class CampussysbackendApplication {
      * Success (200): {@code { status:"Registered"|"Cancelled", message:"..." }}<br>
      * Error (400/404): {@code { status:"Invalid"|"NotFound", message:"..." }}
      */
+    @ChatbotService(id = 3, name = "Register/Dismiss Event", body = {
+            "userId: number",
+            "eventId: number",
+            "action: \"register\" | \"cancel\""
+    })
     @PostMapping("/registerevent")
     public ResponseEntity<?> registerOrDismiss(@RequestBody Map<String, Object> body) {
-        System.out.println("registerevent route accessed!");
+        log.debug("/registerevent route accessed");
         try {
             // Validate eventId
             Object id = body.get("eventId");
@@ -251,61 +330,68 @@ public class CampussysbackendApplication {
             // Ensure directory exists
             new File(eventsPath).mkdirs();
 
-            // Check if event file exists
-            File eventFile = new File(eventsPath + eventId + ".txt");
-            if (!eventFile.exists()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("status", "NotFound",
-                                "message", "Event not found: " + eventId));
-            }
+            // Read, check and write the event as one step, so that a concurrent
+            // registration for the same event is not lost
+            ReentrantLock eventLock = EventLocks.forEvent(eventId);
+            eventLock.lock();
+            try {
+                // Check if event file exists
+                if (!RecordStores.get().exists(eventsPath + eventId + ".txt")) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("status", "NotFound",
+                                    "message", "Event not found: " + eventId));
+                }
+
+                // Load the event
+                Event event = new Event(eventId);
+
+                if (action.equals("register")) {
+                    // Check if user is already registered
+                    if (event.getAttendees().contains(userId)) {
+                        return ResponseEntity.ok()
+                                .body(Map.of("status", "Registered",
+                                        "message", "You are already registered for this event."));
+                    }
 
-            // Load the event
-            Event event = new Event(eventId);
+                    // Register the user (automatically saves via writeDetails())
+                    event.registerUser(userId);
 
-            if (action.equals("register")) {
-                // Check if user is already registered
-                if (event.getAttendees().contains(userId)) {
                     return ResponseEntity.ok()
                             .body(Map.of("status", "Registered",
-                                    "message", "You are already registered for this event."));
+                                    "message", "You are registered for the event."));
                 }
 
-                // Register the user (automatically saves via writeDetails())
-                event.registerUser(userId);
+                if (action.equals("cancel")) {
+                    if (!event.getAttendees().contains(userId)) {
+                        return ResponseEntity.ok(Map.of("status", "Cancelled",
+                                "message", "You were not registered for this event."));
+                    }
 
-                return ResponseEntity.ok()
-                        .body(Map.of("status", "Registered",
-                                "message", "You are registered for the event."));
-            }
+                    event.unregisterUser(userId);
 
-            if (action.equals("cancel")) {
-                if (!event.getAttendees().contains(userId)) {
                     return ResponseEntity.ok(Map.of("status", "Cancelled",
-                            "message", "You were not registered for this event."));
+                            "message", "Your registration was cancelled."));
                 }
 
-                event.unregisterUser(userId);
-
-                return ResponseEntity.ok(Map.of("status", "Cancelled",
-                        "message", "Your registration was cancelled."));
+                return ResponseEntity.badRequest()
+                        .body(Map.of("status", "Invalid",
+                                "message", "action must be register|cancel."));
+            } finally {
+                eventLock.unlock();
             }
 
-            return ResponseEntity.badRequest()
-                    .body(Map.of("status", "Invalid",
-                            "message", "action must be register|cancel."));
-
         } catch (FileNotFoundException e) {
-            System.out.println(e);
+            log.warn("/registerevent rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("status", "NotFound",
                             "message", "Event file not found."));
         } catch (NumberFormatException e) {
-            System.out.println(e);
+            log.warn("/registerevent rejected: {}", e.toString());
             return ResponseEntity.badRequest()
                     .body(Map.of("status", "Invalid",
                             "message", "Invalid eventId or userId format."));
         } catch (Exception e) {
-            System.out.println(e);
+            log.error("/registerevent failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "An error occurred: " + e.getMessage()));
@@ -320,9 +406,13 @@ public class CampussysbackendApplication {
      * Success (200): {@code { status:"Cancelled", message:"Event cancelled." }}<br>
      * Error (404/400): {@code { status:"NotFound"|"Invalid", message:"..." }}
      */
+    @ChatbotService(id = 4, name = "Cancel Event", body = {
+            "eventId: number",
+            "reason: string"
+    })
     @PostMapping("/cancelevent")
     public ResponseEntity<?> cancelEvent(@RequestBody Map<String, Object> body) {
-        System.out.println("cancelevent route accessed!");
+        log.debug("/cancelevent route accessed");
         try {
             // Validate eventId
             if (body.get("eventId") == null) {
@@ -337,32 +427,42 @@ public class CampussysbackendApplication {
             String eventsPath = "data/events/";
             String usersPath = "data/users/";
 
-            Event event = new Event(eventId);
-            event.cancelEvent(usersPath);  // Pass usersPath
-
-            // Delete event file
-            new File(eventsPath + eventId + ".txt").delete();
-
-            // Delete feedback files
-            for (Feedback feedback : event.getFeedback()) {
-                new File(eventsPath + eventId + "-" + feedback.getFeedbackID() + ".txt").delete();
+            // A registration running at the same time would write the event back
+            ReentrantLock eventLock = EventLocks.forEvent(eventId);
+            eventLock.lock();
+            try {
+                Event event = new Event(eventId);
+                event.cancelEvent(usersPath);  // Pass usersPath
+
+                // Delete event file
+                RecordStore store = RecordStores.get();
+                store.delete(eventsPath + eventId + ".txt");
+                EventIndex.forPath(eventsPath).remove(eventId);
+                FeedbackIndex.forPath(eventsPath).remove(eventId);
+
+                // Delete feedback files
+                for (Feedback feedback : event.getFeedback()) {
+                    store.delete(eventsPath + eventId + "-" + feedback.getFeedbackID() + ".txt");
+                }
+            } finally {
+                eventLock.unlock();
             }
 
             return ResponseEntity.ok(Map.of("status", "Cancelled",
                     "message", "Event cancelled."));
 
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.warn("/cancelevent rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("status", "NotFound",
                             "message", "Event or user file not found."));
         } catch (NumberFormatException e) {
-            e.printStackTrace();
+            log.warn("/cancelevent rejected: {}", e.toString());
             return ResponseEntity.badRequest()
                     .body(Map.of("status", "Invalid",
                             "message", "Invalid eventId format."));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/cancelevent failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "An error occurred: " + e.getMessage()));
@@ -377,9 +477,14 @@ public class CampussysbackendApplication {
      * Success (200): {@code { status:"Cancelled", message:"Booking cancelled." }}<br>
      * Error (404/400): {@code { status:"NotFound"|"Invalid", message:"..." }}
      */
+    @ChatbotService(id = 5, name = "Cancel Booking", body = {
+            "bookingId: number",
+            "roomId: number",
+            "reason: string"
+    })
     @PostMapping("/cancelbooking")
     public ResponseEntity<?> cancelBooking(@RequestBody Map<String, Object> body) {
-        System.out.println("cancelbooking route accessed!");
+        log.debug("/cancelbooking route accessed");
         try {
             // Validate required fields
             if (body.get("bookingId") == null || body.get("roomId") == null) {
@@ -396,49 +501,59 @@ public class CampussysbackendApplication {
             String roomsPath      = "data/rooms/";
             String bookingPrefix  = roomsPath + roomId + "-";
 
-            // Check if booking file exists
-            File bookingFile = new File(bookingPrefix + bookingId + ".txt");
-            if (!bookingFile.exists()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("status", "NotFound",
-                                "message", "Booking not found: " + bookingId));
-            }
+            // Serialize with other booking changes on this room so no status update is lost
+            ReentrantLock roomLock = RoomLocks.forRoom(roomId);
+            roomLock.lock();
+            try {
+                // Check if booking file exists
+                if (!Booking.exists(bookingPrefix, bookingId)) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("status", "NotFound",
+                                    "message", "Booking not found: " + bookingId));
+                }
 
-            // Load the booking
-            Booking booking = new Booking(bookingId, bookingPrefix);
+                // Use the room's resident copy so its listings see the change;
+                // past bookings are not kept in memory, so fall back to the file.
+                Booking booking = RoomRepository.getRoom(roomId, 1, roomsPath).getBooking(bookingId);
+                if (booking == null) {
+                    booking = new Booking(bookingId, bookingPrefix);
+                }
 
-            // Only Pending / Approved bookings can be cancelled
-            String currentStatus = booking.getStatus();
-            if (currentStatus.equals("Cancelled") || currentStatus.equals("Rejected")) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("status", "Invalid",
-                                "message", "Cannot cancel booking with status: " + currentStatus));
-            }
+                // Only Pending / Approved bookings can be cancelled
+                String currentStatus = booking.getStatus();
+                if (currentStatus.equals("Cancelled") || currentStatus.equals("Rejected")) {
+                    return ResponseEntity.badRequest()
+                            .body(Map.of("status", "Invalid",
+                                    "message", "Cannot cancel booking with status: " + currentStatus));
+                }
 
-            // Cancel the booking by setting status to "Cancelled"
-            booking.setStatus("Cancelled");
+                // Cancel the booking by setting status to "Cancelled"
+                booking.setStatus("Cancelled");
 
-            String message = "Booking cancelled.";
-            if (!reason.isBlank()) {
-                message += " Reason: " + reason;
-            }
+                String message = "Booking cancelled.";
+                if (!reason.isBlank()) {
+                    message += " Reason: " + reason;
+                }
 
-            return ResponseEntity.ok()
-                    .body(Map.of("status", "Cancelled",
-                            "message", message));
+                return ResponseEntity.ok()
+                        .body(Map.of("status", "Cancelled",
+                                "message", message));
+            } finally {
+                roomLock.unlock();
+            }
 
         } catch (FileNotFoundException e) {
-            System.out.println(e);
+            log.warn("/cancelbooking rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("status", "NotFound",
                             "message", "Booking file not found."));
         } catch (NumberFormatException e) {
-            System.out.println(e);
+            log.warn("/cancelbooking rejected: {}", e.toString());
             return ResponseEntity.badRequest()
                     .body(Map.of("status", "Invalid",
                             "message", "Invalid bookingId or roomId format."));
         } catch (Exception e) {
-            System.out.println(e);
+            log.error("/cancelbooking failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "An error occurred: " + e.getMessage()));
@@ -454,9 +569,17 @@ public class CampussysbackendApplication {
      * Request: {@code { userId, location, category:"Electrical|Plumbing|HVAC|Other", description, priority:"low|medium|high", contactEmail }}<br>
      * Success (201): {@code { status:"Pending", message:"Maintenance request created.", requestId:<int> }}<br>
      */
+    @ChatbotService(id = 6, name = "Submit Maintenance Request", body = {
+            "userId: number",
+            "location: string",
+            "category: \"electrical\" | \"plumbing\" | \"hvac\" | \"other\"",
+            "description: string",
+            "priority: \"low\" | \"medium\" | \"high\"",
+            "contactEmail: string"
+    })
     @PostMapping("/maintenancerequest")
     public ResponseEntity<?> createMaintenance(@RequestBody Map<String, Object> body) {
-        System.out.println("maintenancerequest route accessed!");
+        log.debug("/maintenancerequest route accessed");
         try {
             // Validate required fields
             if (body.get("userId") == null || body.get("description") == null) {
@@ -480,29 +603,16 @@ public class CampussysbackendApplication {
             // Ensure directory exists
             new File(requestsPath).mkdirs();
 
-            // Get next request ID
-            File requestIDsFile = new File(requestsPath + "IDs.txt");
-            int requestId = 1;
-
-            if (requestIDsFile.exists()) {
-                Scanner scanner = new Scanner(requestIDsFile);
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    if (!line.isEmpty()) {
-                        requestId = Integer.parseInt(line) + 1;
-                    }
-                }
-                scanner.close();
-            }
+            // Get next request ID (shared, in-memory sequence; no scan of IDs.txt)
+            IdSequence requestIds = IdSequence.forIdsFile(requestsPath + "IDs.txt");
+            int requestId = requestIds.next();
 
             // Create the maintenance request
             MaintenanceRequest request = new MaintenanceRequest(requestId, userId, description,
                     requestsPath + requestId + ".txt");
 
             // Update request IDs file
-            PrintWriter writer = new PrintWriter(new FileWriter(requestIDsFile, true));
-            writer.println(requestId);
-            writer.close();
+            requestIds.record(requestId);
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Map.of("status", "Pending",
@@ -510,17 +620,17 @@ public class CampussysbackendApplication {
                             "requestId", requestId));
 
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("/maintenancerequest failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "Failed to create maintenance request: File error."));
         } catch (NumberFormatException e) {
-            e.printStackTrace();
+            log.warn("/maintenancerequest rejected: {}", e.toString());
             return ResponseEntity.badRequest()
                     .body(Map.of("status", "Invalid",
                             "message", "Invalid userId format."));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/maintenancerequest failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "An error occurred: " + e.getMessage()));
@@ -535,9 +645,12 @@ public class CampussysbackendApplication {
      * Success (200): {@code { requestId, userId, status, description, comments, timestamp }}<br>
      * Error (404/400): {@code { status:"NotFound"|"Invalid", message:"..." }}
      */
+    @ChatbotService(id = 7, name = "View Maintenance Status", body = {
+            "requestId: number"
+    })
     @PostMapping("/viewmaintenance")
     public ResponseEntity<?> viewMaintenance(@RequestBody Map<String, Object> body) {
-        System.out.println("viewmaintenance route accessed!");
+        log.debug("/viewmaintenance route accessed");
         if (body.get("requestId") == null) {
             return ResponseEntity.badRequest().body(Map.of(
                     "status", "Invalid",
@@ -562,19 +675,19 @@ public class CampussysbackendApplication {
             return ResponseEntity.ok(response);
 
         } catch (NumberFormatException e) {
-            e.printStackTrace();
+            log.warn("/viewmaintenance rejected: {}", e.toString());
             return ResponseEntity.badRequest().body(Map.of(
                     "status", "Invalid",
                     "message", "requestId must be a valid integer."
             ));
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.warn("/viewmaintenance rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "status", "NotFound",
                     "message", "Maintenance request not found."
             ));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/viewmaintenance failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -588,11 +701,18 @@ public class CampussysbackendApplication {
     /**
      * Request: {@code { bookingId, roomId, decision:"approve"|"reject", note? }}<br>
      * Success (200): {@code { status:"Approved"|"Rejected", message:"..." }}<br>
+     * Conflict (409): {@code { status:"Conflict", message:"Booking time conflicts with an approved booking." }}<br>
      * Error (404/400): {@code { status:"NotFound"|"Invalid", message:"..." }}
      */
+    @ChatbotService(id = 9, name = "Approve/Reject Booking", body = {
+            "bookingId: number",
+            "roomId: number",
+            "decision: \"approve\" | \"reject\"",
+            "note: string"
+    })
     @PostMapping("/approverejectbooking")
     public ResponseEntity<?> approveRejectBooking(@RequestBody Map<String, Object> body) {
-        System.out.println("approverejectbooking route accessed!");
+        log.debug("/approverejectbooking route accessed");
         try {
             // Validate required fields
             if (body.get("bookingId") == null || body.get("roomId") == null) {
@@ -619,43 +739,61 @@ public class CampussysbackendApplication {
             String roomsPath = "data/rooms/";
             String bookingFilePath = roomsPath + roomId + "-";
 
-            // Check if booking file exists
-            File bookingFile = new File(bookingFilePath + bookingId + ".txt");
-            if (!bookingFile.exists()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
-                        "status", "NotFound",
-                        "message", "Booking not found: " + bookingId
-                ));
-            }
+            // Serialize with other booking changes on this room so no status update is lost
+            ReentrantLock roomLock = RoomLocks.forRoom(roomId);
+            roomLock.lock();
+            try {
+                // Check if booking file exists
+                if (!Booking.exists(bookingFilePath, bookingId)) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                            "status", "NotFound",
+                            "message", "Booking not found: " + bookingId
+                    ));
+                }
 
-            // Load the booking
-            Booking booking = new Booking(bookingId, bookingFilePath);
+                // Use the room's resident copy so its listings see the change;
+                // past bookings are not kept in memory, so fall back to the file.
+                Room room = RoomRepository.getRoom(roomId, 1, roomsPath);
+                Booking booking = room.getBooking(bookingId);
+                if (booking == null) {
+                    booking = new Booking(bookingId, bookingFilePath);
+                }
 
-            // Check if booking is pending
-            if (!booking.getStatus().equals("Pending")) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "status", "Invalid",
-                        "message", "Only pending bookings can be approved or rejected. Current status: " + booking.getStatus()
-                ));
-            }
+                // Check if booking is pending
+                if (!booking.getStatus().equals("Pending")) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                            "status", "Invalid",
+                            "message", "Only pending bookings can be approved or rejected. Current status: " + booking.getStatus()
+                    ));
+                }
 
-            // Process decision
-            if (decision.equals("approve")) {
-                booking.approveBooking();
-                String message = "Booking approved.";
-                if (!note.isBlank()) {
-                    message += " Note: " + note;
+                // Process decision
+                if (decision.equals("approve")) {
+                    // Pending bookings may overlap; only one of them can become approved
+                    if (!room.isAvailable(booking.getDate(), booking.getStartTime(), booking.getEndTime())) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                                "status", "Conflict",
+                                "message", "Booking time conflicts with an approved booking."
+                        ));
+                    }
+                    booking.approveBooking();
+                    String message = "Booking approved.";
+                    if (!note.isBlank()) {
+                        message += " Note: " + note;
+                    }
+                    return ResponseEntity.ok(Map.of("status", "Approved", "message", message));
                 }
-                return ResponseEntity.ok(Map.of("status", "Approved", "message", message));
-            }
 
-            if (decision.equals("reject")) {
-                booking.rejectBooking();
-                String message = "Booking rejected.";
-                if (!note.isBlank()) {
-                    message += " Note: " + note;
+                if (decision.equals("reject")) {
+                    booking.rejectBooking();
+                    String message = "Booking rejected.";
+                    if (!note.isBlank()) {
+                        message += " Note: " + note;
+                    }
+                    return ResponseEntity.ok(Map.of("status", "Rejected", "message", message));
                 }
-                return ResponseEntity.ok(Map.of("status", "Rejected", "message", message));
+            } finally {
+                roomLock.unlock();
             }
 
             // This shouldn't be reached due to earlier validation, but kept for safety
@@ -665,19 +803,19 @@ public class CampussysbackendApplication {
             ));
 
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.warn("/approverejectbooking rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "status", "NotFound",
                     "message", "Booking file not found."
             ));
         } catch (NumberFormatException e) {
-            e.printStackTrace();
+            log.warn("/approverejectbooking rejected: {}", e.toString());
             return ResponseEntity.badRequest().body(Map.of(
                     "status", "Invalid",
                     "message", "Invalid bookingId or roomId format."
             ));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/approverejectbooking failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -689,33 +827,138 @@ public class CampussysbackendApplication {
     //      SERVICE 12: /getstudentfeedback (POST)
     // ============================================================
     /**
+     * Feedback whose message contains every word of {@code keyword}, dated fromDate..toDate
+     * (inclusive; either may be left out), from the FeedbackIndex.<br>
+     * <br>
      * Request: {@code { keyword?, fromDate?:"YYYY-MM-DD", toDate?:"YYYY-MM-DD" }}<br>
-     * Success (200): {@code [ { id, label, rating } ]}
+     * Paging (optional): {@code ?limit=<1..1000>&cursor=<X-Next-Cursor of the previous page>}<br>
+     * Streaming (optional): {@code Accept: application/x-ndjson} for one JSON object per line<br>
+     * <br>
+     * Success (200): {@code [ { id:"<eventId>-<feedbackId>", label, rating, eventId, userId, category,
+     * message, date, sentiment:"positive|neutral|negative" } ]}<br>
+     * Error (400/500): {@code { status:"Invalid"|"Error", message:"..." }}
      */
+    @ChatbotService(id = 12, name = "View Student Feedback", body = {
+            "keyword: string",
+            "fromDate: \"YYYY-MM-DD\"",
+            "toDate: \"YYYY-MM-DD\""
+    })
     @PostMapping("/getstudentfeedback")
-    public ResponseEntity<?> getStudentFeedback(@RequestBody Map<String, Object> body) {
-        // demo list
-        return ResponseEntity.ok(List.of(
-                Map.of("id", 3001, "label", "#3001 — cafeteria — \"Food was great\"", "rating", 5),
-                Map.of("id", 3002, "label", "#3002 — lecture — \"Too fast\"", "rating", 3)
-        ));
+    public ResponseEntity<?> getStudentFeedback(
+            @RequestBody Map<String, Object> body,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("/getstudentfeedback route accessed");
+        try {
+            String keyword = body.get("keyword") == null ? null : body.get("keyword").toString();
+            LocalDate fromDate = optionalDate(body, "fromDate");
+            LocalDate toDate = optionalDate(body, "toDate");
+
+            List<FeedbackIndex.Entry> found = FeedbackIndex.forPath("data/events/").find(keyword, fromDate, toDate);
+
+            return ListResponses.respond(found, entry -> entry.seq, limit, cursor, accept, (entry, json) -> {
+                json.begin()
+                        .field("id", entry.id())
+                        .field("label", "#" + entry.id() + " — " + entry.category + " — \"" + entry.message + "\"")
+                        .field("rating", entry.rating)
+                        .field("eventId", entry.eventID)
+                        .field("userId", entry.userID)
+                        .field("category", entry.category)
+                        .field("message", entry.message)
+                        .field("date", entry.date.toString())
+                        .field("sentiment", entry.sentiment.name().toLowerCase(Locale.ROOT))
+                        .end();
+                return true;
+            });
+
+        } catch (DateTimeParseException e) {
+            log.warn("/getstudentfeedback rejected: {}", e.toString());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "Invalid",
+                    "message", "fromDate and toDate must be YYYY-MM-DD."
+            ));
+        } catch (Exception e) {
+            log.error("/getstudentfeedback failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "status", "Error",
+                    "message", "An error occurred: " + e.getMessage()
+            ));
+        }
     }
 
     // ============================================================
     //   SERVICE 13: /summarizestudentfeedback (POST)
     // ============================================================
     /**
+     * Sentiment and theme counts over the feedback dated fromDate..toDate, added up from the
+     * FeedbackIndex's per-day totals. Themes are listed most mentioned first; themes and
+     * sentiment are left out when summaryType asks only for the other.<br>
+     * <br>
      * Request: {@code { fromDate?:"YYYY-MM-DD", toDate?:"YYYY-MM-DD", summaryType:"Themes|Sentiment|Both" }}<br>
-     * Success (200): {@code { summaryType, themes:[...], sentiment:{ positive:int, neutral:int, negative:int } }}
+     * Success (200): {@code { summaryType, total, averageRating, themes:[...], themeCounts:{ theme:int },
+     * sentiment:{ positive:int, neutral:int, negative:int } }}<br>
+     * Error (400/500): {@code { status:"Invalid"|"Error", message:"..." }}
      */
+    @ChatbotService(id = 13, name = "Summarize Student Feedback", body = {
+            "fromDate: \"YYYY-MM-DD\"",
+            "toDate: \"YYYY-MM-DD\"",
+            "summaryType: \"themes\" | \"sentiment\" | \"both\""
+    })
     @PostMapping("/summarizestudentfeedback")
     public ResponseEntity<?> summarizeFeedback(@RequestBody Map<String, Object> body) {
-        String type = String.valueOf(body.getOrDefault("summaryType","Both"));
-        return ResponseEntity.ok(Map.of(
-                "summaryType", type,
-                "themes", List.of("Facilities", "Teaching Pace", "Cafeteria"),
-                "sentiment", Map.of("positive", 12, "neutral", 5, "negative", 3)
-        ));
+        log.debug("/summarizestudentfeedback route accessed");
+        try {
+            String type = String.valueOf(body.getOrDefault("summaryType", "Both"));
+            String typeKey = type.trim().toLowerCase(Locale.ROOT);
+            if (!typeKey.equals("themes") && !typeKey.equals("sentiment") && !typeKey.equals("both")) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "Invalid",
+                        "message", "summaryType must be Themes|Sentiment|Both."
+                ));
+            }
+            LocalDate fromDate = optionalDate(body, "fromDate");
+            LocalDate toDate = optionalDate(body, "toDate");
+
+            FeedbackIndex.Summary summary = FeedbackIndex.forPath("data/events/").summarize(fromDate, toDate);
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("summaryType", type);
+            response.put("total", summary.getTotal());
+            response.put("averageRating", Math.round(summary.getAverageRating() * 100) / 100.0);
+            if (!typeKey.equals("sentiment")) {
+                Map<String, Integer> themes = summary.getThemes();
+                response.put("themes", new ArrayList<>(themes.keySet()));
+                response.put("themeCounts", themes);
+            }
+            if (!typeKey.equals("themes")) {
+                response.put("sentiment", Map.of(
+                        "positive", summary.getCount(FeedbackIndex.Sentiment.POSITIVE),
+                        "neutral", summary.getCount(FeedbackIndex.Sentiment.NEUTRAL),
+                        "negative", summary.getCount(FeedbackIndex.Sentiment.NEGATIVE)
+                ));
+            }
+            return ResponseEntity.ok(response);
+
+        } catch (DateTimeParseException e) {
+            log.warn("/summarizestudentfeedback rejected: {}", e.toString());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "Invalid",
+                    "message", "fromDate and toDate must be YYYY-MM-DD."
+            ));
+        } catch (Exception e) {
+            log.error("/summarizestudentfeedback failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "status", "Error",
+                    "message", "An error occurred: " + e.getMessage()
+            ));
+        }
+    }
+
+    // An optional "YYYY-MM-DD" field; null when absent or blank.
+    private static LocalDate optionalDate(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        return value == null || value.toString().isBlank() ? null : LocalDate.parse(value.toString().trim());
     }
 
     // ============================================================
@@ -726,9 +969,14 @@ public class CampussysbackendApplication {
      * Success (200): {@code { status, message:"Status updated.", requestId, userId, comments }}<br>
      * Error (404/400/500): {@code { status:"NotFound"|"Invalid"|"Error", message:"..." }}
      */
+    @ChatbotService(id = 14, name = "Update Maintenance Status", body = {
+            "ticketId: number",
+            "status: \"open\" | \"in_progress\" | \"completed\" | \"closed\"",
+            "comment: string"
+    })
     @PostMapping("/updatemaintenancestatus")
     public ResponseEntity<?> updateMaintenanceStatus(@RequestBody Map<String, Object> body) {
-        System.out.println("updatemaintenancestatus route accessed!");
+        log.debug("/updatemaintenancestatus route accessed");
         try {
             // Validate ticketId
             if (body.get("ticketId") == null) {
@@ -775,9 +1023,7 @@ public class CampussysbackendApplication {
             String comment = String.valueOf(body.getOrDefault("comment", "")).trim();
 
             String requestsPath = "data/requests/";
-            File requestFile = new File(requestsPath + ticketId + ".txt");
-
-            if (!requestFile.exists()) {
+            if (!RecordStores.get().exists(requestsPath + ticketId + ".txt")) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                         "status", "NotFound",
                         "message", "Maintenance request not found: " + ticketId
@@ -803,19 +1049,19 @@ public class CampussysbackendApplication {
             return ResponseEntity.ok(response);
 
         } catch (NumberFormatException e) {
-            e.printStackTrace();
+            log.warn("/updatemaintenancestatus rejected: {}", e.toString());
             return ResponseEntity.badRequest().body(Map.of(
                     "status", "Invalid",
                     "message", "ticketId must be a valid integer."
             ));
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.warn("/updatemaintenancestatus rejected: {}", e.toString());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "status", "NotFound",
                     "message", "Maintenance request file not found."
             ));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/updatemaintenancestatus failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -835,7 +1081,7 @@ public class CampussysbackendApplication {
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, Object> body) {
-        System.out.println("login route accessed!");
+        log.debug("/login route accessed");
         try {
             // Validate required fields
             if (body.get("email") == null || body.get("password") == null) {
@@ -847,61 +1093,32 @@ public class CampussysbackendApplication {
             String email = body.get("email").toString().trim();
             String password = body.get("password").toString();
 
-            // Define credentials file path
-            String credentialsPath = "data/users/credentials.txt";
-            File credentialsFile = new File(credentialsPath);
+            // Credentials are indexed in memory by email and reloaded when the file changes
+            CredentialStore.Credential user = CredentialStore.getDefault().authenticate(email, password);
 
-            // Check if credentials file exists
-            if (!credentialsFile.exists()) {
+            if (user == null) {
+                // No matching credentials found
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("status", "Unauthorized",
                                 "message", "Invalid credentials."));
             }
 
-            // Read and validate credentials
-            Scanner scanner = new Scanner(credentialsFile);
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.isEmpty()) continue;
-
-                // Format: userId,email,password,role,name
-                String[] parts = line.split(",", 5);
-                if (parts.length < 5) continue;
-
-                String storedUserId = parts[0];
-                String storedEmail = parts[1];
-                String storedPassword = parts[2];
-                String storedRole = parts[3];
-                String storedName = parts[4];
-
-                // Check if credentials match
-                if (storedEmail.equalsIgnoreCase(email) && storedPassword.equals(password)) {
-                    scanner.close();
-
-                    // Return user data
-                    return ResponseEntity.ok(Map.of(
-                            "userId", Integer.parseInt(storedUserId),
-                            "name", storedName,
-                            "email", storedEmail,
-                            "role", storedRole,
-                            "message", "Login successful."
-                    ));
-                }
-            }
-            scanner.close();
-
-            // No matching credentials found
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("status", "Unauthorized",
-                            "message", "Invalid credentials."));
+            // Return user data
+            return ResponseEntity.ok(Map.of(
+                    "userId", user.getUserId(),
+                    "name", user.getName(),
+                    "email", user.getEmail(),
+                    "role", user.getRole(),
+                    "message", "Login successful."
+            ));
 
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+        } catch (IOException e) {
+            log.error("/login failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "Authentication system error."));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/login failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "Error",
                             "message", "An error occurred: " + e.getMessage()));
@@ -925,12 +1142,18 @@ public class CampussysbackendApplication {
      * Returns all bookings for the given user across all rooms.<br>
      * <br>
      * Request: {@code GET /getbookings?userId=<int>}<br>
+     * Paging (optional): {@code &limit=<1..1000>&cursor=<X-Next-Cursor of the previous page>}<br>
+     * Streaming (optional): {@code Accept: application/x-ndjson} for one JSON object per line<br>
      * Success (200): {@code [ { bookingId, roomId, date, startTime, endTime, status } ]}<br>
      * Error (400/500): {@code { status:"Invalid"|"Error", message:"..." }}
      */
     @GetMapping("/getbookings")
-    public ResponseEntity<?> getBookings(@RequestParam(name = "userId", required = false) Integer userId) {
-        System.out.println("getbookings route accessed!");
+    public ResponseEntity<?> getBookings(
+            @RequestParam(name = "userId", required = false) Integer userId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("/getbookings route accessed");
         try {
             // Validate required field
             if (userId == null) {
@@ -942,59 +1165,23 @@ public class CampussysbackendApplication {
 
             // Bookings are stored under room files in data/rooms/
             String roomsPath = "data/rooms/";
-            File roomsDir = new File(roomsPath);
 
-            if (!roomsDir.exists() || !roomsDir.isDirectory()) {
-                // No rooms -> no bookings
-                return ResponseEntity.ok(List.of());
-            }
-
-            List<Map<String, Object>> result = new ArrayList<>();
-
-            // Room metadata files look like: <roomId>.txt (no dash)
-            File[] roomFiles = roomsDir.listFiles((dir, name) ->
-                    name.endsWith(".txt") && !name.contains("-")
-            );
-
-            if (roomFiles != null) {
-                for (File roomFile : roomFiles) {
-                    String fileName = roomFile.getName(); // e.g. "3300.txt"
-                    String idPart = fileName.substring(0, fileName.length() - 4);
-                    int roomId;
-                    try {
-                        roomId = Integer.parseInt(idPart);
-                    } catch (NumberFormatException ex) {
-                        // Skip any unexpected file names
-                        continue;
-                    }
-
-                    try {
-                        // buildingID is not used for file layout here; 1 is a safe dummy
-                        Room room = new Room(roomId, 1, roomsPath);
-
-                        for (Booking booking : room.getBookings()) {
-                            if (booking.getUserID() == userId) {
-                                Map<String, Object> dto = new HashMap<>();
-                                dto.put("bookingId", booking.getBookingID());
-                                dto.put("roomId", roomId);
-                                dto.put("date", booking.getDate().toString());
-                                dto.put("startTime", booking.getStartTime().toString());
-                                dto.put("endTime", booking.getEndTime().toString());
-                                dto.put("status", booking.getStatus());
-                                result.add(dto);
-                            }
-                        }
-                    } catch (FileNotFoundException e) {
-                        // If a room file disappears between listing and reading, skip it
-                        e.printStackTrace();
-                    }
-                }
-            }
-
-            return ResponseEntity.ok(result);
+            // Per-user index: only this user's bookings are visited (ordered by room, then booking)
+            return ListResponses.respond(RoomRepository.getUserBookings(roomsPath, userId),
+                    ListResponses::bookingKey, limit, cursor, accept, (booking, json) -> {
+                        json.begin()
+                                .field("bookingId", booking.getBookingID())
+                                .field("roomId", booking.getRoomID())
+                                .field("date", booking.getDate().toString())
+                                .field("startTime", booking.getStartTime().toString())
+                                .field("endTime", booking.getEndTime().toString())
+                                .field("status", booking.getStatus())
+                                .end();
+                        return true;
+                    });
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/getbookings failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -1012,73 +1199,61 @@ public class CampussysbackendApplication {
      * Request (filtered): {@code GET /getevents?userId=1000}<br>
      *   - If {@code userId} is provided: returns events the user created OR is attending.<br>
      *   - If {@code userId} is omitted: returns all events found.<br>
+     * Paging (optional): {@code &limit=<1..1000>&cursor=<X-Next-Cursor of the previous page>}<br>
+     * Streaming (optional): {@code Accept: application/x-ndjson} for one JSON object per line<br>
      * <br>
      * Success (200): {@code [ { eventId, creatorId, name, description, roomId, date, startTime, endTime, attendeeCount } ]}<br>
      * Error (500): {@code { status:"Error", message:"..." }}
      */
     @GetMapping("/getevents")
-    public ResponseEntity<?> getEvents(@RequestParam(value = "userId", required = false) Integer userId) {
-        System.out.println("getevents route accessed!");
+    public ResponseEntity<?> getEvents(
+            @RequestParam(value = "userId", required = false) Integer userId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("/getevents route accessed");
         try {
             Integer filterUserId = userId;
 
             String eventsPath = "data/events/";
-            File eventIDsFile = new File(eventsPath + "eventIDs.txt");
+            String eventIDsPath = eventsPath + "eventIDs.txt";
 
-            if (!eventIDsFile.exists()) {
+            // With a userId, only the events from the creator/attendee index are loaded.
+            // Events are only read from disk as they are written to the response.
+            Collection<Integer> eventIds;
+            if (!RecordStores.get().exists(eventIDsPath)) {
                 // No events yet
-                return ResponseEntity.ok(List.of());
+                eventIds = List.of();
+            } else if (filterUserId != null) {
+                eventIds = EventIndex.forPath(eventsPath).getEventIds(filterUserId);
+            } else {
+                eventIds = readEventIds(eventIDsPath);
             }
 
-            List<Map<String, Object>> result = new ArrayList<>();
-
-            try (Scanner scanner = new Scanner(eventIDsFile)) {
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    if (line.isEmpty()) continue;
-
-                    int eventId;
-                    try {
-                        eventId = Integer.parseInt(line);
-                    } catch (NumberFormatException ex) {
-                        // Skip bad lines
-                        continue;
-                    }
-
-                    try {
-                        Event event = new Event(eventId);
-
-                        // If filterUserId is present, only include events the user created OR is attending.
-                        if (filterUserId != null) {
-                            boolean isCreator  = (event.getUserID() == filterUserId);
-                            boolean isAttendee = event.getAttendees().contains(filterUserId);
-                            if (!isCreator && !isAttendee) {
-                                continue;
-                            }
-                        }
-
-                        Map<String, Object> dto = new HashMap<>();
-                        dto.put("eventId", eventId);
-                        dto.put("creatorId", event.getUserID());
-                        dto.put("name", event.getName());
-                        dto.put("description", event.getDescription());
-                        dto.put("roomId", event.getRoomID());
-                        dto.put("date", event.getDate().toString());
-                        dto.put("startTime", event.getStartTime().toString());
-                        dto.put("endTime", event.getEndTime().toString());
-                        dto.put("attendeeCount", event.getAttendees().size());
-
-                        result.add(dto);
-                    } catch (FileNotFoundException e) {
-                        // If an event file is missing for an ID, skip it
-                    }
+            return ListResponses.respond(eventIds, Integer::longValue, limit, cursor, accept, (eventId, json) -> {
+                Event event;
+                try {
+                    event = new Event(eventId);
+                } catch (FileNotFoundException e) {
+                    // If an event file is missing for an ID, skip it
+                    return false;
                 }
-            }
-
-            return ResponseEntity.ok(result);
+                json.begin()
+                        .field("eventId", eventId)
+                        .field("creatorId", event.getUserID())
+                        .field("name", event.getName())
+                        .field("description", event.getDescription())
+                        .field("roomId", event.getRoomID())
+                        .field("date", event.getDate().toString())
+                        .field("startTime", event.getStartTime().toString())
+                        .field("endTime", event.getEndTime().toString())
+                        .field("attendeeCount", event.getAttendees().size())
+                        .end();
+                return true;
+            });
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/getevents failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -1086,6 +1261,24 @@ public class CampussysbackendApplication {
         }
     }
 
+    // eventIDs.txt contains one eventId per line; bad lines are skipped.
+    // Sorted, since paging needs the IDs in order.
+    private List<Integer> readEventIds(String eventIDsPath) throws FileNotFoundException {
+        List<Integer> ids = new ArrayList<>();
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(eventIDsPath))) {
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                try {
+                    ids.add(in.asInt());
+                } catch (NumberFormatException ex) {
+                    // Skip bad lines
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
     // ============================================================
     //        SERVICE III: /getmaintenance (GET)
     // ============================================================
@@ -1098,7 +1291,7 @@ public class CampussysbackendApplication {
      */
     @GetMapping("/getmaintenance")
     public ResponseEntity<?> getMaintenance(@RequestParam(value = "userId", required = false) Integer userId) {
-        System.out.println("getmaintenance route accessed!");
+        log.debug("/getmaintenance route accessed");
         try {
             // Validate required field
             if (userId == null) {
@@ -1108,60 +1301,26 @@ public class CampussysbackendApplication {
                 ));
             }
 
-            String requestsPath = "data/requests/";
-            File requestIDsFile = new File(requestsPath + "IDs.txt");
-
-            if (!requestIDsFile.exists()) {
-                // No requests yet
-                return ResponseEntity.ok(List.of());
-            }
-
             List<Map<String, Object>> result = new ArrayList<>();
 
-            // IDs.txt contains one requestId per line
-            try (Scanner scanner = new Scanner(requestIDsFile)) {
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    if (line.isEmpty()) continue;
-
-                    int requestId;
-                    try {
-                        requestId = Integer.parseInt(line);
-                    } catch (NumberFormatException ex) {
-                        // Skip malformed lines
-                        continue;
-                    }
-
-                    try {
-                        MaintenanceRequest request =
-                                new MaintenanceRequest(requestId, requestsPath + requestId + ".txt");
-
-                        // Only include requests created by this user
-                        if (request.getUserID() != userId) {
-                            continue;
-                        }
-
-                        Map<String, Object> dto = new HashMap<>();
-                        dto.put("requestId", request.getRequestID());
-                        dto.put("userId", request.getUserID());
-                        dto.put("status", request.getStatus());
-                        dto.put("description", request.getDescription());
-                        dto.put("comments",
-                                request.getComments() != null ? request.getComments() : "");
-                        dto.put("timestamp", request.getTimestamp().toString());
-
-                        result.add(dto);
-                    } catch (FileNotFoundException e) {
-                        // If a specific request file is missing, skip it
-                        e.printStackTrace();
-                    }
-                }
+            // Served from the resident owner index; no request files are read
+            for (MaintenanceRequest request : MaintenanceIndex.forPath("data/requests/").find(userId, null)) {
+                Map<String, Object> dto = new HashMap<>();
+                dto.put("requestId", request.getRequestID());
+                dto.put("userId", request.getUserID());
+                dto.put("status", request.getStatus());
+                dto.put("description", request.getDescription());
+                dto.put("comments",
+                        request.getComments() != null ? request.getComments() : "");
+                dto.put("timestamp", request.getTimestamp().toString());
+
+                result.add(dto);
             }
 
             return ResponseEntity.ok(result);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/getmaintenance failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -1176,71 +1335,44 @@ public class CampussysbackendApplication {
      * Returns all upcoming PENDING bookings across all rooms (for admin).<br>
      * <br>
      * Request: {@code GET /getallbookings}<br>
+     * Paging (optional): {@code &limit=<1..1000>&cursor=<X-Next-Cursor of the previous page>}<br>
+     * Streaming (optional): {@code Accept: application/x-ndjson} for one JSON object per line<br>
      * Success (200): {@code [ { bookingId, roomId, userId, date, startTime, endTime, status } ]}<br>
      * Error (500): {@code { status:"Error", message:"..." }}
      */
     @GetMapping("/getallbookings")
-    public ResponseEntity<?> getAllBookings() {
-        System.out.println("getallbookings route accessed!");
+    public ResponseEntity<?> getAllBookings(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("/getallbookings route accessed");
         try {
             String roomsPath = "data/rooms/";
-            File roomsDir = new File(roomsPath);
 
-            if (!roomsDir.exists() || !roomsDir.isDirectory()) {
-                // No rooms -> no bookings
-                return ResponseEntity.ok(List.of());
-            }
-
-            List<Map<String, Object>> result = new ArrayList<>();
-
-            // Room metadata files look like: <roomId>.txt (no dash)
-            File[] roomFiles = roomsDir.listFiles((dir, name) ->
-                    name.endsWith(".txt") && !name.contains("-")
-            );
-
-            if (roomFiles != null) {
-                for (File roomFile : roomFiles) {
-                    String fileName = roomFile.getName(); // e.g. "3300.txt"
-                    String idPart = fileName.substring(0, fileName.length() - 4);
-                    int roomId;
-                    try {
-                        roomId = Integer.parseInt(idPart);
-                    } catch (NumberFormatException ex) {
-                        // Skip any unexpected file names
-                        continue;
-                    }
-
-                    try {
-                        // buildingID is not used for file layout here; 1 is a safe dummy
-                        Room room = new Room(roomId, 1, roomsPath);
-
-                        for (Booking booking : room.getBookings()) {
-                            // Only care about pending bookings for approval/rejection
-                            if (!"Pending".equals(booking.getStatus())) {
-                                continue;
-                            }
-
-                            Map<String, Object> dto = new HashMap<>();
-                            dto.put("bookingId", booking.getBookingID());
-                            dto.put("roomId", roomId);
-                            dto.put("userId", booking.getUserID());
-                            dto.put("date", booking.getDate().toString());
-                            dto.put("startTime", booking.getStartTime().toString());
-                            dto.put("endTime", booking.getEndTime().toString());
-                            dto.put("status", booking.getStatus());
-                            result.add(dto);
-                        }
-                    } catch (FileNotFoundException e) {
-                        // If a room file disappears between listing and reading, skip it
-                        e.printStackTrace();
-                    }
-                }
-            }
-
-            return ResponseEntity.ok(result);
+            // Rooms are resident after the first listing, so this does not touch the disk.
+            // Only care about pending bookings for approval/rejection; rooms are visited
+            // lazily, in room order, with each room's bookings in ID order.
+            Iterable<Booking> pending = () -> RoomRepository.getRooms(roomsPath).stream()
+                    .flatMap(room -> room.getPendingBookings().stream()
+                            .sorted(Comparator.comparingInt(Booking::getBookingID)))
+                    .iterator();
+
+            return ListResponses.respond(pending, ListResponses::bookingKey, limit, cursor, accept,
+                    (booking, json) -> {
+                        json.begin()
+                                .field("bookingId", booking.getBookingID())
+                                .field("roomId", booking.getRoomID())
+                                .field("userId", booking.getUserID())
+                                .field("date", booking.getDate().toString())
+                                .field("startTime", booking.getStartTime().toString())
+                                .field("endTime", booking.getEndTime().toString())
+                                .field("status", booking.getStatus())
+                                .end();
+                        return true;
+                    });
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/getallbookings failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -1254,74 +1386,113 @@ public class CampussysbackendApplication {
      * Returns all maintenance requests (optionally filtered by userId and/or status).<br>
      * <br>
      * Request (query params): {@code /getallmaintenance?userId=1000&status=Pending}<br>
+     * Paging (optional): {@code &limit=<1..1000>&cursor=<X-Next-Cursor of the previous page>}<br>
+     * Streaming (optional): {@code Accept: application/x-ndjson} for one JSON object per line<br>
      * Success (200): {@code [ { requestId, userId, status, description, comments, timestamp } ]}<br>
      * Error (500): {@code { status:"Error", message:"..." }}
      */
     @GetMapping("/getallmaintenance")
     public ResponseEntity<?> getAllMaintenance(
             @RequestParam(value = "userId", required = false) Integer userId,
-            @RequestParam(value = "status", required = false) String statusFilter) {
+            @RequestParam(value = "status", required = false) String statusFilter,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        System.out.println("getallmaintenance route accessed!");
+        log.debug("/getallmaintenance route accessed");
         try {
-            String requestsPath = "data/requests/";
-            File idsFile = new File(requestsPath + "IDs.txt");
+            // Optional filters by userId and status (case-insensitive), both answered
+            // from the resident indexes; no request files are read
+            List<MaintenanceRequest> requests = MaintenanceIndex.forPath("data/requests/").find(userId, statusFilter);
+
+            return ListResponses.respond(requests, MaintenanceRequest::getRequestID, limit, cursor, accept,
+                    (req, json) -> {
+                        json.begin()
+                                .field("requestId", req.getRequestID())
+                                .field("userId", req.getUserID())
+                                .field("status", req.getStatus())
+                                .field("description", req.getDescription())
+                                .field("comments", req.getComments() != null ? req.getComments() : "")
+                                .field("timestamp", req.getTimestamp().toString())
+                                .end();
+                        return true;
+                    });
+
+        } catch (Exception e) {
+            log.error("/getallmaintenance failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "status", "Error",
+                    "message", "An error occurred: " + e.getMessage()
+            ));
+        }
+    }
 
-            // No IDs file -> no requests yet
-            if (!idsFile.exists()) {
-                return ResponseEntity.ok(List.of());
+    // ============================================================
+    //     SERVICE VI: /getfreeslots (GET)
+    // ============================================================
+    /**
+     * Returns the free time ranges of a room on a date (for the room picker).<br>
+     * Only approved bookings block a slot, the same rule as {@code /bookroom}.<br>
+     * <br>
+     * Request: {@code GET /getfreeslots?roomId=3300&date=2025-12-01&from=08:00&to=18:00}<br>
+     *   - {@code from}/{@code to} are optional and default to 00:00 and 24:00 (end of day).<br>
+     *   - {@code from} must be before {@code to}.<br>
+     *   - A slot that runs to the end of the day ends at {@code "24:00"}.<br>
+     * Success (200): {@code [ { startTime, endTime } ]}<br>
+     * Error (400/404/500): {@code { status:"Invalid"|"NotFound"|"Error", message:"..." }}
+     */
+    @GetMapping("/getfreeslots")
+    public ResponseEntity<?> getFreeSlots(
+            @RequestParam(value = "roomId", required = false) Integer roomId,
+            @RequestParam(value = "date", required = false) String dateParam,
+            @RequestParam(value = "from", required = false, defaultValue = "00:00") String fromParam,
+            @RequestParam(value = "to", required = false, defaultValue = "24:00") String toParam) {
+
+        log.debug("/getfreeslots route accessed");
+        try {
+            // Validate required fields
+            if (roomId == null || dateParam == null) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "Invalid",
+                        "message", "roomId and date are required."
+                ));
             }
 
-            List<Map<String, Object>> result = new ArrayList<>();
+            LocalDate date = LocalDate.parse(dateParam);
+            LocalTime from = LocalTime.parse(fromParam);
+            // LocalTime has no 24:00; LocalTime.MAX stands in for the end of the day
+            LocalTime to = END_OF_DAY.equals(toParam) ? LocalTime.MAX : LocalTime.parse(toParam);
+            if (!from.isBefore(to)) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "Invalid",
+                        "message", "from must be before to."
+                ));
+            }
 
-            try (Scanner scanner = new Scanner(idsFile)) {
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    if (line.isEmpty()) continue;
-
-                    int requestId;
-                    try {
-                        requestId = Integer.parseInt(line);
-                    } catch (NumberFormatException ex) {
-                        // Skip malformed lines
-                        continue;
-                    }
+            Room room = RoomRepository.getRoom(roomId, "data/rooms/");
 
-                    try {
-                        MaintenanceRequest req =
-                                new MaintenanceRequest(requestId, requestsPath + requestId + ".txt");
-
-                        // Optional filter by userId
-                        if (userId != null && req.getUserID() != userId) {
-                            continue;
-                        }
-
-                        // Optional filter by status (case-insensitive)
-                        if (statusFilter != null && !statusFilter.isBlank()
-                                && !statusFilter.equalsIgnoreCase(req.getStatus())) {
-                            continue;
-                        }
-
-                        Map<String, Object> dto = new HashMap<>();
-                        dto.put("requestId", req.getRequestID());
-                        dto.put("userId", req.getUserID());
-                        dto.put("status", req.getStatus());
-                        dto.put("description", req.getDescription());
-                        dto.put("comments", req.getComments() != null ? req.getComments() : "");
-                        dto.put("timestamp", req.getTimestamp().toString());
-                        result.add(dto);
-
-                    } catch (FileNotFoundException e) {
-                        // If an individual request file is missing, log and continue
-                        e.printStackTrace();
-                    }
-                }
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (AvailabilityIndex.Slot slot : room.getFreeSlots(date, from, to)) {
+                Map<String, Object> dto = new HashMap<>();
+                dto.put("startTime", slot.getStartTime().toString());
+                dto.put("endTime", slot.getEndTime().equals(LocalTime.MAX) ? END_OF_DAY : slot.getEndTime().toString());
+                result.add(dto);
             }
 
             return ResponseEntity.ok(result);
 
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "NotFound",
+                    "message", "Room not found: " + roomId
+            ));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "Invalid",
+                    "message", "date must be YYYY-MM-DD and from/to must be HH:mm (to may be 24:00)."
+            ));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("/getfreeslots failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "status", "Error",
                     "message", "An error occurred: " + e.getMessage()
@@ -1,307 +1,290 @@
 package com.example.campussysbackend;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.*;
 
+// The chatbot endpoints. Both are non-blocking: the controller returns a Mono or
+// Flux, the servlet thread is released, and the Gemini call runs on WebClient's
+// event loop until the answer (or the next chunk of it) arrives. The WebClient
+// is the pooled one from ChatbotHttpClient. The request
+// body sent to Gemini is assembled by ChatbotPrompts, and every call goes
+// through UpstreamGuard (bulkhead, coalescing, timeouts, circuit breaker).
+// Prompts that plainly ask for one service are answered by ChatbotIntentRouter
+// without calling Gemini at all.
+
 @RestController
 @CrossOrigin(origins = "*")
 public class ChatbotController {
 
-    @Value("${google.ai.api.key}")
-    private String apiKey;
-
-    @Value("${google.ai.api.url}")
-    private String apiUrl;
-
+    private static final Logger log = LoggerFactory.getLogger(ChatbotController.class);
+
+    private static final ParameterizedTypeReference<Map<String, Object>> GEMINI_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+    // The key goes in this header, never in the URI: the URI ends up in exception
+    // messages and logs
+    private static final String API_KEY_HEADER = "x-goog-api-key";
+
+    private final String apiUrl;
+    private final String streamUrl;
+    private final String apiKey;
+    private final ChatbotPrompts prompts;
+    private final ChatbotIntentRouter router;
+    private final ChatbotResponseCache cache;
+    private final UpstreamGuard upstream;
     private final WebClient webClient;
 
-    public ChatbotController() {
-        this.webClient = WebClient.builder().build();
+    public ChatbotController(@Value("${google.ai.api.url}") String apiUrl,
+                             @Value("${google.ai.api.stream-url}") String streamUrl,
+                             @Value("${google.ai.api.key}") String apiKey,
+                             ChatbotPrompts prompts,
+                             ChatbotIntentRouter router,
+                             ChatbotResponseCache cache,
+                             UpstreamGuard upstream,
+                             WebClient chatbotWebClient) {
+        this.apiUrl = apiUrl;
+        this.streamUrl = streamUrl;
+        this.apiKey = apiKey;
+        this.prompts = prompts;
+        this.router = router;
+        this.cache = cache;
+        this.upstream = upstream;
+        this.webClient = chatbotWebClient;
     }
 
+    // SERVICE: /askchatbot (POST)
+    /**
+     * Request: { "prompt": string, "mode": string, "keywords": string, "userType": string }
+     *          Header Cache-Control: no-cache asks the model again (and caches the new answer);
+     *          no-store also leaves the cache untouched.
+     * Success: 200 { "success": true, "response": "<JSON in the assistant schema>" }
+     *          with X-Cache: HIT, MISS or BYPASS, or X-Chatbot-Route: rules when the
+     *          answer was worked out locally
+     * Error: 400 { "success": false, "error": "prompt is required." }
+     * When the model fails, "response" is a fallback in the same schema.
+     */
     @PostMapping("/askchatbot")
-    public ResponseEntity<?> askChatbot(@RequestBody Map<String, Object> request) {
-        System.out.println("askchatbot route accessed!");
-        try {
-            String prompt = request.get("prompt") != null ? request.get("prompt").toString().trim() : "";
-            if (prompt.isBlank()) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "success", false,
-                        "error", "prompt is required."
-                ));
-            }
-
-            String mode = request.get("mode") != null ? request.get("mode").toString() : "query";
-            String keywords = request.get("keywords") != null ? request.get("keywords").toString() : "";
-            String userType = request.get("userType") != null ? request.get("userType").toString() : "student";
-
-            String systemContext = buildSystemContext(userType);
-            String fullPrompt = systemContext
-                    + "\n\nUser mode: " + mode
-                    + "\nUser keywords: " + keywords
-                    + "\nUser question: " + prompt;
-
-            String modelJson = callGeminiAPI(fullPrompt);
-
-            // We assume modelJson is already a JSON string that frontend will parse.
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "response", modelJson
-            ));
-        } catch (Exception e) {
-            // Fallback: return a minimal JSON object in the SAME SCHEMA
-            String fallbackJson = generateFallbackJson(
-                    "I had an internal error while answering your question. " +
-                            "Please try again or choose an action manually."
-            );
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "response", fallbackJson
-            ));
+    public Mono<ResponseEntity<Map<String, Object>>> askChatbot(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = "Cache-Control", required = false) String cacheControl) {
+        log.debug("/askchatbot route accessed");
+        String prompt = field(request, "prompt", "").trim();
+        if (prompt.isBlank()) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.<String, Object>of(
+                    "success", false,
+                    "error", "prompt is required."
+            )));
         }
-    }
-
-    private String callGeminiAPI(String prompt) {
-        try {
-            Map<String, Object> requestBody = Map.of(
-                    "contents", List.of(
-                            Map.of(
-                                    "parts", List.of(
-                                            Map.of("text", prompt)
-                                    )
-                            )
-                    )
-            );
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = webClient.post()
-                    .uri(apiUrl + "?key=" + apiKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-
-            if (response != null && response.containsKey("candidates")) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> candidates =
-                        (List<Map<String, Object>>) response.get("candidates");
-                if (!candidates.isEmpty()) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> content =
-                            (Map<String, Object>) candidates.get(0).get("content");
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> parts =
-                            (List<Map<String, Object>>) content.get("parts");
-                    if (!parts.isEmpty()) {
-                        return (String) parts.get(0).get("text");
-                    }
-                }
-            }
+        String mode = field(request, "mode", "query");
+        String keywords = field(request, "keywords", "");
+        String userType = field(request, "userType", "student");
 
-            // If model gives nothing useful, still return well-formed JSON
-            return generateFallbackJson(
-                    "I couldn’t generate a response. Please try again."
-            );
-        }  catch (WebClientResponseException e) {
-            // This prints the exact error from Gemini (very helpful)
-            System.out.println(apiKey.length());
-            System.err.println("Gemini API error: " + e.getStatusCode());
-            System.err.println("Gemini response body: " + e.getResponseBodyAsString());
-            throw new RuntimeException(
-                    "Failed to call Gemini API: " + e.getStatusCode() + " " + e.getMessage()
-            );
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to call Gemini API: " + e.getMessage());
+        String routed = router.route(prompt, keywords);
+        if (routed != null) {
+            return Mono.just(answer(routed, ChatbotIntentRouter.HEADER, "rules"));
         }
+        ChatbotResponseCache.Key key = ChatbotResponseCache.key(prompt, mode, keywords, userType);
+        boolean bypass = bypassesCache(cacheControl);
+        String cached = bypass ? null : cache.get(key);
+        if (cached != null) {
+            return Mono.just(answer(cached, ChatbotResponseCache.HEADER, "HIT"));
+        }
+        boolean store = !hasDirective(cacheControl, "no-store");
+        String cacheState = bypass ? "BYPASS" : "MISS";
+
+        // Identical questions in flight share one Gemini call
+        return upstream.call(key, () -> callGeminiAPI(prompts.requestBody(userType, mode, keywords, prompt)))
+                .doOnNext(modelJson -> {
+                    if (store) {
+                        cache.put(key, modelJson);
+                    }
+                })
+                // If model gives nothing useful, still return well-formed JSON
+                .switchIfEmpty(Mono.fromSupplier(() -> generateFallbackJson(
+                        "I couldn’t generate a response. Please try again."
+                )))
+                // Fallback: return a minimal JSON object in the SAME SCHEMA
+                .onErrorResume(e -> Mono.just(fallbackFor("/askchatbot", e)))
+                .map(modelJson -> answer(modelJson, ChatbotResponseCache.HEADER, cacheState));
     }
 
+    // SERVICE: /askchatbot/stream (POST, text/event-stream)
     /**
-     * Build a strict system prompt so the model:
-     * - understands each backend service and its input fields (by ID)
-     * - ALWAYS returns a single JSON object in a fixed schema.
+     * Request: same as /askchatbot, including Cache-Control
+     * Success: a "token" event per chunk of model text as it arrives, then one "done"
+     *          event. Concatenated, the tokens are the JSON in the assistant schema.
+     *          A cached or locally routed answer comes as a single token.
+     * Error: one "error" event whose data is a fallback JSON in the same schema; tokens
+     *        already sent should be discarded.
      */
-    private String buildSystemContext(String userType) {
-        return
-                "You are a helpful assistant for a university room booking system.\n" +
-                        "You help " + userType + "s decide which backend service to call and how to fill its JSON body.\n\n" +
-
-                        "VERY IMPORTANT OUTPUT RULES:\n" +
-                        "- Your response MUST be STRICTLY valid JSON.\n" +
-                        "- DO NOT include any text before or after the JSON.\n" +
-                        "- DO NOT use comments, trailing commas, or formatting like ```.\n" +
-                        "- Always return ONE JSON object with EXACTLY this top-level schema:\n" +
-                        "{\n" +
-                        "  \"assistantMessage\": string,\n" +
-                        "  \"selectedServiceId\": number or null,\n" +
-                        "  \"servicePayloads\": {\n" +
-                        "    \"1\":  { ... },\n" +
-                        "    \"2\":  { ... },\n" +
-                        "    \"3\":  { ... },\n" +
-                        "    \"4\":  { ... },\n" +
-                        "    \"5\":  { ... },\n" +
-                        "    \"6\":  { ... },\n" +
-                        "    \"7\":  { ... },\n" +
-                        "    \"8\":  { ... },\n" +
-                        "    \"9\":  { ... },\n" +
-                        "    \"12\": { ... },\n" +
-                        "    \"13\": { ... },\n" +
-                        "    \"14\": { ... }\n" +
-                        "  }\n" +
-                        "}\n\n" +
-                        "Field meanings:\n" +
-                        "- assistantMessage: Natural-language reply to show to the user in the chat UI.\n" +
-                        "- selectedServiceId: The numeric ID of the ONE best service to call next (1,2,3,4,5,6,7,8,9,12,13,14),\n" +
-                        "                     or null if no backend call is needed.\n" +
-                        "- servicePayloads: A map from service ID (as STRING) to the suggested JSON body for that service.\n" +
-                        "  - If a service is not relevant, set its value to an empty object {}.\n" +
-                        "  - If it is relevant, fill only what you can infer; use null when the user did not provide a value.\n" +
-                        "  - Use EXACT field names and types as below (case-sensitive).\n\n" +
-
-                        "DATE/TIME RULES:\n" +
-                        "- Dates must be strings in format \"YYYY-MM-DD\".\n" +
-                        "- Times must be strings in format \"HH:mm\" (24-hour).\n\n" +
+    @PostMapping(value = "/askchatbot/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamChatbot(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = "Cache-Control", required = false) String cacheControl) {
+        log.debug("/askchatbot/stream route accessed");
+        String prompt = field(request, "prompt", "").trim();
+        if (prompt.isBlank()) {
+            return Flux.just(event("error", generateFallbackJson("prompt is required.")));
+        }
+        String mode = field(request, "mode", "query");
+        String keywords = field(request, "keywords", "");
+        String userType = field(request, "userType", "student");
 
-                        "SERVICE DEFINITIONS (by ID):\n\n" +
+        String routed = router.route(prompt, keywords);
+        if (routed != null) {
+            return Flux.just(event("token", routed), ServerSentEvent.<String>builder().event("done").build());
+        }
+        ChatbotResponseCache.Key key = ChatbotResponseCache.key(prompt, mode, keywords, userType);
+        String cached = bypassesCache(cacheControl) ? null : cache.get(key);
+        if (cached != null) {
+            return Flux.just(event("token", cached), ServerSentEvent.<String>builder().event("done").build());
+        }
+        boolean store = !hasDirective(cacheControl, "no-store");
+
+        // Chunks arrive one at a time, so the builder needs no locking
+        StringBuilder answer = new StringBuilder();
+        return upstream.stream(() -> streamGeminiAPI(prompts.requestBody(userType, mode, keywords, prompt)))
+                .doOnNext(answer::append)
+                .doOnComplete(() -> {
+                    if (store && answer.length() > 0) {
+                        cache.put(key, answer.toString());
+                    }
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> generateFallbackJson(
+                        "I couldn’t generate a response. Please try again."
+                )))
+                .map(text -> event("token", text))
+                .concatWith(Mono.just(ServerSentEvent.<String>builder().event("done").build()))
+                .onErrorResume(e -> Mono.just(event("error", fallbackFor("/askchatbot/stream", e))));
+    }
 
-                        "1: Room Booking (POST /bookroom)\n" +
-                        "   body: {\n" +
-                        "     \"userId\": number,\n" +
-                        "     \"roomId\": number,\n" +
-                        "     \"date\": \"YYYY-MM-DD\",\n" +
-                        "     \"startTime\": \"HH:mm\",\n" +
-                        "     \"endTime\": \"HH:mm\"\n" +
-                        "   }\n\n" +
+    /* -------------------------------------------------------------------------
+     * Gemini calls
+     * ---------------------------------------------------------------------- */
+
+    // The model's text, or empty if the response has none.
+    private Mono<String> callGeminiAPI(byte[] requestBody) {
+        return webClient.post()
+                .uri(apiUrl)
+                .header(API_KEY_HEADER, apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(GEMINI_RESPONSE)
+                .mapNotNull(ChatbotController::candidateText)
+                .doOnError(WebClientResponseException.class, ChatbotController::logApiError);
+    }
 
-                        "2: Schedule Events (POST /scheduleevents)\n" +
-                        "   body: {\n" +
-                        "     \"userId\": number,\n" +
-                        "     \"title\": string,\n" +
-                        "     \"roomId\": number,\n" +
-                        "     \"date\": \"YYYY-MM-DD\",\n" +
-                        "     \"startTime\": \"HH:mm\",\n" +
-                        "     \"endTime\": \"HH:mm\",\n" +
-                        "     \"description\": string\n" +
-                        "   }\n\n" +
+    // The model's text chunk by chunk, from the SSE form (alt=sse) of streamGenerateContent.
+    private Flux<String> streamGeminiAPI(byte[] requestBody) {
+        return webClient.post()
+                .uri(streamUrl + "?alt=sse")
+                .header(API_KEY_HEADER, apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(GEMINI_RESPONSE)
+                // The last chunk may carry only the finish reason
+                .mapNotNull(ChatbotController::candidateText)
+                .filter(text -> !text.isEmpty())
+                .doOnError(WebClientResponseException.class, ChatbotController::logApiError);
+    }
 
-                        "3: Register/Dismiss Event (POST /registerevent)\n" +
-                        "   body: {\n" +
-                        "     \"userId\": number,\n" +
-                        "     \"eventId\": number,\n" +
-                        "     \"action\": \"register\" | \"cancel\"\n" +
-                        "   }\n\n" +
+    // The text of the first part of the first candidate, or null if there is none.
+    @SuppressWarnings("unchecked")
+    private static String candidateText(Map<String, Object> response) {
+        if (!(response.get("candidates") instanceof List<?> candidates) || candidates.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> content = (Map<String, Object>) ((Map<String, Object>) candidates.get(0)).get("content");
+        if (content == null || !(content.get("parts") instanceof List<?> parts) || parts.isEmpty()) {
+            return null;
+        }
+        return (String) ((Map<String, Object>) parts.get(0)).get("text");
+    }
 
-                        "4: Cancel Event (POST /cancelevent)\n" +
-                        "   body: {\n" +
-                        "     \"eventId\": number,\n" +
-                        "     \"reason\": string\n" +
-                        "   }\n\n" +
+    private static void logApiError(WebClientResponseException e) {
+        // The exact error from Gemini (very helpful)
+        log.warn("Gemini API error {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
+    }
 
-                        "5: Cancel Booking (POST /cancelbooking)\n" +
-                        "   body: {\n" +
-                        "     \"bookingId\": number,\n" +
-                        "     \"roomId\": number,\n" +
-                        "     \"reason\": string\n" +
-                        "   }\n\n" +
+    /* -------------------------------------------------------------------------
+     * Request and response
+     * ---------------------------------------------------------------------- */
 
-                        "6: Submit Maintenance Request (POST /maintenancerequest)\n" +
-                        "   body: {\n" +
-                        "     \"userId\": number,\n" +
-                        "     \"location\": string,\n" +
-                        "     \"category\": \"electrical\" | \"plumbing\" | \"hvac\" | \"other\",\n" +
-                        "     \"description\": string,\n" +
-                        "     \"priority\": \"low\" | \"medium\" | \"high\",\n" +
-                        "     \"contactEmail\": string\n" +
-                        "   }\n\n" +
+    private static String field(Map<String, Object> request, String name, String otherwise) {
+        return request.get(name) != null ? request.get(name).toString() : otherwise;
+    }
 
-                        "7: View Maintenance Status (POST /viewmaintenance)\n" +
-                        "   body: {\n" +
-                        "     \"requestId\": number\n" +
-                        "   }\n\n" +
+    // Cache-Control: no-cache or no-store skip the lookup.
+    private static boolean bypassesCache(String cacheControl) {
+        return hasDirective(cacheControl, "no-cache") || hasDirective(cacheControl, "no-store");
+    }
 
-                        "9: Approve/Reject Booking (POST /approverejectbooking)\n" +
-                        "   body: {\n" +
-                        "     \"bookingId\": number,\n" +
-                        "     \"roomId\": number,\n" +
-                        "     \"decision\": \"approve\" | \"reject\",\n" +
-                        "     \"note\": string\n" +
-                        "   }\n\n" +
+    private static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) return false;
+        for (String part : cacheControl.split(",")) {
+            if (part.trim().equalsIgnoreCase(directive)) return true;
+        }
+        return false;
+    }
 
-                        "12: View Student Feedback (POST /getstudentfeedback)\n" +
-                        "   body: {\n" +
-                        "     \"keyword\": string,\n" +
-                        "     \"fromDate\": \"YYYY-MM-DD\",\n" +
-                        "     \"toDate\": \"YYYY-MM-DD\"\n" +
-                        "   }\n\n" +
+    // We assume modelJson is already a JSON string that frontend will parse.
+    private static ResponseEntity<Map<String, Object>> answer(String modelJson, String header, String value) {
+        return ResponseEntity.ok()
+                .header(header, value)
+                .body(Map.<String, Object>of(
+                        "success", true,
+                        "response", modelJson
+                ));
+    }
 
-                        "13: Summarize Student Feedback (POST /summarizestudentfeedback)\n" +
-                        "   body: {\n" +
-                        "     \"fromDate\": \"YYYY-MM-DD\",\n" +
-                        "     \"toDate\": \"YYYY-MM-DD\",\n" +
-                        "     \"summaryType\": \"themes\" | \"sentiment\" | \"both\"\n" +
-                        "   }\n\n" +
+    private static ServerSentEvent<String> event(String name, String data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
 
-                        "14: Update Maintenance Status (POST /updatemaintenancestatus)\n" +
-                        "   body: {\n" +
-                        "     \"ticketId\": number,\n" +
-                        "     \"status\": \"open\" | \"in_progress\" | \"completed\" | \"closed\",\n" +
-                        "     \"updateNote\": string\n" +
-                        "   }\n\n" +
+    // The fallback for a failed call. Calls the guard refused are expected while Gemini
+    // is degraded, so they are not logged as warnings.
+    private String fallbackFor(String route, Throwable e) {
+        if (e instanceof UpstreamGuard.Rejected) {
+            log.debug("{} answered with the fallback: {}", route, e.getMessage());
+            return generateFallbackJson(
+                    "The assistant is busy right now. " +
+                            "Please try again in a moment or choose an action manually."
+            );
+        }
+        log.warn("{} answered with the fallback: {}", route, describe(e));
+        return generateFallbackJson(
+                "I had an internal error while answering your question. " +
+                        "Please try again or choose an action manually."
+        );
+    }
 
-                        "IMPORTANT BEHAVIOUR RULES:\n" +
-                        "- If the user only asks a general question, set \"selectedServiceId\" to null.\n" +
-                        "- If the user clearly wants one of the services, choose the best-matching service ID.\n" +
-                        "- NEVER invent IDs (userId, bookingId, eventId, requestId, ticketId, roomId).\n" +
-                        "  If the user did not give them, use null for those fields.\n" +
-                        "- You may still suggest other fields (date, times, description, etc.) if the user implied them.\n" +
-                        "- Do NOT use markdown format, and write in plain text. The frontend does NOT support MD format display.\n" +
-                        "- Do NOT ask the user for clarification about omitted fields. Choosing a service will IMMEDIATELY " +
-                        "prompt the frontend to change pages and exit the conversation after 3 seconds." +
-                        "- If you chose a service for the user, say \"Redirecting to SERVICE NAME...\" and say NOTHING else." +
-                        "- Only redirect the user (choose a service) IF you have nothing more to say." +
-                        "- ALWAYS keep userId null, as the frontend takes care of it." +
-                        "- Again: respond with JSON ONLY in the exact schema above.";
+    // The exception class, plus the status code for an HTTP error. Never the message:
+    // WebClient puts the request URI in it.
+    private static String describe(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return e.getClass().getSimpleName() + " " + response.getStatusCode().value();
+        }
+        return e.getClass().getSimpleName();
     }
 
     /**
      * Fallback JSON (same schema) if Gemini fails.
      */
     private String generateFallbackJson(String message) {
-        String safeMessage = escapeForJson(message);
-        return "{"
-                + "\"assistantMessage\":\"" + safeMessage + "\","
-                + "\"selectedServiceId\":null,"
-                + "\"servicePayloads\":{"
-                + "\"1\":{},"  // bookroom
-                + "\"2\":{},"
-                + "\"3\":{},"
-                + "\"4\":{},"
-                + "\"5\":{},"
-                + "\"6\":{},"
-                + "\"7\":{},"
-                + "\"8\":{},"
-                + "\"9\":{},"
-                + "\"12\":{},"
-                + "\"13\":{},"
-                + "\"14\":{}"
-                + "}"
-                + "}";
-    }
-
-    /**
-     * Minimal JSON string escaper for fallback messages.
-     */
-    private String escapeForJson(String text) {
-        if (text == null) return "";
-        return text
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r");
+        return prompts.fallbackJson(message);
     }
 }
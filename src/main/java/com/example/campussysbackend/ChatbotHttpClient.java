@@ -0,0 +1,66 @@
+package com.example.campussysbackend;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+// The outbound HTTP client for the Gemini calls.
+//
+// A burst of chatbot requests used to open a fresh TLS connection per call on
+// an untuned default pool. Here the connections come from a named, bounded
+// Reactor Netty pool and are kept alive and reused:
+//   maxConnections        connections open at once (HTTP/1.1: one call each)
+//   pendingAcquireMax     calls allowed to wait for a free connection
+//   pendingAcquireTimeout how long a call waits before it fails
+//   maxIdleTime/LifeTime  when a connection is closed; evicted in the background
+// With HTTP/2 (negotiated over TLS, HTTP/1.1 otherwise) calls are multiplexed
+// over a few connections instead. Responses larger than maxResponseBytes fail
+// rather than being buffered.
+//
+// The pool publishes reactor.netty.connection.provider.* (total, active, idle
+// and pending connections) with name=gemini to the global Micrometer registry,
+// and the client reactor.netty.http.client.* timings with uri=gemini, one tag
+// for every Gemini call.
+
+final class ChatbotHttpClient {
+
+    static final String POOL_NAME = "gemini";
+
+    private ChatbotHttpClient() {
+    }
+
+    static ConnectionProvider connectionProvider(int maxConnections, int pendingAcquireMax,
+                                                 Duration pendingAcquireTimeout, Duration maxIdleTime,
+                                                 Duration maxLifeTime, Duration evictEvery) {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictEvery)
+                .metrics(true)
+                .build();
+    }
+
+    static WebClient webClient(ConnectionProvider pool, boolean http2, Duration connectTimeout, int maxResponseBytes) {
+        HttpClient http = HttpClient.create(pool)
+                .protocol(http2 ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .metrics(true, uri -> POOL_NAME);
+        // Load the event loop, DNS resolver and TLS classes now, not on the first question
+        http.warmup().block();
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(http))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseBytes))
+                .build();
+    }
+}
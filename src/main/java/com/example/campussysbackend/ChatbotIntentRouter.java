@@ -0,0 +1,477 @@
+package com.example.campussysbackend;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Answers the plain chatbot requests locally, before any Gemini call.
+//
+// "Book room 101 tomorrow from 2pm to 4pm" or "the light in lab 3 is broken"
+// name one service outright. Keyword rules pick the service, and the dates,
+// times, IDs and options the user gave are pulled out of the text. The answer
+// is the same JSON the model would give (ChatbotPrompts.selectionJson), in
+// microseconds. Nothing is ever invented: a field the text does not give is null.
+//
+// A prompt is routed only when exactly one service matches and it reads as a
+// request (an imperative, or "I want", "can I", "please", ...). Anything else,
+// including questions about a service ("what are the booking rules?"), long
+// prompts and prompts matching several services, returns null and goes to
+// the model.
+//
+// campussys.chatbot.router{outcome=routed|ambiguous|none} counts the decisions.
+
+final class ChatbotIntentRouter {
+
+    // Response header on answers given by the router
+    static final String HEADER = "X-Chatbot-Route";
+
+    // Longer prompts carry more than a request; leave them to the model
+    private static final int MAX_PROMPT_LENGTH = 240;
+
+    private static final int BOOK_ROOM = 1;
+    private static final int SCHEDULE_EVENT = 2;
+    private static final int REGISTER_EVENT = 3;
+    private static final int CANCEL_EVENT = 4;
+    private static final int CANCEL_BOOKING = 5;
+    private static final int MAINTENANCE_REQUEST = 6;
+    private static final int VIEW_MAINTENANCE = 7;
+    private static final int APPROVE_REJECT_BOOKING = 9;
+    private static final int VIEW_FEEDBACK = 12;
+    private static final int SUMMARIZE_FEEDBACK = 13;
+    private static final int UPDATE_MAINTENANCE = 14;
+
+    // A service matches when 'pattern' is found and 'unless' is not
+    private static final class Rule {
+        final int serviceId;
+        final Pattern pattern;
+        final Pattern unless;
+
+        Rule(int serviceId, String pattern, String unless) {
+            this.serviceId = serviceId;
+            this.pattern = Pattern.compile(pattern);
+            this.unless = unless == null ? null : Pattern.compile(unless);
+        }
+
+        boolean matches(String text) {
+            return pattern.matcher(text).find() && (unless == null || !unless.matcher(text).find());
+        }
+    }
+
+    // Prompts are lower-cased before matching
+    private static final List<Rule> RULES = List.of(
+            new Rule(BOOK_ROOM,
+                    "\\b(book|reserve)\\b.{0,40}\\b(room|space|lab|hall|classroom)\\b|\\broom (booking|reservation)\\b",
+                    "\\b(cancel|approve|accept|reject|deny|decline)\\b.{0,40}\\b(booking|reservation)\\b"),
+            new Rule(SCHEDULE_EVENT,
+                    "\\b(schedule|organi[sz]e|create|host|plan|set up)\\b.{0,40}\\bevent\\b",
+                    "\\bcancel\\b.{0,40}\\bevent\\b"),
+            new Rule(REGISTER_EVENT,
+                    "\\b(register|sign (me )?up|enrol|enroll|join|rsvp|attend)\\b.{0,40}\\bevent\\b"
+                            + "|\\b(unregister|withdraw|leave|dismiss|drop out)\\b.{0,40}\\bevent\\b"
+                            + "|\\bcancel\\b.{0,30}\\b(registration|rsvp|attendance)\\b",
+                    null),
+            new Rule(CANCEL_EVENT,
+                    "\\bcancel\\b.{0,40}\\bevent\\b",
+                    "\\b(registration|rsvp|attendance|my (spot|place|seat))\\b"),
+            new Rule(CANCEL_BOOKING,
+                    "\\bcancel\\b.{0,40}\\b(booking|reservation)\\b",
+                    null),
+            new Rule(MAINTENANCE_REQUEST,
+                    "\\b(broken|leak(s|ing)?|not working|doesn'?t work|out of order|flicker\\w*|clogged|blocked"
+                            + "|no (power|hot water|heating)|repair|fix)\\b"
+                            + "|\\b(report|submit|file|raise)\\b.{0,30}\\b(maintenance|issue|problem|fault)\\b",
+                    "\\b(status|update|mark)\\b.{0,30}\\b(ticket|request)\\b"),
+            new Rule(VIEW_MAINTENANCE,
+                    "\\b(status|progress|track|check)\\b.{0,40}\\b(maintenance|repair|ticket|request)\\b",
+                    "\\b(update|change|set|mark)\\b"),
+            new Rule(APPROVE_REJECT_BOOKING,
+                    "\\b(approve|accept|reject|deny|decline)\\b.{0,40}\\b(booking|reservation)\\b",
+                    "\\bmaintenance\\b"),
+            new Rule(VIEW_FEEDBACK,
+                    "\\b(show|view|see|list|find|search|read|browse)\\b.{0,40}\\bfeedback\\b",
+                    "\\b(summar\\w*|sentiment|themes?|overview|analy[sz]\\w*)\\b"),
+            new Rule(SUMMARIZE_FEEDBACK,
+                    "\\b(summari[sz]e|summary|sentiment|themes?|overview|analy[sz]e)\\b.{0,40}\\bfeedback\\b"
+                            + "|\\bfeedback\\b.{0,20}\\b(summary|sentiment|themes?)\\b",
+                    null),
+            new Rule(UPDATE_MAINTENANCE,
+                    "\\b(update|change|set|mark|close)\\b.{0,40}\\b(ticket|maintenance request|request)\\b",
+                    "\\b(booking|reservation)\\b")
+    );
+
+    // The prompt reads as a request for an action, not a question about one
+    private static final Pattern ACTION = Pattern.compile(
+            "^(please |pls |kindly )?(book|reserve|schedule|organi[sz]e|create|host|plan|set up|register|sign|"
+                    + "enrol|enroll|join|rsvp|unregister|withdraw|leave|cancel|report|submit|file|raise|"
+                    + "check|track|show|view|see|list|find|search|summari[sz]e|approve|accept|reject|deny|"
+                    + "decline|update|change|mark|close|fix|repair)\\b"
+                    + "|\\b(i want|i'd like|i would like|i need|i wanna|please|help me|can i|could i|may i|"
+                    + "can you|could you|let me)\\b"
+                    + "|\\b(is|are) (broken|leaking|not working|out of order|flickering|clogged|blocked)\\b"
+                    + "|\\b(has|have) no (power|hot water|heating)\\b"
+                    + "|\\b(doesn'?t|does not|won'?t) work\\b");
+
+    /* ---- Extraction ---- */
+
+    private static final String ID = "\\s*(?:#|no\\.?|number|id)?\\s*(\\d+)\\b";
+    // For the patterns matched on the prompt as typed, to keep the user's own words.
+    // Not a lower-cased copy: lower-casing can change the length ("\u0130" becomes two
+    // chars), and the match indices would no longer fit the prompt.
+    private static final int ANY_CASE = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    private static final Pattern ROOM_ID = Pattern.compile("\\broom" + ID);
+    private static final Pattern EVENT_ID = Pattern.compile("\\bevent" + ID);
+    private static final Pattern BOOKING_ID = Pattern.compile("\\b(?:booking|reservation)" + ID);
+    private static final Pattern TICKET_ID = Pattern.compile("\\b(?:ticket|request)" + ID);
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+(?:\\.[\\w-]+)+");
+    private static final Pattern REASON = Pattern.compile("\\b(?:because|since|due to|as)\\s+(.{3,160}?)[.!]?$", ANY_CASE);
+    private static final Pattern TITLE = Pattern.compile(
+            "\\b(?:called|titled|named)\\s+\"?([^\",.!?]{2,60}?)\"?(?=\\s+(?:in|on|at|from|for|tomorrow|today|next)\\b|[\",.!?]|$)", ANY_CASE);
+    private static final Pattern QUOTED = Pattern.compile("[\"\u201c]([^\"\u201d]{2,60})[\"\u201d]");
+    private static final Pattern ABOUT = Pattern.compile("\\b(?:about|regarding|mentioning|on)\\s+([a-z][\\w-]{2,30})\\b");
+    private static final Pattern LOCATION = Pattern.compile(
+            "\\b(?:in|at)\\s+(?:the\\s+)?((?:room|lab|hall|building|block)\\s*\\w+|library|cafeteria|gym|dorm\\w*)");
+    private static final Pattern COMMENT = Pattern.compile("\\b(?:comment|note)\\s*:?\\s*(.{2,160})$", ANY_CASE);
+
+    private static final Pattern ISO_DATE = Pattern.compile("\\b(\\d{4}-\\d{2}-\\d{2})\\b");
+    private static final Pattern RELATIVE_DAY = Pattern.compile("\\b(day after tomorrow|tomorrow|today|tonight|yesterday)\\b");
+    private static final Pattern WEEKDAY = Pattern.compile(
+            "\\b(monday|tuesday|wednesday|thursday|friday|saturday|sunday)\\b");
+    private static final String MONTHS = "(jan|feb|mar|apr|may|jun|jul|aug|sep|oct|nov|dec)[a-z]*\\.?";
+    private static final Pattern MONTH_DAY = Pattern.compile("\\b" + MONTHS + "\\s+(\\d{1,2})(?:st|nd|rd|th)?\\b");
+    private static final Pattern DAY_MONTH = Pattern.compile("\\b(\\d{1,2})(?:st|nd|rd|th)?\\s+(?:of\\s+)?" + MONTHS);
+    private static final Pattern LAST_PERIOD = Pattern.compile("\\b(last|past|this)\\s+(week|month)\\b");
+
+    private static final String CLOCK = "(\\d{1,2})(?::([0-5]\\d))?";
+    private static final Pattern TIME_RANGE = Pattern.compile(
+            "\\b" + CLOCK + "\\s*(?:-|\u2013|to|until|till)\\s*" + CLOCK + "\\s*(am|pm|a\\.m\\.|p\\.m\\.)");
+    private static final Pattern MERIDIEM_TIME = Pattern.compile("\\b" + CLOCK + "\\s*(am|pm|a\\.m\\.|p\\.m\\.)");
+    private static final Pattern CLOCK_TIME = Pattern.compile("\\b([01]?\\d|2[0-3]):([0-5]\\d)\\b");
+    private static final Pattern NOON = Pattern.compile("\\b(noon|midday)\\b");
+    private static final Pattern DURATION = Pattern.compile(
+            "\\bfor\\s+(an?|\\d+(?:\\.5)?)\\s*(hours?|hrs?|h|minutes?|mins?)\\b");
+
+    private final ChatbotPrompts prompts;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Counter routed;
+    private final Counter ambiguous;
+    private final Counter none;
+
+    ChatbotIntentRouter(ChatbotPrompts prompts, Clock clock, boolean enabled) {
+        this.prompts = prompts;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.routed = outcome("routed");
+        this.ambiguous = outcome("ambiguous");
+        this.none = outcome("none");
+    }
+
+    // The answer for a prompt that clearly asks for one service, or null to ask the model.
+    String route(String prompt, String keywords) {
+        if (!enabled || prompt.length() > MAX_PROMPT_LENGTH) {
+            return null;
+        }
+        String text = (prompt + (keywords.isBlank() ? "" : " " + keywords)).toLowerCase(Locale.ROOT).trim();
+
+        int serviceId = -1;
+        for (Rule rule : RULES) {
+            if (rule.serviceId != serviceId && rule.matches(text)) {
+                if (serviceId != -1) {
+                    ambiguous.increment();
+                    return null;
+                }
+                serviceId = rule.serviceId;
+            }
+        }
+        if (serviceId == -1 || !ACTION.matcher(text).find()) {
+            none.increment();
+            return null;
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        extract(serviceId, prompt.trim(), text, payload);
+        routed.increment();
+        return prompts.selectionJson(serviceId,
+                "Redirecting to " + prompts.serviceName(serviceId) + "...", payload);
+    }
+
+    private void extract(int serviceId, String prompt, String text, Map<String, Object> payload) {
+        LocalDate today = LocalDate.now(clock);
+        switch (serviceId) {
+            case BOOK_ROOM:
+            case SCHEDULE_EVENT: {
+                putInt(payload, "roomId", ROOM_ID, text);
+                List<LocalDate> dates = dates(text, today, false);
+                if (!dates.isEmpty()) payload.put("date", dates.get(0).toString());
+                LocalTime[] times = times(text);
+                if (times[0] != null) payload.put("startTime", times[0].toString());
+                if (times[1] != null) payload.put("endTime", times[1].toString());
+                if (serviceId == SCHEDULE_EVENT) {
+                    putString(payload, "title", TITLE, prompt);
+                }
+                break;
+            }
+            case REGISTER_EVENT:
+                putInt(payload, "eventId", EVENT_ID, text);
+                payload.put("action", Pattern.compile("\\b(unregister|withdraw|leave|dismiss|drop out|cancel)\\b")
+                        .matcher(text).find() ? "cancel" : "register");
+                break;
+            case CANCEL_EVENT:
+                putInt(payload, "eventId", EVENT_ID, text);
+                putString(payload, "reason", REASON, prompt);
+                break;
+            case CANCEL_BOOKING:
+                putInt(payload, "bookingId", BOOKING_ID, text);
+                putInt(payload, "roomId", ROOM_ID, text);
+                putString(payload, "reason", REASON, prompt);
+                break;
+            case MAINTENANCE_REQUEST:
+                putString(payload, "location", LOCATION, text);
+                payload.put("category", category(text));
+                payload.put("description", prompt);
+                if (Pattern.compile("\\b(urgent|urgently|asap|emergency|immediately|dangerous)\\b").matcher(text).find()) {
+                    payload.put("priority", "high");
+                }
+                putString(payload, "contactEmail", EMAIL, text, 0);
+                break;
+            case VIEW_MAINTENANCE:
+                putInt(payload, "requestId", TICKET_ID, text);
+                break;
+            case APPROVE_REJECT_BOOKING:
+                putInt(payload, "bookingId", BOOKING_ID, text);
+                putInt(payload, "roomId", ROOM_ID, text);
+                payload.put("decision", Pattern.compile("\\b(approve|accept)\\b").matcher(text).find()
+                        ? "approve" : "reject");
+                break;
+            case VIEW_FEEDBACK:
+            case SUMMARIZE_FEEDBACK: {
+                LocalDate[] range = range(text, today);
+                if (range[0] != null) payload.put("fromDate", range[0].toString());
+                if (range[1] != null) payload.put("toDate", range[1].toString());
+                if (serviceId == VIEW_FEEDBACK) {
+                    if (!putString(payload, "keyword", QUOTED, prompt)) {
+                        putString(payload, "keyword", ABOUT, text);
+                    }
+                } else {
+                    boolean themes = Pattern.compile("\\bthemes?\\b").matcher(text).find();
+                    boolean sentiment = Pattern.compile("\\bsentiment\\b").matcher(text).find();
+                    payload.put("summaryType", themes == sentiment ? "both" : themes ? "themes" : "sentiment");
+                }
+                break;
+            }
+            case UPDATE_MAINTENANCE:
+                putInt(payload, "ticketId", TICKET_ID, text);
+                String status = status(text);
+                if (status != null) payload.put("status", status);
+                putString(payload, "comment", COMMENT, prompt);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String category(String text) {
+        if (Pattern.compile("\\b(light|lights|lamp|bulb|power|outlet|socket|plug|electric\\w*|switch|projector)\\b")
+                .matcher(text).find()) return "electrical";
+        if (Pattern.compile("\\b(leak\\w*|water|toilet|sink|pipe|tap|faucet|drain|shower|clogged|plumbing)\\b")
+                .matcher(text).find()) return "plumbing";
+        if (Pattern.compile("\\b(heating|heater|radiator|air ?con\\w*|a/?c|hvac|ventilation|too (hot|cold)|thermostat)\\b")
+                .matcher(text).find()) return "hvac";
+        return "other";
+    }
+
+    private static String status(String text) {
+        Matcher m = Pattern.compile("\\b(?:to|as)\\s+(open|in[ _]progress|completed|complete|done|fixed|resolved|closed)\\b")
+                .matcher(text);
+        String word = m.find() ? m.group(1) : text.matches(".*\\bclose\\b.*") ? "closed" : null;
+        if (word == null) return null;
+        switch (word) {
+            case "open": return "open";
+            case "closed": return "closed";
+            case "in progress":
+            case "in_progress": return "in_progress";
+            default: return "completed";
+        }
+    }
+
+    /* ---- Dates and times ---- */
+
+    // The dates mentioned, in the order they appear. Bookings and events are in the
+    // future ("Friday" is the coming one); feedback is in the past ("Friday" is the last one).
+    private static List<LocalDate> dates(String text, LocalDate today, boolean past) {
+        TreeMap<Integer, LocalDate> found = new TreeMap<>();
+        Matcher m = ISO_DATE.matcher(text);
+        while (m.find()) {
+            try {
+                found.put(m.start(), LocalDate.parse(m.group(1)));
+            } catch (DateTimeParseException e) {
+                // not a real date; leave it out
+            }
+        }
+        m = RELATIVE_DAY.matcher(text);
+        while (m.find()) {
+            String day = m.group(1);
+            found.put(m.start(), day.equals("tomorrow") ? today.plusDays(1)
+                    : day.equals("day after tomorrow") ? today.plusDays(2)
+                    : day.equals("yesterday") ? today.minusDays(1) : today);
+        }
+        m = WEEKDAY.matcher(text);
+        while (m.find()) {
+            DayOfWeek wanted = DayOfWeek.valueOf(m.group(1).toUpperCase(Locale.ROOT));
+            int days = wanted.getValue() - today.getDayOfWeek().getValue();
+            found.put(m.start(), past
+                    ? today.minusDays((-days + 7) % 7)
+                    : today.plusDays(days > 0 ? days : days + 7));
+        }
+        m = MONTH_DAY.matcher(text);
+        while (m.find()) {
+            putMonthDay(found, m.start(), m.group(1), m.group(2), today, past);
+        }
+        m = DAY_MONTH.matcher(text);
+        while (m.find()) {
+            putMonthDay(found, m.start(), m.group(2), m.group(1), today, past);
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    // "May 5" is the nearest May 5 on the wanted side of today, this year or the one next to it.
+    private static void putMonthDay(Map<Integer, LocalDate> found, int at, String month, String day,
+                                    LocalDate today, boolean past) {
+        int monthNumber = "janfebmaraprmayjunjulaugsepoctnovdec".indexOf(month.substring(0, 3)) / 3 + 1;
+        int dayNumber = Integer.parseInt(day);
+        if (dayNumber < 1 || dayNumber > Month.of(monthNumber).maxLength()) {
+            return;
+        }
+        // atYear moves Feb 29 to Feb 28 outside leap years
+        MonthDay monthDay = MonthDay.of(monthNumber, dayNumber);
+        LocalDate date = monthDay.atYear(today.getYear());
+        if (past && date.isAfter(today)) {
+            date = monthDay.atYear(today.getYear() - 1);
+        } else if (!past && date.isBefore(today)) {
+            date = monthDay.atYear(today.getYear() + 1);
+        }
+        found.put(at, date);
+    }
+
+    // fromDate and toDate: two dates, "since <date>", or last/past/this week/month.
+    private static LocalDate[] range(String text, LocalDate today) {
+        Matcher period = LAST_PERIOD.matcher(text);
+        if (period.find()) {
+            boolean week = period.group(2).equals("week");
+            if (period.group(1).equals("this")) {
+                return new LocalDate[]{week ? today.with(DayOfWeek.MONDAY) : today.withDayOfMonth(1), today};
+            }
+            return new LocalDate[]{week ? today.minusWeeks(1) : today.minusMonths(1), today};
+        }
+        List<LocalDate> dates = dates(text, today, true);
+        if (dates.size() >= 2) {
+            return new LocalDate[]{dates.get(0), dates.get(1)};
+        }
+        if (dates.size() == 1) {
+            if (Pattern.compile("\\b(since|from|after)\\b").matcher(text).find()) {
+                return new LocalDate[]{dates.get(0), null};
+            }
+            if (Pattern.compile("\\b(until|till|before|up to)\\b").matcher(text).find()) {
+                return new LocalDate[]{null, dates.get(0)};
+            }
+            return new LocalDate[]{dates.get(0), dates.get(0)};
+        }
+        return new LocalDate[2];
+    }
+
+    // Start and end time (either may be null). The end is a second time, or the start plus "for N hours".
+    private static LocalTime[] times(String text) {
+        LocalTime start = null;
+        LocalTime end = null;
+        Matcher range = TIME_RANGE.matcher(text);
+        if (range.find()) {
+            String meridiem = range.group(5);
+            end = time(range.group(3), range.group(4), meridiem);
+            // "10-2pm": the start is in the morning when it would come after the end
+            start = time(range.group(1), range.group(2), meridiem);
+            if (start != null && end != null && start.isAfter(end)) {
+                start = time(range.group(1), range.group(2), "am");
+            }
+        } else {
+            TreeMap<Integer, LocalTime> found = new TreeMap<>();
+            Matcher m = MERIDIEM_TIME.matcher(text);
+            while (m.find()) {
+                LocalTime time = time(m.group(1), m.group(2), m.group(3));
+                if (time != null) found.put(m.start(), time);
+            }
+            m = CLOCK_TIME.matcher(text);
+            while (m.find()) {
+                found.putIfAbsent(m.start(), LocalTime.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))));
+            }
+            m = NOON.matcher(text);
+            while (m.find()) {
+                found.put(m.start(), LocalTime.NOON);
+            }
+            Iterator<LocalTime> times = found.values().iterator();
+            start = times.hasNext() ? times.next() : null;
+            end = times.hasNext() ? times.next() : null;
+        }
+        if (start != null && end == null) {
+            Matcher duration = DURATION.matcher(text);
+            if (duration.find()) {
+                String amount = duration.group(1);
+                double value = amount.startsWith("a") ? 1 : Double.parseDouble(amount);
+                long minutes = Math.round(duration.group(2).startsWith("h") ? value * 60 : value);
+                LocalTime until = start.plusMinutes(minutes);
+                end = until.isAfter(start) ? until : null;
+            }
+        }
+        return new LocalTime[]{start, end};
+    }
+
+    private static LocalTime time(String hour, String minute, String meridiem) {
+        int h = Integer.parseInt(hour);
+        int min = minute == null ? 0 : Integer.parseInt(minute);
+        if (h < 1 || h > 12) return null;
+        boolean pm = meridiem.startsWith("p");
+        return LocalTime.of(h % 12 + (pm ? 12 : 0), min);
+    }
+
+    /* ---- Payload helpers ---- */
+
+    private static void putInt(Map<String, Object> payload, String field, Pattern pattern, String text) {
+        Matcher m = pattern.matcher(text);
+        if (m.find()) {
+            try {
+                payload.put(field, Integer.parseInt(m.group(1)));
+            } catch (NumberFormatException e) {
+                // too long to be an ID
+            }
+        }
+    }
+
+    private static boolean putString(Map<String, Object> payload, String field, Pattern pattern, String text) {
+        return putString(payload, field, pattern, text, 1);
+    }
+
+    private static boolean putString(Map<String, Object> payload, String field, Pattern pattern, String text, int group) {
+        Matcher m = pattern.matcher(text);
+        if (!m.find()) {
+            return false;
+        }
+        payload.put(field, text.substring(m.start(group), m.end(group)).trim());
+        return true;
+    }
+
+    private static Counter outcome(String outcome) {
+        return Counter.builder("campussys.chatbot.router")
+                .description("Chatbot prompts answered locally (routed) or sent to the model")
+                .tags("outcome", outcome)
+                .register(Metrics.globalRegistry);
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.campussysbackend;
+
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// The chatbot's prompt, built once.
+//
+// The system prompt only varies by userType, so it is built for each known
+// userType up front. What is kept is the start of the Gemini request body, up
+// to and including the system prompt, already JSON-escaped and UTF-8 encoded.
+// A request then encodes only its own mode, keywords and question, and copies
+// the segments into one byte[] of the exact size. No per-request prompt String
+// or request Map is built for the codec to serialize.
+//
+// The service catalogue comes from the @ChatbotService handlers, with each
+// path read from the handler's @PostMapping, so the prompt cannot offer a
+// route or a field that does not exist. The fallback answer lists the same
+// services.
+
+final class ChatbotPrompts {
+
+    // userTypes the frontend sends; any other is built per request
+    static final List<String> USER_TYPES = List.of("student", "faculty", "admin", "maintenance");
+
+    private static final byte[] BODY_START = ascii("{\"contents\":[{\"parts\":[{\"text\":\"");
+    private static final byte[] KEYWORDS = encode("\nUser keywords: ");
+    private static final byte[] QUESTION = encode("\nUser question: ");
+    private static final byte[] BODY_END = ascii("\"}]}]}");
+
+    private final String payloadSchema;
+    private final String serviceIds;
+    private final String catalogue;
+    private final String fallbackPayloads;
+    private final List<Service> services;
+    private final Map<Integer, Service> servicesById = new HashMap<>();
+    private final Map<String, byte[]> bodyStarts = new HashMap<>();
+
+    private ChatbotPrompts(List<Service> services) {
+        this.services = services;
+        StringBuilder schema = new StringBuilder();
+        StringJoiner ids = new StringJoiner(",");
+        StringBuilder catalogue = new StringBuilder();
+        StringJoiner fallback = new StringJoiner(",");
+        for (int i = 0; i < services.size(); i++) {
+            Service service = services.get(i);
+            String key = "\"" + service.id + "\":";
+            schema.append("    ").append(key).append(" ".repeat(Math.max(1, 6 - key.length())))
+                    .append("{ ... }").append(i < services.size() - 1 ? ",\n" : "\n");
+            ids.add(String.valueOf(service.id));
+            catalogue.append(service.describe());
+            fallback.add(key + "{}");
+            servicesById.put(service.id, service);
+        }
+        this.payloadSchema = schema.toString();
+        this.serviceIds = ids.toString();
+        this.catalogue = catalogue.toString();
+        this.fallbackPayloads = fallback.toString();
+        for (String userType : USER_TYPES) {
+            bodyStarts.put(userType, bodyStart(userType));
+        }
+    }
+
+    // The catalogue of every @ChatbotService @PostMapping handler on the given controllers.
+    static ChatbotPrompts fromHandlers(Class<?>... controllers) {
+        List<Service> services = new ArrayList<>();
+        for (Class<?> controller : controllers) {
+            for (Method method : controller.getDeclaredMethods()) {
+                ChatbotService service = method.getAnnotation(ChatbotService.class);
+                if (service == null) continue;
+                PostMapping mapping = method.getAnnotation(PostMapping.class);
+                if (mapping == null || mapping.value().length == 0) {
+                    throw new IllegalStateException("@ChatbotService " + method.getName() + " has no @PostMapping path");
+                }
+                services.add(new Service(service, mapping.value()[0]));
+            }
+        }
+        services.sort(Comparator.comparingInt(s -> s.id));
+        return new ChatbotPrompts(services);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Request body
+     * ---------------------------------------------------------------------- */
+
+    // The Gemini generateContent body for one question, as UTF-8 JSON:
+    // {"contents":[{"parts":[{"text":"<system prompt>\n\nUser mode: ...\nUser question: ..."}]}]}
+    byte[] requestBody(String userType, String mode, String keywords, String prompt) {
+        byte[] start = bodyStarts.get(userType);
+        if (start == null) {
+            start = bodyStart(userType);
+        }
+        byte[] encodedMode = encode(mode);
+        byte[] encodedKeywords = encode(keywords);
+        byte[] encodedPrompt = encode(prompt);
+
+        byte[] body = new byte[start.length + encodedMode.length + KEYWORDS.length + encodedKeywords.length
+                + QUESTION.length + encodedPrompt.length + BODY_END.length];
+        int at = append(body, 0, start);
+        at = append(body, at, encodedMode);
+        at = append(body, at, KEYWORDS);
+        at = append(body, at, encodedKeywords);
+        at = append(body, at, QUESTION);
+        at = append(body, at, encodedPrompt);
+        append(body, at, BODY_END);
+        return body;
+    }
+
+    private byte[] bodyStart(String userType) {
+        byte[] prompt = encode(systemContext(userType) + "\n\nUser mode: ");
+        byte[] start = Arrays.copyOf(BODY_START, BODY_START.length + prompt.length);
+        System.arraycopy(prompt, 0, start, BODY_START.length, prompt.length);
+        return start;
+    }
+
+    private static int append(byte[] into, int at, byte[] segment) {
+        System.arraycopy(segment, 0, into, at, segment.length);
+        return at + segment.length;
+    }
+
+    // JSON string contents (without the quotes), UTF-8 encoded.
+    static byte[] encode(String text) {
+        return escape(text).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Escapes what JSON requires inside a string; returns the text itself if there is nothing to escape.
+    static String escape(String text) {
+        int i = 0;
+        while (i < text.length() && text.charAt(i) >= 0x20 && text.charAt(i) != '"' && text.charAt(i) != '\\') {
+            i++;
+        }
+        if (i == text.length()) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length() + 16).append(text, 0, i);
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.toString();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Prompt text
+     * ---------------------------------------------------------------------- */
+
+    /**
+     * Build a strict system prompt so the model:
+     * - understands each backend service and its input fields (by ID)
+     * - ALWAYS returns a single JSON object in a fixed schema.
+     */
+    String systemContext(String userType) {
+        return
+                "You are a helpful assistant for a university room booking system.\n" +
+                        "You help " + userType + "s decide which backend service to call and how to fill its JSON body.\n\n" +
+
+                        "VERY IMPORTANT OUTPUT RULES:\n" +
+                        "- Your response MUST be STRICTLY valid JSON.\n" +
+                        "- DO NOT include any text before or after the JSON.\n" +
+                        "- DO NOT use comments, trailing commas, or formatting like ```.\n" +
+                        "- Always return ONE JSON object with EXACTLY this top-level schema:\n" +
+                        "{\n" +
+                        "  \"assistantMessage\": string,\n" +
+                        "  \"selectedServiceId\": number or null,\n" +
+                        "  \"servicePayloads\": {\n" +
+                        payloadSchema +
+                        "  }\n" +
+                        "}\n\n" +
+                        "Field meanings:\n" +
+                        "- assistantMessage: Natural-language reply to show to the user in the chat UI.\n" +
+                        "- selectedServiceId: The numeric ID of the ONE best service to call next (" + serviceIds + "),\n" +
+                        "                     or null if no backend call is needed.\n" +
+                        "- servicePayloads: A map from service ID (as STRING) to the suggested JSON body for that service.\n" +
+                        "  - If a service is not relevant, set its value to an empty object {}.\n" +
+                        "  - If it is relevant, fill only what you can infer; use null when the user did not provide a value.\n" +
+                        "  - Use EXACT field names and types as below (case-sensitive).\n\n" +
+
+                        "DATE/TIME RULES:\n" +
+                        "- Dates must be strings in format \"YYYY-MM-DD\".\n" +
+                        "- Times must be strings in format \"HH:mm\" (24-hour).\n\n" +
+
+                        "SERVICE DEFINITIONS (by ID):\n\n" +
+
+                        catalogue +
+
+                        "IMPORTANT BEHAVIOUR RULES:\n" +
+                        "- If the user only asks a general question, set \"selectedServiceId\" to null.\n" +
+                        "- If the user clearly wants one of the services, choose the best-matching service ID.\n" +
+                        "- NEVER invent IDs (userId, bookingId, eventId, requestId, ticketId, roomId).\n" +
+                        "  If the user did not give them, use null for those fields.\n" +
+                        "- You may still suggest other fields (date, times, description, etc.) if the user implied them.\n" +
+                        "- Do NOT use markdown format, and write in plain text. The frontend does NOT support MD format display.\n" +
+                        "- Do NOT ask the user for clarification about omitted fields. Choosing a service will IMMEDIATELY " +
+                        "prompt the frontend to change pages and exit the conversation after 3 seconds." +
+                        "- If you chose a service for the user, say \"Redirecting to SERVICE NAME...\" and say NOTHING else." +
+                        "- Only redirect the user (choose a service) IF you have nothing more to say." +
+                        "- ALWAYS keep userId null, as the frontend takes care of it." +
+                        "- Again: respond with JSON ONLY in the exact schema above.";
+    }
+
+    /**
+     * Fallback JSON (same schema) if Gemini fails.
+     */
+    String fallbackJson(String message) {
+        return "{"
+                + "\"assistantMessage\":\"" + escape(message) + "\","
+                + "\"selectedServiceId\":null,"
+                + "\"servicePayloads\":{" + fallbackPayloads + "}"
+                + "}";
+    }
+
+    /**
+     * An answer in the same schema that selects one service, with its payload filled
+     * from 'values' (String or Number; fields not given are null).
+     */
+    String selectionJson(int serviceId, String message, Map<String, Object> values) {
+        Service selected = servicesById.get(serviceId);
+        if (selected == null) {
+            throw new IllegalArgumentException("No @ChatbotService with id " + serviceId);
+        }
+        for (String field : values.keySet()) {
+            if (!Arrays.asList(selected.fields).contains(field)) {
+                throw new IllegalArgumentException("Service " + serviceId + " has no field " + field);
+            }
+        }
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"assistantMessage\":\"").append(escape(message)).append("\",")
+                .append("\"selectedServiceId\":").append(serviceId).append(',')
+                .append("\"servicePayloads\":{");
+        boolean firstService = true;
+        for (Service service : services) {
+            json.append(firstService ? "" : ",").append('"').append(service.id).append("\":{");
+            firstService = false;
+            if (service == selected) {
+                for (int i = 0; i < service.fields.length; i++) {
+                    Object value = values.get(service.fields[i]);
+                    json.append(i > 0 ? "," : "").append('"').append(service.fields[i]).append("\":");
+                    if (value == null) {
+                        json.append("null");
+                    } else if (value instanceof Number) {
+                        json.append(value);
+                    } else {
+                        json.append('"').append(escape(value.toString())).append('"');
+                    }
+                }
+            }
+            json.append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    // The service's name as shown to the user, e.g. "Room Booking".
+    String serviceName(int serviceId) {
+        return servicesById.get(serviceId).name;
+    }
+
+    private static final class Service {
+        final int id;
+        final String name;
+        final String path;
+        final String[] body;
+        final String[] fields;
+
+        Service(ChatbotService annotation, String path) {
+            this.id = annotation.id();
+            this.name = annotation.name();
+            this.path = path;
+            this.body = annotation.body();
+            this.fields = new String[body.length];
+            for (int i = 0; i < body.length; i++) {
+                fields[i] = body[i].substring(0, body[i].indexOf(':'));
+            }
+        }
+
+        //   1: Room Booking (POST /bookroom)
+        //      body: {
+        //        "userId": number,
+        //        ...
+        //      }
+        String describe() {
+            StringBuilder out = new StringBuilder();
+            out.append(id).append(": ").append(name).append(" (POST ").append(path).append(")\n");
+            out.append("   body: {\n");
+            for (int i = 0; i < body.length; i++) {
+                int colon = body[i].indexOf(':');
+                out.append("     \"").append(body[i], 0, colon).append("\":").append(body[i].substring(colon + 1));
+                out.append(i < body.length - 1 ? ",\n" : "\n");
+            }
+            out.append("   }\n\n");
+            return out.toString();
+        }
+    }
+}
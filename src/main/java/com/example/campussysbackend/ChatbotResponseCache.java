@@ -0,0 +1,88 @@
+package com.example.campussysbackend;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// Model answers from /askchatbot, so that a question asked again is answered
+// without a Gemini round trip and without building the prompt.
+//
+// The key is the prompt, mode, keywords and userType after normalize(). Case,
+// runs of whitespace and trailing punctuation do not make a different question.
+// The cache is bounded and uses Caffeine's W-TinyLFU eviction. Each answer
+// expires after the TTL, so changes to the prompt or the model show up within
+// that time. campussys.chatbot.cache.max-size=0 turns the cache off.
+//
+// Only real model answers are stored, never the fallback. Hits, misses and
+// evictions are in the global registry as cache.gets{cache="chatbot",result=hit|miss},
+// cache.evictions and cache.size.
+
+final class ChatbotResponseCache {
+
+    // Response header saying whether the answer came from here: HIT, MISS or BYPASS
+    static final String HEADER = "X-Cache";
+
+    record Key(String prompt, String mode, String keywords, String userType) {
+    }
+
+    private final Cache<Key, String> answers;
+
+    ChatbotResponseCache(long maxSize, Duration ttl) {
+        this.answers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, answers, "chatbot");
+    }
+
+    static Key key(String prompt, String mode, String keywords, String userType) {
+        return new Key(normalize(prompt), normalize(mode), normalize(keywords), normalize(userType));
+    }
+
+    // The cached answer, or null.
+    String get(Key key) {
+        return answers.getIfPresent(key);
+    }
+
+    void put(Key key, String answer) {
+        answers.put(key, answer);
+    }
+
+    CacheStats stats() {
+        return answers.stats();
+    }
+
+    // "  How do I   book a room?? " -> "how do i book a room"
+    static String normalize(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = out.length() > 0;
+            } else {
+                if (space) {
+                    out.append(' ');
+                    space = false;
+                }
+                out.append(c);
+            }
+        }
+        int end = out.length();
+        while (end > 0 && isTrailingPunctuation(out.charAt(end - 1))) {
+            end--;
+        }
+        out.setLength(end);
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isTrailingPunctuation(char c) {
+        return c == '?' || c == '!' || c == '.' || c == ',';
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.campussysbackend;
+
+import java.lang.annotation.*;
+
+// Marks a @PostMapping handler as a service the chatbot may pick. ChatbotPrompts
+// builds the prompt's service catalogue from these, taking the path from the
+// handler's @PostMapping, so the chatbot always offers the routes that exist.
+//
+// Each body entry is "field: type", e.g. "roomId: number" or
+// "date: \"YYYY-MM-DD\"", and is shown to the model as "field": type.
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@interface ChatbotService {
+
+    // The ID the model answers with in selectedServiceId
+    int id();
+
+    String name();
+
+    String[] body();
+}
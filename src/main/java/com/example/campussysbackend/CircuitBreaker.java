@@ -0,0 +1,155 @@
+package com.example.campussysbackend;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// A count-based circuit breaker for calls to a remote service.
+//
+// CLOSED: calls go ahead. The outcomes of the last 'window' calls are kept, and
+// once at least 'minimumCalls' are recorded and the share of failures reaches
+// 'failureRatePercent', the breaker opens.
+// OPEN: calls are refused without trying, for 'openFor'.
+// HALF_OPEN: one trial call is let through. If it succeeds the breaker closes
+// with an empty window; if it fails the breaker opens again.
+//
+// Each permitted call must end in exactly one of onSuccess, onError or
+// releasePermission (the call was abandoned, e.g. cancelled, and says nothing
+// about the remote service).
+
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int window;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openForNanos;
+    private final LongSupplier clock;
+
+    // State is tiny and never held across I/O; a lock keeps the transitions simple
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] failed;
+    private int next;
+    private int recorded;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int window, int minimumCalls, int failureRatePercent, Duration openFor) {
+        this(window, minimumCalls, failureRatePercent, openFor, System::nanoTime);
+    }
+
+    CircuitBreaker(int window, int minimumCalls, int failureRatePercent, Duration openFor, LongSupplier clock) {
+        if (window < 1 || minimumCalls < 1 || minimumCalls > window) {
+            throw new IllegalArgumentException("need 1 <= minimumCalls <= window: " + minimumCalls + ", " + window);
+        }
+        this.window = window;
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.openForNanos = openFor.toNanos();
+        this.clock = clock;
+        this.failed = new boolean[window];
+    }
+
+    // Whether a call may go ahead now.
+    boolean tryAcquirePermission() {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (clock.getAsLong() - openedAt < openForNanos) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    trialInFlight = true;
+                    return true;
+                default:
+                    if (trialInFlight) {
+                        return false;
+                    }
+                    trialInFlight = true;
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                close();
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onError() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recorded >= minimumCalls && failures * 100 >= failureRatePercent * recorded) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void releasePermission() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                trialInFlight = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window) {
+            if (failed[next]) failures--;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        if (failure) failures++;
+        next = (next + 1) % window;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.campussysbackend;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+
+// In-memory index of data/users/credentials.txt used by /login.
+//
+// The file is parsed once into a map keyed by lower-cased email. Every lookup
+// compares the file's modification time with the one it was loaded at and
+// reloads the map if the file has been edited, so manual changes are still
+// picked up without a restart.
+//
+// File format (one user per line):
+//   ID,EMAIL,PASSWORD,ROLE,NAME
+// where PASSWORD is either a PBKDF2 hash written by hashPassword(...)
+//   pbkdf2$<iterations>$<base64 salt>$<base64 hash>
+// or, for hand-written entries, the plain password. Both are compared in
+// constant time. Run main() to replace plain passwords in a file by hashes.
+
+public final class CredentialStore {
+
+    private static final String DEFAULT_PATH = "data/users/credentials.txt";
+
+    private static final String HASH_PREFIX = "pbkdf2$";
+    private static final String HASH_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int HASH_ITERATIONS = 100_000;
+    private static final int HASH_BITS = 256;
+    private static final int SALT_BYTES = 16;
+
+    private static final CredentialStore DEFAULT = new CredentialStore(DEFAULT_PATH);
+
+    // Checked when the email is unknown, so a miss costs the same as a wrong password
+    private static final String DUMMY_HASH = hashPassword("not-a-real-password");
+
+    private final File file;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Long.MIN_VALUE);
+
+    public CredentialStore(String path) {
+        this.file = new File(path);
+    }
+
+    public static CredentialStore getDefault() {
+        return DEFAULT;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Lookup
+     * ---------------------------------------------------------------------- */
+
+    // Returns the matching account, or null if the email is unknown or the password is wrong.
+    public Credential authenticate(String email, String password) throws IOException {
+        Credential credential = current().byEmail.get(email.trim().toLowerCase(Locale.ROOT));
+        if (credential == null) {
+            verify(password, DUMMY_HASH);
+            return null;
+        }
+        return verify(password, credential.password) ? credential : null;
+    }
+
+    private Snapshot current() throws IOException {
+        Snapshot loaded = snapshot;
+        long modified = file.lastModified(); // 0 if the file does not exist
+        if (modified == loaded.lastModified) {
+            return loaded;
+        }
+        Snapshot fresh = new Snapshot(modified == 0 ? Map.of() : readFile(), modified);
+        snapshot = fresh;
+        return fresh;
+    }
+
+    private Map<String, Credential> readFile() throws IOException {
+        Map<String, Credential> byEmail = new HashMap<>();
+        for (Credential credential : readCredentials(file)) {
+            // Same as the old linear scan: the first matching line wins
+            byEmail.putIfAbsent(credential.email.toLowerCase(Locale.ROOT), credential);
+        }
+        return byEmail;
+    }
+
+    private static List<Credential> readCredentials(File file) throws IOException {
+        List<Credential> out = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+
+                // Format: userId,email,password,role,name
+                String[] parts = line.split(",", 5);
+                if (parts.length < 5) continue;
+                try {
+                    out.add(new Credential(Integer.parseInt(parts[0]), parts[1], parts[2], parts[3], parts[4]));
+                } catch (NumberFormatException e) {
+                    // Skip lines with a malformed ID
+                }
+            }
+        }
+        return out;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Password hashing
+     * ---------------------------------------------------------------------- */
+
+    public static String hashPassword(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        new SecureRandom().nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, HASH_ITERATIONS);
+        Base64.Encoder b64 = Base64.getEncoder();
+        return HASH_PREFIX + HASH_ITERATIONS + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    static boolean verify(String password, String stored) {
+        if (!stored.startsWith(HASH_PREFIX)) {
+            // Plain entry written by hand
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(pbkdf2(password, salt, iterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+            return SecretKeyFactory.getInstance(HASH_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    // Rewrites a credentials file, hashing every password that is still plain text.
+    // Usage: CredentialStore [path]   (default: data/users/credentials.txt)
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : DEFAULT_PATH);
+        List<Credential> credentials = readCredentials(file);
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            for (Credential c : credentials) {
+                String password = c.password.startsWith(HASH_PREFIX) ? c.password : hashPassword(c.password);
+                writer.println(c.userId + "," + c.email + "," + password + "," + c.role + "," + c.name);
+            }
+        }
+        System.out.println("Hashed passwords in " + file.getPath());
+    }
+
+    /* -------------------------------------------------------------------------
+     * Types
+     * ---------------------------------------------------------------------- */
+
+    private static final class Snapshot {
+        private final Map<String, Credential> byEmail;
+        private final long lastModified;
+
+        private Snapshot(Map<String, Credential> byEmail, long lastModified) {
+            this.byEmail = byEmail;
+            this.lastModified = lastModified;
+        }
+    }
+
+    public static final class Credential {
+        private final int userId;
+        private final String email;
+        private final String password; // hash or plain, never returned
+        private final String role;
+        private final String name;
+
+        private Credential(int userId, String email, String password, String role, String name) {
+            this.userId = userId;
+            this.email = email;
+            this.password = password;
+            this.role = role;
+            this.name = name;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
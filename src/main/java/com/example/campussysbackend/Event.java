@@ -3,6 +3,7 @@ package com.example.campussysbackend;
 import java.time.*;
 import java.util.*;
 import java.io.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class Event {
 
@@ -76,7 +77,9 @@ public class Event {
         this.filepath = normalizeBasePath(basePath);
         this.attendees = new ArrayList<>();
         this.feedback = new ArrayList<>();
+        long start = System.nanoTime();
         loadDetails(getEventFilePath());
+        StorageMetrics.loaded("Event", start);
     }
 
     // Load existing event using default base path.
@@ -113,51 +116,43 @@ public class Event {
     }
 
     private void loadDetails(String path) throws FileNotFoundException {
-        try (Scanner scanner = new Scanner(new File(path))) {
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(path))) {
 
-            lastFeedbackID = Integer.parseInt(scanner.nextLine().trim());
-            userID        = Integer.parseInt(scanner.nextLine().trim());
-            name          = scanner.nextLine();
-            description   = scanner.nextLine();
-            roomID        = Integer.parseInt(scanner.nextLine().trim());
-            date          = LocalDate.parse(scanner.nextLine().trim());
-            startTime     = LocalTime.parse(scanner.nextLine().trim());
-            endTime       = LocalTime.parse(scanner.nextLine().trim());
+            lastFeedbackID = in.requireLine().asInt();
+            userID        = in.requireLine().asInt();
+            name          = in.requireLine().asString();
+            description   = in.requireLine().asString();
+            roomID        = in.requireLine().asInt();
+            date          = in.requireLine().asDate();
+            startTime     = in.requireLine().asTime();
+            endTime       = in.requireLine().asTime();
 
             attendees = new ArrayList<>();
             feedback  = new ArrayList<>();
 
-            // Attendees line (ends when we hit "Feedback")
-            String nextToken;
-            if (!scanner.hasNext()) {
-                return;
-            }
-            nextToken = scanner.next();
-            while (!"Feedback".equals(nextToken)) {
-                attendees.add(Integer.parseInt(nextToken));
-                if (!scanner.hasNext()) {
+            // Attendee lines (end when we hit "Feedback")
+            while (true) {
+                if (!in.nextLine()) {
                     return; // No "Feedback" section; done
                 }
-                nextToken = scanner.next();
-            }
-
-            // Consume rest of the "Feedback" line, if any content remains
-            if (scanner.hasNextLine()) {
-                scanner.nextLine();
+                if (in.is("Feedback")) {
+                    break;
+                }
+                in.forEachInt(attendees::add);
             }
 
             // Feedback IDs: one per line
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.isEmpty()) continue;
-                int feedbackID = Integer.parseInt(line);
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                int feedbackID = in.asInt();
                 feedback.add(new Feedback(feedbackID, getFeedbackFilePrefix()));
             }
         }
     }
 
     private void writeDetails() throws FileNotFoundException {
-        try (PrintWriter writer = new PrintWriter(getEventFilePath())) {
+        StringWriter text = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(text)) {
             writer.println(lastFeedbackID);
             writer.println(userID);
             writer.println(name);
@@ -179,6 +174,17 @@ public class Event {
                 writer.println(f.getFeedbackID());
             }
         }
+        // Under the event's lock, so the index ends up with the members of the
+        // write that is on disk, not of whichever write reported last
+        ReentrantLock lock = EventLocks.forEvent(eventID);
+        lock.lock();
+        try {
+            RecordStores.get().write(getEventFilePath(), text.toString());
+            // Keep the creator/attendee index in step with what is now on disk
+            EventIndex.forPath(filepath).update(this);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /* -------------------------------------------------------------------------
@@ -230,14 +236,50 @@ public class Event {
      * All setters persist to disk.
      * ---------------------------------------------------------------------- */
 
-    // Be careful with this: changing ID will write a new file for the same event.
+    // Moves the event to an unused ID: its file, its feedback files, its entries
+    // in the indexes and its line in eventIDs.txt (the old line is left behind,
+    // like that of a cancelled event).
     public void setEventID(int eventID) throws FileNotFoundException {
         if (this.eventID == eventID) {
             return;
         }
-        this.eventID = eventID;
-        // Persist under the new ID
-        writeDetails();
+        int oldID = this.eventID;
+        // Both IDs, lowest first, so two moves between the same IDs cannot deadlock
+        ReentrantLock first = EventLocks.forEvent(Math.min(oldID, eventID));
+        ReentrantLock second = EventLocks.forEvent(Math.max(oldID, eventID));
+        first.lock();
+        second.lock();
+        try {
+            RecordStore store = RecordStores.get();
+            if (store.exists(filepath + eventID + ".txt")) {
+                throw new IllegalArgumentException("Event ID already in use: " + eventID);
+            }
+            String oldPrefix = getFeedbackFilePrefix();
+            this.eventID = eventID;
+            for (Feedback f : feedback) {
+                f.moveTo(eventID, getFeedbackFilePrefix());
+            }
+            writeDetails();
+            try {
+                IdSequence.forIdsFile(filepath + "eventIDs.txt").claim(eventID);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            store.delete(filepath + oldID + ".txt");
+            for (Feedback f : feedback) {
+                store.delete(oldPrefix + f.getFeedbackID() + ".txt");
+            }
+            EventIndex.forPath(filepath).remove(oldID);
+            FeedbackIndex feedbackIndex = FeedbackIndex.forPath(filepath);
+            feedbackIndex.remove(oldID);
+            for (Feedback f : feedback) {
+                feedbackIndex.add(f);
+            }
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
     }
 
     public void setDescription(String description) throws FileNotFoundException {
@@ -267,6 +309,10 @@ public class Event {
 
     /* -------------------------------------------------------------------------
      * Registration helpers
+     *
+     * These change the attendees of this copy of the event. A caller that reads
+     * the event and then registers or unregisters someone holds
+     * EventLocks.forEvent(id) from the read until these return.
      * ---------------------------------------------------------------------- */
 
     public void registerUser(int userID) throws FileNotFoundException {
@@ -302,6 +348,8 @@ public class Event {
         );
         feedback.add(newFeedback);
         writeDetails();
+        // Searchable and counted in the summaries from now on
+        FeedbackIndex.forPath(filepath).add(newFeedback);
     }
 
     /* -------------------------------------------------------------------------
@@ -318,9 +366,9 @@ public class Event {
             }
 
             int lastID = 0;
-            try (Scanner idScanner = new Scanner(notificationFile)) {
-                if (idScanner.hasNextInt()) {
-                    lastID = idScanner.nextInt();
+            try (RecordReader in = RecordReader.open(notificationFile)) {
+                if (in.nextLine() && !in.isBlank()) {
+                    lastID = in.nextInt();
                 }
             }
 
@@ -0,0 +1,137 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Index userId -> IDs of the events that user created or is attending,
+// for one events directory (normally data/events/).
+//
+// Built on first use from eventIDs.txt, then kept current by Event itself:
+// every Event.writeDetails() (creation, registerUser, unregisterUser, ...)
+// reports the event's creator and attendees here. /cancelevent removes the
+// event once its file is deleted.
+
+public final class EventIndex {
+
+    private static final ConcurrentHashMap<String, EventIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final String eventsPath;
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<Integer>> byUser = new ConcurrentHashMap<>();
+    // Members last reported for each event, so an update knows what to take out
+    private final ConcurrentHashMap<Integer, Set<Integer>> members = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    private EventIndex(String eventsPath) {
+        this.eventsPath = eventsPath;
+    }
+
+    public static EventIndex forPath(String eventsPath) {
+        String key = new File(eventsPath).getAbsoluteFile().toPath().normalize().toString();
+        return INDEXES.computeIfAbsent(key, k -> new EventIndex(eventsPath));
+    }
+
+    // Drops every index so the next query rebuilds it from disk.
+    static void clear() {
+        INDEXES.clear();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Queries
+     * ---------------------------------------------------------------------- */
+
+    // IDs (ascending) of the events the user created or is attending.
+    public Collection<Integer> getEventIds(int userID) {
+        ensureLoaded();
+        ConcurrentSkipListSet<Integer> ids = byUser.get(userID);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableCollection(ids);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Updates
+     * ---------------------------------------------------------------------- */
+
+    // Called after an event has been written. Ignored until the index is built,
+    // because the build reads the event file, which already has this change.
+    void update(Event event) {
+        if (!loaded) {
+            // If a build is running, wait for it so this change is not lost
+            lock.lock();
+            try {
+                if (!loaded) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        apply(event.getEventID(), membersOf(event));
+    }
+
+    public void remove(int eventID) {
+        apply(eventID, Collections.emptySet());
+    }
+
+    // Per event, atomically: drop users that are no longer members, add the new ones.
+    private void apply(int eventID, Set<Integer> now) {
+        members.compute(eventID, (id, before) -> {
+            if (before != null) {
+                for (int userID : before) {
+                    if (!now.contains(userID)) {
+                        ConcurrentSkipListSet<Integer> ids = byUser.get(userID);
+                        if (ids != null) {
+                            ids.remove(eventID);
+                        }
+                    }
+                }
+            }
+            for (int userID : now) {
+                byUser.computeIfAbsent(userID, u -> new ConcurrentSkipListSet<>()).add(eventID);
+            }
+            return now.isEmpty() ? null : now;
+        });
+    }
+
+    private static Set<Integer> membersOf(Event event) {
+        Set<Integer> out = new HashSet<>(event.getAttendees());
+        out.add(event.getUserID());
+        return out;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Initial build
+     * ---------------------------------------------------------------------- */
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            String idsPath = eventsPath + "eventIDs.txt";
+            if (RecordStores.get().exists(idsPath)) {
+                try (RecordReader in = RecordReader.of(RecordStores.get().read(idsPath))) {
+                    while (in.nextLine()) {
+                        if (in.isBlank()) continue;
+                        try {
+                            int eventID = in.asInt();
+                            apply(eventID, membersOf(new Event(eventID, eventsPath)));
+                        } catch (NumberFormatException | FileNotFoundException e) {
+                            // Skip bad lines and IDs whose event file is gone
+                        }
+                    }
+                } catch (FileNotFoundException e) {
+                    // Deleted in between; nothing to index
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
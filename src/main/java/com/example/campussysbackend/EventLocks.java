@@ -0,0 +1,35 @@
+package com.example.campussysbackend;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// One lock per event ID, held while an event is read, changed and written back
+// (/registerevent, /cancelevent, User.registerForEvent) and by Event itself
+// around each write and the EventIndex update that goes with it.
+//
+// Without it two registrations for the same event each read the attendee list,
+// add their user and write it back, and the first one is lost; the index could
+// also be left with the members of whichever write reported last rather than
+// the one that is on disk. Same shape as RoomLocks: one ReentrantLock per ID,
+// since the guarded sections do file I/O.
+//
+// Usage:
+//   ReentrantLock lock = EventLocks.forEvent(eventId);
+//   lock.lock();
+//   try { ... } finally { lock.unlock(); }
+
+public final class EventLocks {
+
+    private static final ConcurrentHashMap<Integer, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private EventLocks() {
+    }
+
+    public static ReentrantLock forEvent(int eventID) {
+        ReentrantLock lock = LOCKS.get(eventID);
+        if (lock != null) {
+            return lock;
+        }
+        return LOCKS.computeIfAbsent(eventID, id -> new ReentrantLock());
+    }
+}
@@ -73,19 +73,17 @@ public class Faculty extends User {
     }
 
     private void loadCreatedEvents() throws FileNotFoundException {
-        File idsFile = new File(EVENTS_IDS_FILE);
         createdEvents = new ArrayList<>();
 
-        if (!idsFile.exists()) {
+        if (!RecordStores.get().exists(EVENTS_IDS_FILE)) {
             return;
         }
 
-        try (Scanner IDScanner = new Scanner(idsFile)) {
-            while (IDScanner.hasNextLine()) {
-                String line = IDScanner.nextLine().trim();
-                if (line.isEmpty()) continue;
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(EVENTS_IDS_FILE))) {
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
 
-                int id = Integer.parseInt(line);
+                int id = in.asInt();
                 Event newEvent = new Event(id); // uses Event's default base path (data/events/)
                 if (newEvent.getUserID() == super.userID) {
                     createdEvents.add(newEvent);
@@ -104,9 +102,9 @@ public class Faculty extends User {
 
     private String[] loadDetails() throws FileNotFoundException {
         String[] out = new String[4];
-        try (Scanner scanner = new Scanner(new File(filepath + ".txt"))) {
-            for (int i = 0; i < 4 && scanner.hasNextLine(); i++) {
-                out[i] = scanner.nextLine();
+        try (RecordReader in = RecordReader.open(new File(filepath + ".txt"))) {
+            for (int i = 0; i < 4 && in.nextLine(); i++) {
+                out[i] = in.asString();
             }
         }
         return out;
@@ -187,26 +185,11 @@ public class Faculty extends User {
 
         ensureDirExists(EVENTS_BASE_PATH);
 
-        File idsFile = new File(EVENTS_IDS_FILE);
-        int lastID = 0;
-
-        if (idsFile.exists()) {
-            try (Scanner IDScanner = new Scanner(idsFile)) {
-                while (IDScanner.hasNextLine()) {
-                    String line = IDScanner.nextLine().trim();
-                    if (!line.isEmpty()) {
-                        lastID = Integer.parseInt(line);
-                    }
-                }
-            }
-        }
-
-        int newID = lastID + 1;
+        IdSequence eventIds = IdSequence.forIdsFile(EVENTS_IDS_FILE);
+        int newID = eventIds.next();
 
         // Append new ID (so eventIDs.txt keeps all IDs)
-        try (PrintWriter writer = new PrintWriter(new FileWriter(idsFile, true))) {
-            writer.println(newID);
-        }
+        eventIds.record(newID);
 
         // Event uses its own default "data/events/" base path internally
         Event newEvent = new Event(newID, userID, name, description, roomID, date, startTime, endTime);
@@ -1,9 +1,8 @@
 package com.example.campussysbackend;
 
-import java.util.Scanner;
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.time.LocalDate;
 
 // In the file structure, the data for each Feedback object is stored
@@ -45,11 +44,20 @@ public class Feedback {
     // 'path' is the same prefix as above.
     public Feedback(int feedbackID, String path) throws FileNotFoundException {
         this.feedbackID = feedbackID;
+        long start = System.nanoTime();
         loadFeedback(path + feedbackID + ".txt");
+        StorageMetrics.loaded("Feedback", start);
+    }
+
+    // Used by Event.setEventID: writes this feedback again under the event's new ID.
+    void moveTo(int eventID, String path) throws FileNotFoundException {
+        this.eventID = eventID;
+        writeFeedback(path + feedbackID + ".txt");
     }
 
     private void writeFeedback(String path) throws FileNotFoundException {
-        try (PrintWriter writer = new PrintWriter(path)) {
+        StringWriter text = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(text)) {
             writer.println(userID);
             writer.println(eventID);
             writer.println(message);
@@ -57,19 +65,17 @@ public class Feedback {
             writer.println(rating);
             writer.println(date);
         }
+        RecordStores.get().write(path, text.toString());
     }
 
     private void loadFeedback(String path) throws FileNotFoundException {
-        try (Scanner scanner = new Scanner(new File(path))) {
-            userID = scanner.nextInt();
-            scanner.nextLine();          // consume rest of line
-            eventID = scanner.nextInt();
-            scanner.nextLine();          // consume rest of line
-            message = scanner.nextLine();
-            category = scanner.nextLine();
-            rating = scanner.nextFloat();
-            scanner.nextLine();          // consume rest of line
-            date = LocalDate.parse(scanner.nextLine());
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(path))) {
+            userID = in.requireLine().asInt();
+            eventID = in.requireLine().asInt();
+            message = in.requireLine().asString();
+            category = in.requireLine().asString();
+            rating = in.requireLine().asFloat();
+            date = in.requireLine().asDate();
         }
     }
 
@@ -0,0 +1,470 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Resident, searchable copy of the event feedback in one events directory
+// (normally data/events/, one <eventId>-<feedbackId>.txt per entry), behind
+// /getstudentfeedback and /summarizestudentfeedback.
+//
+// Built on first use from eventIDs.txt, then kept current by Event.addFeedback;
+// /cancelevent removes the event's entries. Entries are numbered in the order
+// they were indexed (seq), and kept in three structures:
+//   - postings: word of the message -> seqs containing it, for keyword search
+//   - days:     the date of every seq, for date-range filters
+//   - byDay:    per date, running sentiment and theme counts and rating sum,
+//               so a summary adds up one total per day instead of reading
+//               every entry
+// Sentiment and themes are worked out once per entry, when it is indexed.
+//
+// Queries take the read lock and updates the write lock; feedback is written
+// far less often than it is read.
+
+public final class FeedbackIndex {
+
+    enum Sentiment { POSITIVE, NEUTRAL, NEGATIVE }
+
+    // Themes in the order they are reported on ties, with the words that count towards them
+    private static final String[] THEMES = {
+            "Facilities", "Cafeteria", "Teaching Pace", "Content", "Speakers",
+            "Organization", "Wi-Fi & Tech", "Noise", "Cleanliness"
+    };
+    private static final Map<String, Integer> THEME_WORDS = themeWords(new String[][]{
+            {"room", "rooms", "building", "facility", "facilities", "seat", "seats", "seating", "chair", "chairs",
+                    "projector", "equipment", "hall", "lab", "parking", "toilet", "toilets", "bathroom",
+                    "heating", "temperature", "aircon", "accessible", "accessibility"},
+            {"food", "cafeteria", "canteen", "lunch", "meal", "meals", "coffee", "snack", "snacks", "drink",
+                    "drinks", "menu", "catering"},
+            {"pace", "fast", "slow", "rushed", "speed", "quickly", "slowly", "hurried"},
+            {"content", "material", "materials", "topic", "topics", "slides", "examples", "informative",
+                    "interesting", "boring", "relevant", "depth", "detail"},
+            {"speaker", "speakers", "presenter", "presenters", "lecturer", "instructor", "professor", "host",
+                    "talk", "presentation", "explained", "explanation"},
+            {"organized", "organised", "organization", "organisation", "schedule", "timing", "late", "delay",
+                    "delayed", "queue", "registration", "signup", "overran", "planning"},
+            {"wifi", "fi", "internet", "network", "connection", "audio", "sound", "microphone", "mic", "video",
+                    "streaming", "tech", "technical", "laptop"},
+            {"noise", "noisy", "loud", "quiet"},
+            {"clean", "dirty", "messy", "trash", "litter", "smell", "smelly", "hygiene"}
+    });
+    private static final Set<String> POSITIVE_WORDS = Set.of(
+            "good", "great", "excellent", "amazing", "awesome", "love", "loved", "enjoyed", "enjoyable",
+            "helpful", "useful", "clear", "interesting", "fun", "friendly", "nice", "perfect", "fantastic",
+            "informative", "engaging", "best", "happy", "recommend", "wonderful", "liked", "insightful",
+            "valuable", "well", "brilliant", "inspiring");
+    private static final Set<String> NEGATIVE_WORDS = Set.of(
+            "bad", "poor", "terrible", "awful", "boring", "hate", "hated", "confusing", "unclear", "late",
+            "rushed", "noisy", "loud", "dirty", "broken", "crowded", "disappointing", "disappointed", "waste",
+            "worst", "useless", "uncomfortable", "difficult", "problem", "problems", "issue", "issues",
+            "annoying", "messy", "cold", "overran");
+    // "not good" is negative, "never boring" positive
+    private static final Set<String> NEGATORS = Set.of(
+            "not", "no", "never", "hardly", "dont", "didnt", "doesnt", "isnt", "wasnt", "werent", "wont",
+            "cant", "couldnt", "nothing", "without");
+
+    private static final ConcurrentHashMap<String, FeedbackIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final String eventsPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Entry[] entries = new Entry[1024];
+    private int[] days = new int[1024];
+    private int count;
+    private final BitSet removed = new BitSet();
+    private final HashMap<String, IntList> postings = new HashMap<>();
+    private final HashMap<Integer, IntList> byEvent = new HashMap<>();
+    // Feedback IDs only grow per event; anything at or below this is already indexed
+    private final HashMap<Integer, Integer> lastFeedbackID = new HashMap<>();
+    private final TreeMap<Integer, Totals> byDay = new TreeMap<>();
+    // Categories repeat; one String per distinct category
+    private final HashMap<String, String> categories = new HashMap<>();
+    private volatile boolean loaded;
+
+    private FeedbackIndex(String eventsPath) {
+        this.eventsPath = eventsPath;
+    }
+
+    public static FeedbackIndex forPath(String eventsPath) {
+        String key = new File(eventsPath).getAbsoluteFile().toPath().normalize().toString();
+        return INDEXES.computeIfAbsent(key, k -> new FeedbackIndex(eventsPath));
+    }
+
+    // Drops every index so the next query rebuilds it from disk.
+    static void clear() {
+        INDEXES.clear();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Queries
+     * ---------------------------------------------------------------------- */
+
+    // Entries whose message has every word of the keyword (null or blank: any), dated
+    // from..to inclusive (null: open), in seq order.
+    List<Entry> find(String keyword, LocalDate from, LocalDate to) {
+        ensureLoaded();
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        List<Entry> out = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (keyword == null || keyword.isBlank()) {
+                for (int seq = 0; seq < count; seq++) {
+                    if (days[seq] >= fromDay && days[seq] <= toDay && !removed.get(seq)) {
+                        out.add(entries[seq]);
+                    }
+                }
+                return out;
+            }
+            // Walk the rarest word's postings and look the others up
+            List<IntList> lists = new ArrayList<>();
+            for (String word : new LinkedHashSet<>(words(keyword))) {
+                IntList list = postings.get(word);
+                if (list == null) {
+                    return out;
+                }
+                lists.add(list);
+            }
+            if (lists.isEmpty()) {
+                return out;
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            IntList rarest = lists.get(0);
+            for (int i = 0; i < rarest.size; i++) {
+                int seq = rarest.values[i];
+                if (days[seq] < fromDay || days[seq] > toDay || removed.get(seq)) continue;
+                boolean all = true;
+                for (int l = 1; l < lists.size() && all; l++) {
+                    all = lists.get(l).contains(seq);
+                }
+                if (all) {
+                    out.add(entries[seq]);
+                }
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sentiment and theme counts over the entries dated from..to inclusive (null: open).
+    Summary summarize(LocalDate from, LocalDate to) {
+        ensureLoaded();
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        Summary summary = new Summary();
+        if (fromDay > toDay) {
+            return summary;
+        }
+        lock.readLock().lock();
+        try {
+            for (Totals day : byDay.subMap(fromDay, true, toDay, true).values()) {
+                summary.total += day.entries;
+                summary.ratingSum += day.ratingSum;
+                for (int s = 0; s < day.sentiments.length; s++) {
+                    summary.sentiments[s] += day.sentiments[s];
+                }
+                for (int t = 0; t < day.themes.length; t++) {
+                    summary.themes[t] += day.themes[t];
+                }
+            }
+            return summary;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One indexed feedback entry. 'seq' is its position in the index, which is
+    // what /getstudentfeedback pages by.
+    static final class Entry {
+        final int seq;
+        final int eventID;
+        final int feedbackID;
+        final int userID;
+        final String message;
+        final String category;
+        final float rating;
+        final LocalDate date;
+        final Sentiment sentiment;
+        // Bit t set for THEMES[t]
+        final int themes;
+
+        private Entry(int seq, int eventID, int feedbackID, int userID, String message, String category,
+                      float rating, LocalDate date, Sentiment sentiment, int themes) {
+            this.seq = seq;
+            this.eventID = eventID;
+            this.feedbackID = feedbackID;
+            this.userID = userID;
+            this.message = message;
+            this.category = category;
+            this.rating = rating;
+            this.date = date;
+            this.sentiment = sentiment;
+            this.themes = themes;
+        }
+
+        // The ID as in the file name, e.g. "12-3"
+        String id() {
+            return eventID + "-" + feedbackID;
+        }
+    }
+
+    static final class Summary {
+        private int total;
+        private double ratingSum;
+        private final int[] sentiments = new int[Sentiment.values().length];
+        private final int[] themes = new int[THEMES.length];
+
+        int getTotal() {
+            return total;
+        }
+
+        // Mean rating, 0 when there are no entries.
+        double getAverageRating() {
+            return total == 0 ? 0 : ratingSum / total;
+        }
+
+        int getCount(Sentiment sentiment) {
+            return sentiments[sentiment.ordinal()];
+        }
+
+        // Themes mentioned at least once, most mentioned first.
+        LinkedHashMap<String, Integer> getThemes() {
+            Integer[] order = new Integer[THEMES.length];
+            for (int t = 0; t < order.length; t++) {
+                order[t] = t;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(themes[b], themes[a]));
+            LinkedHashMap<String, Integer> out = new LinkedHashMap<>();
+            for (int t : order) {
+                if (themes[t] > 0) {
+                    out.put(THEMES[t], themes[t]);
+                }
+            }
+            return out;
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Updates
+     * ---------------------------------------------------------------------- */
+
+    // Called by Event.addFeedback once the feedback and the event are written. Ignored
+    // until the index is built, because the build reads the files, which already have it.
+    void add(Feedback feedback) {
+        add(feedback.getEventID(), feedback.getFeedbackID(), feedback.getUserID(), feedback.getMessage(),
+                feedback.getCategory(), feedback.getRating(), feedback.getDate());
+    }
+
+    void add(int eventID, int feedbackID, int userID, String message, String category,
+             float rating, LocalDate date) {
+        lock.writeLock().lock();
+        try {
+            // Taking the lock waited out any running build
+            if (loaded) {
+                put(eventID, feedbackID, userID, message, category, rating, date);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Takes a cancelled event's feedback out of the results and the totals.
+    void remove(int eventID) {
+        lock.writeLock().lock();
+        try {
+            IntList seqs = byEvent.remove(eventID);
+            if (seqs == null) {
+                return;
+            }
+            for (int i = 0; i < seqs.size; i++) {
+                int seq = seqs.values[i];
+                if (!removed.get(seq)) {
+                    removed.set(seq);
+                    count(entries[seq], -1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Indexes one entry unless it already is. Caller holds the write lock.
+    private void put(int eventID, int feedbackID, int userID, String message, String category,
+             float rating, LocalDate date) {
+        Integer last = lastFeedbackID.get(eventID);
+        if (last != null && feedbackID <= last) {
+            return;
+        }
+        lastFeedbackID.put(eventID, feedbackID);
+
+        List<String> words = words(message);
+        int seq = count;
+        Entry entry = new Entry(seq, eventID, feedbackID, userID, message,
+                categories.computeIfAbsent(category, c -> c), rating, date,
+                sentiment(words, rating), themes(words));
+        if (seq == entries.length) {
+            entries = Arrays.copyOf(entries, seq * 2);
+            days = Arrays.copyOf(days, seq * 2);
+        }
+        entries[seq] = entry;
+        days[seq] = (int) date.toEpochDay();
+        count++;
+
+        for (String word : new HashSet<>(words)) {
+            postings.computeIfAbsent(word, w -> new IntList()).add(seq);
+        }
+        byEvent.computeIfAbsent(eventID, e -> new IntList()).add(seq);
+        count(entry, 1);
+    }
+
+    // Adds (delta 1) or takes out (delta -1) an entry from its day's totals.
+    private void count(Entry entry, int delta) {
+        Totals day = byDay.computeIfAbsent(days[entry.seq], d -> new Totals());
+        day.entries += delta;
+        day.ratingSum += delta * entry.rating;
+        day.sentiments[entry.sentiment.ordinal()] += delta;
+        for (int t = 0; t < THEMES.length; t++) {
+            if ((entry.themes & (1 << t)) != 0) {
+                day.themes[t] += delta;
+            }
+        }
+        if (day.entries == 0) {
+            byDay.remove(days[entry.seq]);
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Text analysis
+     * ---------------------------------------------------------------------- */
+
+    // Lower-cased words of a text; apostrophes are dropped, so "didn't" is "didnt",
+    // and hyphens split, so "Wi-Fi" is "wi", "fi".
+    static List<String> words(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) {
+            return out;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if ((c == '\'' || c == '\u2019') && word.length() > 0) {
+                continue;
+            } else if (word.length() > 0) {
+                out.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return out;
+    }
+
+    // A clear rating decides (4 and up positive, 2 and below negative). Otherwise the
+    // words do: +1 per positive word, -1 per negative one, flipped after a negator.
+    static Sentiment sentiment(List<String> words, float rating) {
+        if (rating >= 4) return Sentiment.POSITIVE;
+        if (rating > 0 && rating <= 2) return Sentiment.NEGATIVE;
+        int score = 0;
+        int negatedFor = 0;
+        for (String word : words) {
+            if (NEGATORS.contains(word)) {
+                // A negator applies to the next few words: "not very good"
+                negatedFor = 3;
+                continue;
+            }
+            int value = POSITIVE_WORDS.contains(word) ? 1 : NEGATIVE_WORDS.contains(word) ? -1 : 0;
+            score += negatedFor > 0 ? -value : value;
+            if (negatedFor > 0) negatedFor--;
+        }
+        return score > 0 ? Sentiment.POSITIVE : score < 0 ? Sentiment.NEGATIVE : Sentiment.NEUTRAL;
+    }
+
+    private static int themes(List<String> words) {
+        int themes = 0;
+        for (String word : words) {
+            Integer theme = THEME_WORDS.get(word);
+            if (theme != null) {
+                themes |= 1 << theme;
+            }
+        }
+        return themes;
+    }
+
+    private static Map<String, Integer> themeWords(String[][] words) {
+        Map<String, Integer> out = new HashMap<>();
+        for (int t = 0; t < words.length; t++) {
+            for (String word : words[t]) {
+                out.putIfAbsent(word, t);
+            }
+        }
+        return out;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Initial build
+     * ---------------------------------------------------------------------- */
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            String idsPath = eventsPath + "eventIDs.txt";
+            if (RecordStores.get().exists(idsPath)) {
+                try (RecordReader in = RecordReader.of(RecordStores.get().read(idsPath))) {
+                    while (in.nextLine()) {
+                        if (in.isBlank()) continue;
+                        try {
+                            for (Feedback f : new Event(in.asInt(), eventsPath).getFeedback()) {
+                                put(f.getEventID(), f.getFeedbackID(), f.getUserID(), f.getMessage(),
+                                        f.getCategory(), f.getRating(), f.getDate());
+                            }
+                        } catch (NumberFormatException | FileNotFoundException e) {
+                            // Skip bad lines and events (or feedback) whose file is gone
+                        }
+                    }
+                } catch (FileNotFoundException e) {
+                    // Deleted in between; nothing to index
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Storage
+     * ---------------------------------------------------------------------- */
+
+    // Per-day running totals
+    private static final class Totals {
+        int entries;
+        double ratingSum;
+        final int[] sentiments = new int[Sentiment.values().length];
+        final int[] themes = new int[THEMES.length];
+    }
+
+    // Growable list of ascending seqs
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// One text file per record, the layout the data/ directory has always used.
+//
+// Each write goes to its own temp file next to the record, which is synced and
+// then renamed over it, so a crash leaves either the old or the new text, never
+// half of it. Concurrent writers of one record each publish a whole text; the
+// last rename wins.
+//
+// An append goes to the end of the file itself and is synced before it returns.
+// A crash can cut the last line short; the next append then starts on a new line
+// rather than gluing its text onto the cut-off one.
+
+public final class FileRecordStore implements RecordStore {
+
+    @Override
+    public String read(String path) throws FileNotFoundException {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(path);
+        }
+        try {
+            StorageMetrics.fileOpened();
+            return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(String path, String contents) {
+        File file = new File(path);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        Path tmp = null;
+        try {
+            StorageMetrics.fileOpened();
+            tmp = Files.createTempFile(parent.toPath(), file.getName() + ".", ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+                out.write(contents.getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // Left behind; list() skips it
+                }
+            }
+        }
+    }
+
+    @Override
+    public void append(String path, String text) {
+        File file = new File(path);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            StorageMetrics.fileOpened();
+            if (endsMidLine(file)) {
+                text = System.lineSeparator() + text;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delete(String path) {
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return new File(path).isFile();
+    }
+
+    @Override
+    public List<String> list(String dir) {
+        String[] names = new File(dir).list((d, name) -> !name.endsWith(".tmp") && new File(d, name).isFile());
+        return names == null ? List.of() : Arrays.asList(names);
+    }
+
+    private static boolean endsMidLine(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return false;
+            }
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            channel.read(lastByte, size - 1);
+            return lastByte.get(0) != '\n';
+        }
+    }
+}
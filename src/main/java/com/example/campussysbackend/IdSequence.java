@@ -0,0 +1,166 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands out IDs for the "one ID per line" list files, e.g.
+//   data/events/eventIDs.txt
+//   data/requests/IDs.txt
+//
+// The current high-water mark is kept in memory and saved in a 4-byte file next
+// to the list (eventIDs.seq, IDs.seq) that is overwritten in place, so creating
+// an entity no longer reads the whole list just to find the last ID. The list is
+// only scanned once per process, when the sequence is opened. The larger of its
+// highest ID and the .seq value wins, so a list that was regenerated or edited
+// while an old .seq was lying around never gets its IDs handed out again.
+//
+// There is one instance per list file, shared by every caller:
+//   IdSequence seq = IdSequence.forIdsFile("data/events/eventIDs.txt");
+//   int id = seq.next();
+//   ... create the entity ...
+//   seq.record(id);
+
+public final class IdSequence {
+
+    private static final ConcurrentHashMap<String, IdSequence> SEQUENCES = new ConcurrentHashMap<>();
+    // Opening a sequence may scan the whole list. That happens under this lock rather than
+    // inside computeIfAbsent, whose bin monitor would pin a virtual thread for the scan.
+    private static final ReentrantLock OPEN_LOCK = new ReentrantLock();
+
+    private final File idsFile;
+    private final File seqFile;
+    private final AtomicInteger last;
+    // Guards the .seq write (ReentrantLock, not synchronized: it is I/O)
+    private final ReentrantLock fileLock = new ReentrantLock();
+
+    private IdSequence(File idsFile) {
+        this.idsFile = idsFile;
+        String name = idsFile.getName();
+        String base = name.endsWith(".txt") ? name.substring(0, name.length() - 4) : name;
+        this.seqFile = new File(idsFile.getParentFile(), base + ".seq");
+        this.last = new AtomicInteger(loadLastId());
+    }
+
+    public static IdSequence forIdsFile(String idsFilePath) {
+        File file = new File(idsFilePath).getAbsoluteFile().toPath().normalize().toFile();
+        IdSequence sequence = SEQUENCES.get(file.getPath());
+        if (sequence != null) {
+            return sequence;
+        }
+        OPEN_LOCK.lock();
+        try {
+            sequence = SEQUENCES.get(file.getPath());
+            if (sequence == null) {
+                sequence = new IdSequence(file);
+                SEQUENCES.put(file.getPath(), sequence);
+            }
+            return sequence;
+        } finally {
+            OPEN_LOCK.unlock();
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Allocation
+     * ---------------------------------------------------------------------- */
+
+    // Returns a new ID that no other caller has received, and saves the new high-water mark.
+    public int next() throws IOException {
+        int id = last.incrementAndGet();
+        saveLastId();
+        return id;
+    }
+
+    // Appends an ID to the list once its entity has been written. The list is a
+    // record like any other, so it is durable on return and lives wherever the
+    // chosen RecordStore keeps records.
+    public void record(int id) {
+        RecordStores.get().append(idsFile.getPath(), id + System.lineSeparator());
+    }
+
+    // Records an ID the caller picked itself (Event.setEventID), so next() never hands it out.
+    public void claim(int id) throws IOException {
+        last.accumulateAndGet(id, Math::max);
+        saveLastId();
+        record(id);
+    }
+
+    public int current() {
+        return last.get();
+    }
+
+    // Drops every sequence so the next use reloads (or rescans) from disk.
+    static void clear() {
+        SEQUENCES.clear();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Persistence
+     * ---------------------------------------------------------------------- */
+
+    // Written under the lock and always with the latest value, so a slow writer
+    // can never put an older high-water mark back on disk. Forced before next()
+    // returns: an ID handed out before a crash must not be handed out again,
+    // even if its entity and list line never made it to disk.
+    private void saveLastId() throws IOException {
+        fileLock.lock();
+        try {
+            File parent = seqFile.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            try (FileChannel channel = FileChannel.open(seqFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).putInt(0, last.get());
+                channel.write(buffer, 0);
+                channel.force(true);
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private int loadLastId() {
+        return Math.max(readSeq(), scanLastId());
+    }
+
+    // The saved high-water mark, or 0 if there is none.
+    private int readSeq() {
+        if (seqFile.length() >= Integer.BYTES) {
+            try (FileChannel channel = FileChannel.open(seqFile.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+                channel.read(buffer, 0);
+                return buffer.getInt(0);
+            } catch (IOException e) {
+                // The list scan still gives a safe value
+            }
+        }
+        return 0;
+    }
+
+    // The highest ID in the list file.
+    private int scanLastId() {
+        int lastId = 0;
+        if (!RecordStores.get().exists(idsFile.getPath())) {
+            return lastId;
+        }
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(idsFile.getPath()))) {
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                try {
+                    lastId = Math.max(lastId, in.asInt());
+                } catch (NumberFormatException e) {
+                    // Skip malformed lines
+                }
+            }
+        } catch (FileNotFoundException e) {
+            // Deleted in between; start from 0
+        }
+        return lastId;
+    }
+}
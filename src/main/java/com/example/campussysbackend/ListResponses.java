@@ -0,0 +1,244 @@
+package com.example.campussysbackend;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+// Paging and streaming for the list endpoints
+// (/getbookings, /getevents, /getallbookings, /getallmaintenance, /getstudentfeedback).
+//
+// Records are written to the response one by one as they are produced, instead
+// of first collecting a List<Map<String, Object>> of every record, so memory per
+// request no longer grows with the size of the data.
+//
+//   ?limit=<n>       at most n records (1..MAX_LIMIT). If more remain, the
+//                    X-Next-Cursor response header holds the cursor for the
+//                    next page; it is absent on the last page.
+//   ?cursor=<c>      continue after the record the cursor came from.
+//   Accept: application/x-ndjson
+//                    one JSON object per line instead of a JSON array.
+//
+// Without limit/cursor the response is the same JSON array as before.
+// Every source must be ordered by its record key; the cursor is the key of the
+// last record sent, so a page is stable even if records are added in between.
+
+final class ListResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_LIMIT = 1000;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private ListResponses() {
+    }
+
+    // Writes one record. Returns false if the record turned out to be gone
+    // (e.g. its file was deleted) and nothing was written.
+    interface RecordWriter<T> {
+        boolean write(T record, JsonRecord json) throws IOException;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Response
+     * ---------------------------------------------------------------------- */
+
+    static <T> ResponseEntity<?> respond(Iterable<T> source, ToLongFunction<T> keyOf,
+                                         Integer limit, String cursor, String accept,
+                                         RecordWriter<T> writer) {
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "Invalid",
+                    "message", "limit must be between 1 and " + MAX_LIMIT + "."
+            ));
+        }
+
+        Long after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : Long.parseLong(cursor.trim());
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "Invalid",
+                    "message", "Invalid cursor."
+            ));
+        }
+
+        Iterator<T> records = source.iterator();
+        if (after != null) {
+            records = skipThrough(records, keyOf, after);
+        }
+
+        String nextCursor = null;
+        if (limit != null) {
+            // Only the page itself is held (source records are IDs or resident objects),
+            // plus one look-ahead to know whether there is a next page.
+            List<T> page = new ArrayList<>(Math.min(limit, 64));
+            while (page.size() < limit && records.hasNext()) {
+                page.add(records.next());
+            }
+            if (records.hasNext() && !page.isEmpty()) {
+                nextCursor = Long.toString(keyOf.applyAsLong(page.get(page.size() - 1)));
+            }
+            records = page.iterator();
+        }
+
+        boolean ndjson = accept != null && accept.contains(NDJSON.toString());
+        Iterator<T> body = records;
+        StreamingResponseBody stream = out -> write(body, writer, ndjson, out);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+                .contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON);
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(stream);
+    }
+
+    private static <T> void write(Iterator<T> records, RecordWriter<T> writer, boolean ndjson,
+                                  OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonRecord json = new JsonRecord(w);
+        boolean first = true;
+
+        if (!ndjson) w.write('[');
+        while (records.hasNext()) {
+            T record = records.next();
+            if (!ndjson && !first) json.separator();
+            if (!writer.write(record, json)) continue;
+            if (ndjson) w.write('\n');
+            if (first) {
+                // Send the first record right away instead of waiting for a full buffer
+                w.flush();
+                first = false;
+            }
+        }
+        if (!ndjson) w.write(']');
+        w.flush();
+    }
+
+    // Drops records up to and including the one with the cursor's key.
+    private static <T> Iterator<T> skipThrough(Iterator<T> records, ToLongFunction<T> keyOf, long after) {
+        return new Iterator<T>() {
+            private T next = advance();
+
+            private T advance() {
+                while (records.hasNext()) {
+                    T record = records.next();
+                    if (keyOf.applyAsLong(record) > after) {
+                        return record;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) throw new NoSuchElementException();
+                T record = next;
+                next = records.hasNext() ? records.next() : null;
+                return record;
+            }
+        };
+    }
+
+    // Key for sources ordered by room ID, then booking ID.
+    static long bookingKey(Booking booking) {
+        return ((long) booking.getRoomID() << 32) | (booking.getBookingID() & 0xFFFFFFFFL);
+    }
+
+    /* -------------------------------------------------------------------------
+     * JSON output
+     * ---------------------------------------------------------------------- */
+
+    // Minimal writer for flat JSON objects with string and number fields.
+    static final class JsonRecord {
+        private final Writer w;
+        private boolean firstField;
+        private boolean pendingSeparator;
+
+        JsonRecord(Writer w) {
+            this.w = w;
+        }
+
+        // A comma before the next record, written only if that record is written.
+        void separator() {
+            pendingSeparator = true;
+        }
+
+        JsonRecord begin() throws IOException {
+            if (pendingSeparator) {
+                w.write(',');
+                pendingSeparator = false;
+            }
+            w.write('{');
+            firstField = true;
+            return this;
+        }
+
+        JsonRecord field(String name, int value) throws IOException {
+            name(name);
+            w.write(Integer.toString(value));
+            return this;
+        }
+
+        // NaN and the infinities are not JSON numbers; they are written as null
+        JsonRecord field(String name, float value) throws IOException {
+            name(name);
+            w.write(Float.isFinite(value) ? Float.toString(value) : "null");
+            return this;
+        }
+
+        JsonRecord field(String name, String value) throws IOException {
+            name(name);
+            if (value == null) {
+                w.write("null");
+            } else {
+                string(value);
+            }
+            return this;
+        }
+
+        void end() throws IOException {
+            w.write('}');
+        }
+
+        private void name(String name) throws IOException {
+            if (!firstField) w.write(',');
+            firstField = false;
+            string(name);
+            w.write(':');
+        }
+
+        private void string(String s) throws IOException {
+            w.write('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> w.write("\\\"");
+                    case '\\' -> w.write("\\\\");
+                    case '\n' -> w.write("\\n");
+                    case '\r' -> w.write("\\r");
+                    case '\t' -> w.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            w.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            w.write(c);
+                        }
+                    }
+                }
+            }
+            w.write('"');
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Resident copy of the maintenance requests in one requests directory
+// (normally data/requests/), indexed by owner (userId) and by status.
+//
+// Built on first use from IDs.txt, then kept current by MaintenanceRequest
+// itself: every writeDetails() (creation, updateStatus, setComment, ...)
+// replaces the stored request here, so /getmaintenance and /getallmaintenance
+// are answered without reading any request file.
+
+public final class MaintenanceIndex {
+
+    private static final ConcurrentHashMap<String, MaintenanceIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final File dir;
+    private final ConcurrentSkipListMap<Integer, MaintenanceRequest> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<Integer>> byUser = new ConcurrentHashMap<>();
+    // Keyed by lower-cased status, since the endpoints filter case-insensitively
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<Integer>> byStatus = new ConcurrentHashMap<>();
+    // Owner and status each request is currently filed under
+    private final ConcurrentHashMap<Integer, Integer> userOf = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> statusOf = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    private MaintenanceIndex(File dir) {
+        this.dir = dir;
+    }
+
+    // requestsPath is the directory, e.g. "data/requests/"
+    public static MaintenanceIndex forPath(String requestsPath) {
+        File dir = new File(requestsPath).getAbsoluteFile().toPath().normalize().toFile();
+        return INDEXES.computeIfAbsent(dir.getPath(), k -> new MaintenanceIndex(dir));
+    }
+
+    // Index of the directory a request file lives in, e.g. "data/requests/5.txt"
+    static MaintenanceIndex forRequestFile(String requestFilePath) {
+        File parent = new File(requestFilePath).getAbsoluteFile().getParentFile();
+        return forPath(parent == null ? "." : parent.getPath());
+    }
+
+    // Drops every index so the next query rebuilds it from disk.
+    static void clear() {
+        INDEXES.clear();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Queries
+     * ---------------------------------------------------------------------- */
+
+    // Requests ordered by ID. Either filter may be null; status is case-insensitive.
+    public List<MaintenanceRequest> find(Integer userID, String status) {
+        ensureLoaded();
+        String statusKey = status == null || status.isBlank() ? null : key(status);
+
+        Collection<Integer> ids;
+        if (userID != null) {
+            ids = byUser.getOrDefault(userID, new ConcurrentSkipListSet<>());
+        } else if (statusKey != null) {
+            ids = byStatus.getOrDefault(statusKey, new ConcurrentSkipListSet<>());
+        } else {
+            ids = byId.keySet();
+        }
+
+        List<MaintenanceRequest> out = new ArrayList<>();
+        for (int id : ids) {
+            MaintenanceRequest request = byId.get(id);
+            if (request == null) continue; // removed in between
+            if (statusKey != null && !statusKey.equals(key(request.getStatus()))) continue;
+            out.add(request);
+        }
+        return out;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Updates
+     * ---------------------------------------------------------------------- */
+
+    // Called after a request has been written. Ignored until the index is built,
+    // because the build reads the request file, which already has this change.
+    void update(MaintenanceRequest request) {
+        if (!loaded) {
+            // If a build is running, wait for it so this change is not lost
+            lock.lock();
+            try {
+                if (!loaded) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        put(request);
+    }
+
+    // Per request, atomically: move it out of its old owner/status sets and into the new ones.
+    // The old keys are remembered separately, because the stored request may be the
+    // same object that was just changed.
+    private void put(MaintenanceRequest request) {
+        int id = request.getRequestID();
+        int userID = request.getUserID();
+        String statusKey = key(request.getStatus());
+        byId.compute(id, (k, before) -> {
+            Integer oldUser = userOf.put(id, userID);
+            String oldStatus = statusOf.put(id, statusKey);
+            if (oldUser != null && oldUser != userID) {
+                removeFrom(byUser, oldUser, id);
+            }
+            if (oldStatus != null && !oldStatus.equals(statusKey)) {
+                removeFrom(byStatus, oldStatus, id);
+            }
+            byUser.computeIfAbsent(userID, u -> new ConcurrentSkipListSet<>()).add(id);
+            byStatus.computeIfAbsent(statusKey, s -> new ConcurrentSkipListSet<>()).add(id);
+            return request;
+        });
+    }
+
+    private static <K> void removeFrom(ConcurrentHashMap<K, ConcurrentSkipListSet<Integer>> index, K key, int id) {
+        ConcurrentSkipListSet<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+
+    private static String key(String status) {
+        return status == null ? "" : status.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Initial build
+     * ---------------------------------------------------------------------- */
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            String idsPath = new File(dir, "IDs.txt").getPath();
+            if (RecordStores.get().exists(idsPath)) {
+                try (RecordReader in = RecordReader.of(RecordStores.get().read(idsPath))) {
+                    while (in.nextLine()) {
+                        if (in.isBlank()) continue;
+                        try {
+                            int requestID = in.asInt();
+                            put(new MaintenanceRequest(requestID, new File(dir, requestID + ".txt").getPath()));
+                        } catch (NumberFormatException | FileNotFoundException e) {
+                            // Skip bad lines and IDs whose request file is gone
+                        }
+                    }
+                } catch (FileNotFoundException e) {
+                    // Deleted in between; nothing to index
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.campussysbackend;
 
-import java.util.Scanner;
-import java.io.File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.time.LocalDateTime;
 
 public class MaintenanceRequest {
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceRequest.class);
+
     private int requestID;
     private int userID;
     private int equipmentID;
@@ -36,24 +38,25 @@ public class MaintenanceRequest {
     public MaintenanceRequest(int requestID, String path) throws FileNotFoundException {
         this.requestID = requestID;
         this.filepath = path;
+        long start = System.nanoTime();
         getDetails();
+        StorageMetrics.loaded("MaintenanceRequest", start);
     }
 
     private void writeDetails() throws FileNotFoundException {
-        try (PrintWriter writer = new PrintWriter(filepath)) {
-            writer.print(this);
-        }
+        RecordStores.get().write(filepath, toString());
+        // Keep the owner/status index in step with what is now on disk
+        MaintenanceIndex.forRequestFile(filepath).update(this);
     }
 
     private void getDetails() throws FileNotFoundException {
-        try (Scanner scanner = new Scanner(new File(filepath))) {
-            userID = scanner.nextInt();
-            scanner.nextLine(); // consume rest of line
-            description = scanner.nextLine();
-            timestamp = LocalDateTime.parse(scanner.nextLine());
-            status = scanner.nextLine();
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(filepath))) {
+            userID = in.requireLine().asInt();
+            description = in.requireLine().asString();
+            timestamp = in.requireLine().asDateTime();
+            status = in.requireLine().asString();
             // comments may or may not be there
-            comments = scanner.hasNextLine() ? scanner.nextLine() : "";
+            comments = in.nextLine() ? in.asString() : "";
         }
     }
 
@@ -63,7 +66,7 @@ public class MaintenanceRequest {
         try {
             writeDetails();
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("Could not save maintenance request {}", requestID, e);
         }
     }
 
@@ -72,7 +75,7 @@ public class MaintenanceRequest {
         try {
             writeDetails();
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("Could not save maintenance request {}", requestID, e);
         }
     }
 
@@ -98,7 +101,7 @@ public class MaintenanceRequest {
         try {
             writeDetails();
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("Could not save maintenance request {}", requestID, e);
         }
     }
 
@@ -111,7 +114,7 @@ public class MaintenanceRequest {
         try {
             writeDetails();
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("Could not save maintenance request {}", requestID, e);
         }
     }
 
@@ -124,7 +127,7 @@ public class MaintenanceRequest {
         try {
             writeDetails();
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("Could not save maintenance request {}", requestID, e);
         }
     }
 
@@ -137,7 +140,7 @@ public class MaintenanceRequest {
         try {
             writeDetails();
         } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            log.error("Could not save maintenance request {}", requestID, e);
         }
     }
 
@@ -1,9 +1,14 @@
 package com.example.campussysbackend;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.*;
 import java.util.*;
 
 public class MaintenanceStaff extends User {
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceStaff.class);
+
     private static final String USERS_BASE_PATH    = "data/users/";
     private static final String USER_IDS_FILE      = USERS_BASE_PATH + "userIDs.txt";
     private static final String REQUESTS_BASE_PATH = "data/requests/";
@@ -108,10 +113,10 @@ public class MaintenanceStaff extends User {
             return out;
         }
 
-        try (Scanner scanner = new Scanner(f)) {
+        try (RecordReader in = RecordReader.open(f)) {
             int i = 0;
-            while (i < out.length && scanner.hasNextLine()) {
-                out[i++] = scanner.nextLine();
+            while (i < out.length && in.nextLine()) {
+                out[i++] = in.asString();
             }
         }
         return out;
@@ -123,18 +128,18 @@ public class MaintenanceStaff extends User {
 
     // NOTE: renamed from getRequests() to avoid clashing with User.getRequests()
     private void loadStaffRequests() throws FileNotFoundException {
-        File idsFile = new File(REQUEST_IDS_FILE);
-        if (!idsFile.exists()) {
+        if (!RecordStores.get().exists(REQUEST_IDS_FILE)) {
             return;
         }
 
         ArrayList<Integer> requestIDs = new ArrayList<>();
-        try (Scanner idScanner = new Scanner(idsFile)) {
-            while (idScanner.hasNext()) {
-                if (idScanner.hasNextInt()) {
-                    requestIDs.add(idScanner.nextInt());
-                } else {
-                    idScanner.next(); // skip garbage token
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(REQUEST_IDS_FILE))) {
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                try {
+                    requestIDs.add(in.asInt());
+                } catch (NumberFormatException e) {
+                    // skip garbage line
                 }
             }
         }
@@ -158,7 +163,7 @@ public class MaintenanceStaff extends User {
     }
 
     public void viewAssignedTasks() {
-        System.out.println("Assigned tasks: " + assignedTasks);
+        log.info("Assigned tasks for {}: {}", userID, assignedTasks);
     }
 
     public void assignTask(int taskID) {
@@ -0,0 +1,359 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Alternative storage for Booking: fixed-width binary records in a memory-mapped
+// file, one file per booking prefix, e.g.
+//   data/rooms/3300-<id>.txt   ->   data/rooms/3300-bookings.bin
+//
+// Booking IDs are handed out per room starting at 1, so booking N simply lives
+// in slot N: loading a booking or changing its status is a read or write at a
+// fixed offset, with nothing to parse. A status change writes a single byte.
+//
+// Turned on with -Dcampussys.bookings=mapped (or CAMPUSSYS_BOOKINGS=mapped);
+// the default keeps bookings as text records in the RecordStore. Run main() once
+// to copy the existing text bookings into .bin files before switching.
+//
+// File layout:
+//   header (16 bytes): int magic "CSBK", short version, short record size, 8 reserved
+//   record N (20 bytes) at HEADER_BYTES + (N - 1) * RECORD_BYTES:
+//     byte  used (0 = no booking with this ID)
+//     byte  status (Status code)
+//     short start, minute of day
+//     short end, minute of day
+//     short reserved
+//     int   userId
+//     int   roomId
+//     int   date, epoch day
+
+public final class MappedBookingStore {
+
+    static final String FILE_NAME = "bookings.bin";
+
+    private static final int MAGIC = 0x4353424B; // "CSBK"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 20;
+    private static final int GROW_SLOTS = 256;
+
+    private static final int USED = 0;
+    private static final int STATUS = 1;
+    private static final int START = 2;
+    private static final int END = 4;
+    private static final int USER = 8;
+    private static final int ROOM = 12;
+    private static final int DATE = 16;
+
+    private static final ConcurrentHashMap<String, MappedBookingStore> STORES = new ConcurrentHashMap<>();
+    // Opening maps the file; done under this lock, not inside computeIfAbsent (a monitor)
+    private static final ReentrantLock OPEN_LOCK = new ReentrantLock();
+    private static volatile Boolean enabled;
+
+    private final FileChannel channel;
+    // Remapped (under the lock) whenever a booking ID beyond the end is written
+    private volatile MappedByteBuffer map;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Booking statuses and their one-byte codes
+    enum Status {
+        PENDING("Pending", 1),
+        APPROVED("Approved", 2),
+        REJECTED("Rejected", 3),
+        CANCELLED("Cancelled", 4);
+
+        private final String label;
+        private final byte code;
+
+        Status(String label, int code) {
+            this.label = label;
+            this.code = (byte) code;
+        }
+
+        static Status of(String label) {
+            for (Status s : values()) {
+                if (s.label.equals(label)) return s;
+            }
+            throw new IllegalArgumentException("Unknown booking status: " + label);
+        }
+
+        static Status of(byte code) {
+            for (Status s : values()) {
+                if (s.code == code) return s;
+            }
+            throw new IllegalStateException("Unknown booking status code: " + code);
+        }
+    }
+
+    private MappedBookingStore(Path file) throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_BYTES).flip();
+            channel.write(header, 0);
+            channel.force(true);
+            size = HEADER_BYTES;
+        }
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (map.getInt(0) != MAGIC || map.getShort(6) != RECORD_BYTES) {
+            throw new IOException("Not a booking store: " + file);
+        }
+    }
+
+    public static boolean isEnabled() {
+        Boolean on = enabled;
+        if (on == null) {
+            on = "mapped".equalsIgnoreCase(RecordStores.setting("campussys.bookings", "CAMPUSSYS_BOOKINGS", "records"));
+            enabled = on;
+        }
+        return on;
+    }
+
+    // Store for the bookings whose files would be <prefix><id>.txt
+    public static MappedBookingStore forPrefix(String prefix) {
+        Path file = Paths.get(prefix + FILE_NAME).toAbsolutePath().normalize();
+        MappedBookingStore store = STORES.get(file.toString());
+        if (store != null) {
+            return store;
+        }
+        OPEN_LOCK.lock();
+        try {
+            store = STORES.get(file.toString());
+            if (store == null) {
+                store = new MappedBookingStore(file);
+                STORES.put(file.toString(), store);
+            }
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            OPEN_LOCK.unlock();
+        }
+    }
+
+    // Closes every open store so the next use maps its file again.
+    static void clear() {
+        OPEN_LOCK.lock();
+        try {
+            for (MappedBookingStore store : STORES.values()) {
+                try {
+                    store.channel.close();
+                } catch (IOException e) {
+                    // Nothing is buffered; every write was already forced
+                }
+            }
+            STORES.clear();
+        } finally {
+            OPEN_LOCK.unlock();
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Reads
+     * ---------------------------------------------------------------------- */
+
+    public boolean contains(int bookingID) {
+        MappedByteBuffer m = map;
+        int offset = offset(bookingID);
+        return offset >= 0 && offset + RECORD_BYTES <= m.capacity() && m.get(offset + USED) != 0;
+    }
+
+    // The stored booking, or null if there is none with this ID.
+    public Entry read(int bookingID) {
+        MappedByteBuffer m = map;
+        int offset = offset(bookingID);
+        if (offset < 0 || offset + RECORD_BYTES > m.capacity() || m.get(offset + USED) == 0) {
+            return null;
+        }
+        return new Entry(
+                m.getInt(offset + USER),
+                m.getInt(offset + ROOM),
+                LocalDate.ofEpochDay(m.getInt(offset + DATE)),
+                LocalTime.ofSecondOfDay(m.getShort(offset + START) * 60L),
+                LocalTime.ofSecondOfDay(m.getShort(offset + END) * 60L),
+                Status.of(m.get(offset + STATUS)).label);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Writes
+     * ---------------------------------------------------------------------- */
+
+    public void write(int bookingID, int userID, int roomID, LocalDate date,
+                      LocalTime startTime, LocalTime endTime, String status) {
+        byte code = Status.of(status).code;
+        lock.lock();
+        try {
+            int offset = slot(bookingID);
+            MappedByteBuffer m = map;
+            m.put(offset + STATUS, code);
+            m.putShort(offset + START, (short) minuteOfDay(startTime));
+            m.putShort(offset + END, (short) minuteOfDay(endTime));
+            m.putInt(offset + USER, userID);
+            m.putInt(offset + ROOM, roomID);
+            m.putInt(offset + DATE, (int) date.toEpochDay());
+            // Marked used last, so a reader never sees half a new booking
+            m.put(offset + USED, (byte) 1);
+            m.force(offset, RECORD_BYTES);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Changes only the status byte of an existing booking.
+    public void writeStatus(int bookingID, String status) {
+        byte code = Status.of(status).code;
+        lock.lock();
+        try {
+            if (!contains(bookingID)) {
+                throw new IllegalStateException("No booking " + bookingID);
+            }
+            int offset = offset(bookingID);
+            map.put(offset + STATUS, code);
+            map.force(offset + STATUS, 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Offset of the slot for this ID, growing the mapping if needed. Called under the lock.
+    private int slot(int bookingID) {
+        int offset = offset(bookingID);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Booking ID out of range: " + bookingID);
+        }
+        if (offset + RECORD_BYTES > map.capacity()) {
+            long slots = Math.max(bookingID + GROW_SLOTS, (map.capacity() - HEADER_BYTES) / RECORD_BYTES * 2L);
+            try {
+                map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + slots * RECORD_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return offset;
+    }
+
+    // -1 for an ID below 1 or one whose slot lies beyond what a mapping can address
+    private static int offset(int bookingID) {
+        long offset = HEADER_BYTES + (bookingID - 1L) * RECORD_BYTES;
+        return bookingID < 1 || offset > Integer.MAX_VALUE - RECORD_BYTES ? -1 : (int) offset;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Migration
+     * ---------------------------------------------------------------------- */
+
+    // Copies every text booking record <dir>/<roomId>-<bookingId>.txt in the RecordStore
+    // into <dir>/<roomId>-bookings.bin. The text records are left in place.
+    // Usage: MappedBookingStore [dir]   (default: data/rooms/)
+    public static void main(String[] args) throws IOException {
+        String dir = args.length > 0 ? args[0] : "data/rooms/";
+        if (!dir.endsWith("/") && !dir.endsWith(File.separator)) {
+            dir += File.separator;
+        }
+        // Through the configured RecordStore, so bookings that so far only exist
+        // in the WAL (campussys.storage=wal) are migrated too
+        RecordStore records = RecordStores.get();
+        List<String> names = new ArrayList<>();
+        for (String name : records.list(dir)) {
+            if (name.matches("\\d+-\\d+\\.txt")) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            System.out.println("No bookings found in " + dir);
+            return;
+        }
+
+        int migrated = 0;
+        for (String name : names) {
+            int dash = name.indexOf('-');
+            String prefix = dir + name.substring(0, dash + 1);
+            int bookingID = Integer.parseInt(name.substring(dash + 1, name.length() - 4));
+            String text;
+            try {
+                text = records.read(dir + name);
+            } catch (FileNotFoundException e) {
+                // Deleted since it was listed
+                continue;
+            }
+            try (RecordReader in = RecordReader.of(text)) {
+                int userID = in.requireLine().asInt();
+                int roomID = in.requireLine().asInt();
+                LocalDate date = in.requireLine().asDate();
+                LocalTime startTime = in.requireLine().asTime();
+                LocalTime endTime = in.requireLine().asTime();
+                String status = in.nextLine() && !in.isBlank() ? in.asString().trim() : "Pending";
+                forPrefix(prefix).write(bookingID, userID, roomID, date, startTime, endTime, status);
+                migrated++;
+            } catch (NoSuchElementException | IllegalArgumentException | DateTimeException e) {
+                System.out.println("Skipping malformed booking record " + name);
+            }
+        }
+        System.out.println("Migrated " + migrated + " bookings in " + dir);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Types
+     * ---------------------------------------------------------------------- */
+
+    public static final class Entry {
+        private final int userID;
+        private final int roomID;
+        private final LocalDate date;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+        private final String status;
+
+        private Entry(int userID, int roomID, LocalDate date, LocalTime startTime, LocalTime endTime, String status) {
+            this.userID = userID;
+            this.roomID = roomID;
+            this.date = date;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.status = status;
+        }
+
+        public int getUserID() {
+            return userID;
+        }
+
+        public int getRoomID() {
+            return roomID;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public LocalTime getStartTime() {
+            return startTime;
+        }
+
+        public LocalTime getEndTime() {
+            return endTime;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+}
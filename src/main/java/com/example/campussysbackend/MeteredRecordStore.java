@@ -0,0 +1,95 @@
+package com.example.campussysbackend;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Times every call into the chosen RecordStore and counts the bytes that go
+// through it; see StorageMetrics. RecordStores wraps the engine in one of these.
+
+final class MeteredRecordStore implements RecordStore {
+
+    private final RecordStore engine;
+    private final Timer reads;
+    private final Timer writes;
+    private final Timer appends;
+    private final Timer deletes;
+    private final Timer existsChecks;
+    private final Timer lists;
+
+    MeteredRecordStore(RecordStore engine, String name) {
+        this.engine = engine;
+        this.reads = StorageMetrics.operation(name, "read");
+        this.writes = StorageMetrics.operation(name, "write");
+        this.appends = StorageMetrics.operation(name, "append");
+        this.deletes = StorageMetrics.operation(name, "delete");
+        this.existsChecks = StorageMetrics.operation(name, "exists");
+        this.lists = StorageMetrics.operation(name, "list");
+    }
+
+    @Override
+    public String read(String path) throws FileNotFoundException {
+        long start = System.nanoTime();
+        try {
+            String text = engine.read(path);
+            StorageMetrics.bytesRead(text);
+            return text;
+        } finally {
+            reads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void write(String path, String contents) {
+        long start = System.nanoTime();
+        try {
+            engine.write(path, contents);
+            StorageMetrics.bytesWritten(contents);
+        } finally {
+            writes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void append(String path, String text) {
+        long start = System.nanoTime();
+        try {
+            engine.append(path, text);
+            StorageMetrics.bytesWritten(text);
+        } finally {
+            appends.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void delete(String path) {
+        long start = System.nanoTime();
+        try {
+            engine.delete(path);
+        } finally {
+            deletes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean exists(String path) {
+        long start = System.nanoTime();
+        try {
+            return engine.exists(path);
+        } finally {
+            existsChecks.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public List<String> list(String dir) {
+        long start = System.nanoTime();
+        try {
+            return engine.list(dir);
+        } finally {
+            lists.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+// Line-by-line reader for the data/ text formats, used by every loader in place
+// of java.util.Scanner.
+//
+// Lines are not turned into Strings: the reader keeps a char buffer and the
+// bounds of the current line, and ints, dates and times are parsed straight out
+// of it. Only asString() allocates. File input is read in 8 KB chunks.
+//
+//   try (RecordReader in = RecordReader.of(RecordStores.get().read(path))) {
+//       userID = in.requireLine().asInt();
+//       date   = in.requireLine().asDate();
+//       while (in.nextLine()) {
+//           if (in.isBlank()) continue;
+//           ids.add(in.asInt());
+//       }
+//   }
+//
+// Parse errors surface as NumberFormatException / DateTimeException (as with
+// Integer.parseInt and LocalDate.parse); a missing line as NoSuchElementException
+// (as with Scanner.nextLine); a failed file read as UncheckedIOException.
+
+public final class RecordReader implements Closeable {
+
+    private static final int CHUNK = 8192;
+
+    private final Reader in; // null when reading from a String
+    private char[] buf;
+    private int limit;       // end of valid data in buf
+    private int pos;         // start of the next line
+    private int start;       // current line: [start, end)
+    private int end;
+    private int col;         // how far nextInt() has read into the current line
+    private boolean eof;
+    private long charsRead;  // from the file, for StorageMetrics
+
+    private RecordReader(Reader in, char[] buf, int limit) {
+        this.in = in;
+        this.buf = buf;
+        this.limit = limit;
+        this.eof = in == null;
+    }
+
+    public static RecordReader of(String text) {
+        char[] chars = new char[text.length()];
+        text.getChars(0, text.length(), chars, 0);
+        return new RecordReader(null, chars, chars.length);
+    }
+
+    public static RecordReader open(File file) throws FileNotFoundException {
+        RecordReader reader = new RecordReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8),
+                new char[CHUNK], 0);
+        StorageMetrics.fileOpened();
+        return reader;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Moving between lines
+     * ---------------------------------------------------------------------- */
+
+    // Moves to the next line. Returns false at the end of the input.
+    public boolean nextLine() {
+        int scan = pos;
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                if (buf[i] == '\n') {
+                    setLine(pos, i);
+                    pos = i + 1;
+                    return true;
+                }
+            }
+            scan = limit;
+            if (eof) {
+                if (pos < limit) {
+                    // Last line without a trailing newline
+                    setLine(pos, limit);
+                    pos = limit;
+                    return true;
+                }
+                return false;
+            }
+            scan -= pos;
+            fill();
+        }
+    }
+
+    // Same as nextLine(), but a missing line is an error.
+    public RecordReader requireLine() {
+        if (!nextLine()) {
+            throw new NoSuchElementException("No line found");
+        }
+        return this;
+    }
+
+    private void setLine(int from, int to) {
+        start = from;
+        col = from;
+        end = to > from && buf[to - 1] == '\r' ? to - 1 : to;
+    }
+
+    // Shifts the unread part to the front of the buffer and reads more after it.
+    private void fill() {
+        int keep = limit - pos;
+        if (keep == buf.length) {
+            // One line longer than the buffer
+            char[] bigger = new char[buf.length * 2];
+            System.arraycopy(buf, pos, bigger, 0, keep);
+            buf = bigger;
+        } else if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, keep);
+        }
+        pos = 0;
+        limit = keep;
+        try {
+            int n = in.read(buf, limit, buf.length - limit);
+            if (n < 0) {
+                eof = true;
+            } else {
+                limit += n;
+                charsRead += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * The current line
+     * ---------------------------------------------------------------------- */
+
+    public boolean isBlank() {
+        return trimStart() == trimEnd();
+    }
+
+    // Whether the line, ignoring surrounding whitespace, equals the text.
+    public boolean is(String text) {
+        int from = trimStart();
+        int to = trimEnd();
+        if (to - from != text.length()) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (buf[from + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // The line as it is (not trimmed), like Scanner.nextLine().
+    public String asString() {
+        return new String(buf, start, end - start);
+    }
+
+    public int asInt() {
+        return parseInt(trimStart(), trimEnd());
+    }
+
+    public float asFloat() {
+        return Float.parseFloat(new String(buf, trimStart(), trimEnd() - trimStart()));
+    }
+
+    // yyyy-MM-dd
+    public LocalDate asDate() {
+        int from = trimStart();
+        int to = trimEnd();
+        if (to - from != 10 || buf[from + 4] != '-' || buf[from + 7] != '-') {
+            return LocalDate.parse(new String(buf, from, to - from));
+        }
+        return LocalDate.of(parseInt(from, from + 4), parseInt(from + 5, from + 7), parseInt(from + 8, from + 10));
+    }
+
+    // HH:mm[:ss[.fraction]], as written by LocalTime.toString()
+    public LocalTime asTime() {
+        int from = trimStart();
+        return parseTime(from, trimEnd());
+    }
+
+    // yyyy-MM-ddTHH:mm[:ss[.fraction]], as written by LocalDateTime.toString()
+    public LocalDateTime asDateTime() {
+        int from = trimStart();
+        int to = trimEnd();
+        if (to - from < 16 || buf[from + 10] != 'T' || buf[from + 4] != '-' || buf[from + 7] != '-') {
+            return LocalDateTime.parse(new String(buf, from, to - from));
+        }
+        LocalDate date = LocalDate.of(parseInt(from, from + 4), parseInt(from + 5, from + 7),
+                parseInt(from + 8, from + 10));
+        return LocalDateTime.of(date, parseTime(from + 11, to));
+    }
+
+    // Calls the consumer with every whitespace-separated int on the line.
+    public void forEachInt(IntConsumer consumer) {
+        col = start;
+        while (hasNextToken()) {
+            consumer.accept(nextInt());
+        }
+    }
+
+    // The next whitespace-separated int on the current line, like Scanner.nextInt()
+    // but without crossing into the next line.
+    public int nextInt() {
+        if (!hasNextToken()) {
+            throw new NoSuchElementException("No int left on the line");
+        }
+        int tokenStart = col;
+        while (col < end && !Character.isWhitespace(buf[col])) col++;
+        return parseInt(tokenStart, col);
+    }
+
+    // What is left of the line after the ints taken by nextInt(), as it is.
+    public String rest() {
+        return new String(buf, col, end - col);
+    }
+
+    private boolean hasNextToken() {
+        while (col < end && Character.isWhitespace(buf[col])) col++;
+        return col < end;
+    }
+
+    @Override
+    public void close() {
+        if (in != null) {
+            StorageMetrics.bytesRead(charsRead);
+            charsRead = 0;
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Nothing left to read anyway
+            }
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Parsing
+     * ---------------------------------------------------------------------- */
+
+    private int trimStart() {
+        int i = start;
+        while (i < end && Character.isWhitespace(buf[i])) i++;
+        return i;
+    }
+
+    private int trimEnd() {
+        int i = end;
+        while (i > start && Character.isWhitespace(buf[i - 1])) i--;
+        return i;
+    }
+
+    private int parseInt(int from, int to) {
+        if (from >= to) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+        boolean negative = buf[from] == '-';
+        int i = negative || buf[from] == '+' ? from + 1 : from;
+        if (i == to || to - i > 10) {
+            // Sign only, or possibly out of int range: let Integer decide
+            return Integer.parseInt(new String(buf, from, to - from));
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + new String(buf, from, to - from) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + new String(buf, from, to - from) + "\"");
+        }
+        return (int) value;
+    }
+
+    private LocalTime parseTime(int from, int to) {
+        int length = to - from;
+        if (length < 5 || buf[from + 2] != ':' || (length > 5 && (length < 8 || buf[from + 5] != ':'))) {
+            return LocalTime.parse(new String(buf, from, length));
+        }
+        int hour = parseInt(from, from + 2);
+        int minute = parseInt(from + 3, from + 5);
+        if (length == 5) {
+            return LocalTime.of(hour, minute);
+        }
+        int second = parseInt(from + 6, from + 8);
+        int nano = 0;
+        if (length > 8) {
+            if (buf[from + 8] != '.' || length > 18) {
+                return LocalTime.parse(new String(buf, from, length));
+            }
+            int digits = to - (from + 9);
+            nano = parseInt(from + 9, to);
+            for (int d = digits; d < 9; d++) nano *= 10;
+        }
+        return LocalTime.of(hour, minute, second, nano);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.campussysbackend;
+
+import java.io.FileNotFoundException;
+import java.util.List;
+
+// Where Room, Booking, Event, Feedback and MaintenanceRequest keep their records.
+//
+// A record is addressed by the path its text file has always had (e.g.
+// "data/rooms/3300-12.txt") and its value is that file's text, in the same
+// format as before. This keeps every engine a drop-in replacement and lets the
+// old files be read as they are.
+//
+// Engines (see RecordStores for how one is chosen):
+//   FileRecordStore  one text file per record (the original layout)
+//   WalRecordStore   append-only, segmented write-ahead log, state kept in memory
+//
+// Writes and deletes are durable when they return. A storage failure there is
+// thrown as UncheckedIOException: callers cannot do anything sensible with it
+// besides failing the request.
+
+public interface RecordStore {
+
+    // Text of the record, or FileNotFoundException if there is none.
+    String read(String path) throws FileNotFoundException;
+
+    // Replaces the record's text as a whole.
+    void write(String path, String contents);
+
+    // Adds text to the end of the record, creating it if there is none. Used for
+    // the "one ID per line" lists, which only ever grow.
+    void append(String path, String text);
+
+    void delete(String path);
+
+    boolean exists(String path);
+
+    // File names (not paths) of the records directly inside a directory.
+    List<String> list(String dir);
+}
@@ -0,0 +1,78 @@
+package com.example.campussysbackend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Picks the RecordStore used by the domain classes, once, on first use.
+//
+//   -Dcampussys.storage=file   (default) one text file per record
+//   -Dcampussys.storage=wal    write-ahead log in data/wal/
+//   -Dcampussys.storage.dir=<dir>   WAL directory
+//
+// The environment variables CAMPUSSYS_STORAGE and CAMPUSSYS_STORAGE_DIR are
+// used when the system properties are not set. The engine is wrapped in a
+// MeteredRecordStore, so every call shows up in StorageMetrics.
+
+public final class RecordStores {
+
+    private static final String DEFAULT_WAL_DIR = "data/wal/";
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static volatile RecordStore store;
+
+    private RecordStores() {
+    }
+
+    public static RecordStore get() {
+        RecordStore s = store;
+        if (s == null) {
+            // Opening the WAL replays it, so this is a lock rather than synchronized
+            LOCK.lock();
+            try {
+                s = store;
+                if (s == null) {
+                    String engine = setting("campussys.storage", "CAMPUSSYS_STORAGE", "file").trim()
+                            .toLowerCase(Locale.ROOT);
+                    s = new MeteredRecordStore(open(engine), engine);
+                    store = s;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        return s;
+    }
+
+    // Replaces the store, e.g. with one over a temporary directory in tests.
+    static void set(RecordStore replacement) {
+        store = replacement;
+    }
+
+    private static RecordStore open(String engine) {
+        switch (engine) {
+            case "file":
+                return new FileRecordStore();
+            case "wal":
+                String dir = setting("campussys.storage.dir", "CAMPUSSYS_STORAGE_DIR", DEFAULT_WAL_DIR);
+                try {
+                    WalRecordStore wal = WalRecordStore.open(dir);
+                    Runtime.getRuntime().addShutdownHook(new Thread(wal::close, "wal-shutdown"));
+                    return wal;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not open the WAL in " + dir, e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown storage engine: " + engine);
+        }
+    }
+
+    static String setting(String property, String env, String fallback) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(env);
+        }
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.campussysbackend;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Gives every request an ID and logs one line when it completes.
+//
+// The ID comes from the caller's X-Request-Id header when it has a sane one,
+// otherwise it is generated. It is sent back in the same header and put in the
+// MDC as "requestId", so every log line written while handling the request
+// carries it. The completion line has the timing as structured fields:
+//   POST /bookroom 201 in 3 ms   {requestId, method, uri, status, durationMs}
+// Streamed (async) responses are logged when the stream completes.
+
+@Order(Ordered.HIGHEST_PRECEDENCE)
+final class RequestLogFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "X-Request-Id";
+    static final String MDC_KEY = "requestId";
+
+    private static final Logger log = LoggerFactory.getLogger(RequestLogFilter.class);
+    private static final int MAX_ID_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = requestId(request.getHeader(HEADER));
+        long start = System.nanoTime();
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(HEADER, requestId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(requestId, request, response, start));
+            } else {
+                logCompletion(request, response, start);
+            }
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private static void logCompletion(HttpServletRequest request, HttpServletResponse response, long start) {
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        int status = response.getStatus();
+        String uri = request.getRequestURI();
+        // Scrapes and health checks would drown out the real traffic
+        boolean quiet = uri.startsWith("/actuator/");
+        (quiet ? log.atDebug() : log.atInfo())
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("uri", uri)
+                .addKeyValue("status", status)
+                .addKeyValue("durationMs", durationMs)
+                .log("{} {} {} in {} ms", request.getMethod(), uri, status, durationMs);
+    }
+
+    // The caller's ID if it is short and plain (it ends up in every log line), else a new one.
+    private static String requestId(String header) {
+        if (header != null && !header.isEmpty() && header.length() <= MAX_ID_LENGTH) {
+            boolean plain = true;
+            for (int i = 0; i < header.length() && plain; i++) {
+                char c = header.charAt(i);
+                plain = Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.';
+            }
+            if (plain) {
+                return header;
+            }
+        }
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+
+    private static final class CompletionListener implements AsyncListener {
+        private final String requestId;
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+
+        private CompletionListener(String requestId, HttpServletRequest request, HttpServletResponse response,
+                                   long start) {
+            this.requestId = requestId;
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            MDC.put(MDC_KEY, requestId);
+            try {
+                logCompletion(request, response, start);
+            } finally {
+                MDC.remove(MDC_KEY);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
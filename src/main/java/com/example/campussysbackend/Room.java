@@ -3,6 +3,9 @@ package com.example.campussysbackend;
 import java.time.*;
 import java.util.*;
 import java.io.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class Room {
     private int roomID;
@@ -10,35 +13,51 @@ public class Room {
     private int capacity;
     private List<String> equipmentList;
     private List<Booking> bookings;
-    private int lastBookingID;
+    // Booking IDs are handed out with incrementAndGet so concurrent bookings never share one
+    private final AtomicInteger lastBookingID;
+    // Serializes rewrites of the room file (a ReentrantLock rather than synchronized, see updateDetails)
+    private final ReentrantLock fileLock;
     private String filepath; // directory or prefix for this room's files
+    private volatile LocalDate loadedOn; // bookings before this date have already been dropped
+    private final AvailabilityIndex availability;
+    // Indexes outside the room (e.g. RoomRepository's per-user index)
+    private final List<BookingListener> listeners;
 
     public Room(int roomID, int buildingID, String filepath) throws FileNotFoundException {
         this.roomID = roomID;
         this.buildingID = buildingID;
         this.capacity = 0;
         this.equipmentList = new ArrayList<>();
-        this.bookings = new ArrayList<>();
+        // Rooms are shared between requests by RoomRepository, so the list has to be
+        // safe to iterate while another request adds a booking.
+        this.bookings = new CopyOnWriteArrayList<>();
         this.filepath = filepath;
+        this.loadedOn = LocalDate.now();
+        this.availability = new AvailabilityIndex();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.lastBookingID = new AtomicInteger();
+        this.fileLock = new ReentrantLock();
+        long start = System.nanoTime();
         loadDetails(filepath + roomID + ".txt");
+        StorageMetrics.loaded("Room", start);
     }
 
     private void loadDetails(String path) throws FileNotFoundException {
-        Scanner scanner = new Scanner(new File(path));
+        RecordReader in = RecordReader.of(RecordStores.get().read(path));
 
         // capacity
-        if (scanner.hasNextLine()) {
-            capacity = Integer.parseInt(scanner.nextLine());
+        if (in.nextLine()) {
+            capacity = in.asInt();
         }
 
         // last booking id
-        if (scanner.hasNextLine()) {
-            lastBookingID = Integer.parseInt(scanner.nextLine());
+        if (in.nextLine()) {
+            lastBookingID.set(in.asInt());
         }
 
         // equipment lines until we hit "Bookings" or EOF
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
+        while (in.nextLine()) {
+            String line = in.asString();
             if (line.equals("Bookings")) {
                 break;
             }
@@ -48,32 +67,44 @@ public class Room {
         }
 
         // booking IDs
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine().trim();
-            if (line.isEmpty()) {
+        while (in.nextLine()) {
+            if (in.isBlank()) {
                 continue;
             }
-            int bookingID = Integer.parseInt(line);
+            int bookingID = in.asInt();
+            // Never hand out an ID that is already listed, even if line 2 is stale
+            lastBookingID.accumulateAndGet(bookingID, Math::max);
             Booking booking = new Booking(bookingID, filepath + roomID + "-");
             if (!booking.getDate().isBefore(LocalDate.now())) {
-                bookings.add(booking);
+                track(booking);
             }
         }
-        scanner.close();
+        in.close();
     }
 
-    private void updateDetails() throws FileNotFoundException {
-        PrintWriter writer = new PrintWriter(filepath + roomID + ".txt");
-        writer.println(capacity);
-        writer.println(lastBookingID);
-        for (String e : equipmentList) {
-            writer.println(e);
-        }
-        writer.println("Bookings");
-        for (Booking booking : bookings) {
-            writer.println(booking.getBookingID());
+    // Stores the room as a whole; the record store never leaves a half-written
+    // room (and a stale lastBookingID) behind, see RecordStore.
+    // Writers are serialized; each one writes the latest state it sees, so the
+    // last write always carries the highest allocated ID.
+    private void updateDetails() throws IOException {
+        fileLock.lock();
+        try {
+            StringWriter text = new StringWriter();
+            try (PrintWriter writer = new PrintWriter(text)) {
+                writer.println(capacity);
+                writer.println(lastBookingID.get());
+                for (String e : equipmentList) {
+                    writer.println(e);
+                }
+                writer.println("Bookings");
+                for (Booking booking : bookings) {
+                    writer.println(booking.getBookingID());
+                }
+            }
+            RecordStores.get().write(filepath + roomID + ".txt", text.toString());
+        } finally {
+            fileLock.unlock();
         }
-        writer.close();
     }
 
     // Getters and setters
@@ -84,16 +115,30 @@ public class Room {
     public void setBuilding(int building) { this.buildingID = building; }
 
     public int getCapacity() { return capacity; }
-    public void setCapacity(int capacity) throws FileNotFoundException {
+    public void setCapacity(int capacity) throws IOException {
         this.capacity = capacity;
         updateDetails();
     }
 
     public List<String> getEquipmentList() { return equipmentList; }
 
-    public List<Booking> getBookings() { return bookings; }
+    public List<Booking> getBookings() {
+        dropExpiredBookings();
+        return bookings;
+    }
+
+    // Returns the upcoming booking with the given ID, or null if this room does not hold it.
+    public Booking getBooking(int bookingID) {
+        for (Booking b : bookings) {
+            if (b.getBookingID() == bookingID) {
+                return b;
+            }
+        }
+        return null;
+    }
 
     public List<Booking> getPendingBookings() {
+        dropExpiredBookings();
         List<Booking> pending = new ArrayList<>();
         for (Booking b : bookings) {
             if ("Pending".equals(b.getStatus())) {
@@ -103,12 +148,12 @@ public class Room {
         return pending;
     }
 
-    public void addEquipment(String equipment) throws FileNotFoundException {
+    public void addEquipment(String equipment) throws IOException {
         equipmentList.add(equipment);
         updateDetails();
     }
 
-    public boolean removeEquipment(String equipment) throws FileNotFoundException {
+    public boolean removeEquipment(String equipment) throws IOException {
         boolean removed = equipmentList.remove(equipment);
         if (removed) {
             updateDetails();
@@ -116,35 +161,115 @@ public class Room {
         return removed;
     }
 
-    public boolean makeBooking(LocalDate date,
-                               LocalTime startTime,
-                               LocalTime endTime,
-                               int userID) throws FileNotFoundException {
-        if (!isAvailable(date, startTime, endTime)) {
-            return false;
+    // Returns the new booking's ID, or -1 if the slot clashes with an approved booking.
+    // Holds the room's RoomLocks lock, so the check and the booking are one step for
+    // every caller, not only the handlers that already hold it.
+    public int makeBooking(LocalDate date,
+                           LocalTime startTime,
+                           LocalTime endTime,
+                           int userID) throws IOException {
+        ReentrantLock roomLock = RoomLocks.forRoom(roomID);
+        roomLock.lock();
+        try {
+            if (!isAvailable(date, startTime, endTime)) {
+                return -1;
+            }
+            Booking booking = new Booking(
+                    nextBookingID(),
+                    userID,
+                    roomID,
+                    date,
+                    startTime,
+                    endTime,
+                    filepath + roomID + "-"
+            );
+            track(booking);
+            updateDetails();
+            return booking.getBookingID();
+        } finally {
+            roomLock.unlock();
         }
-        Booking booking = new Booking(
-                ++lastBookingID,
-                userID,
-                roomID,
-                date,
-                startTime,
-                endTime,
-                filepath + roomID + "-"
-        );
+    }
+
+    // Skips IDs whose booking file already exists: that only happens if the process
+    // died after writing a booking but before the room file recorded its ID.
+    private int nextBookingID() {
+        int id = lastBookingID.incrementAndGet();
+        while (Booking.exists(filepath + roomID + "-", id)) {
+            id = lastBookingID.incrementAndGet();
+        }
+        return id;
+    }
+
+    public int getLastBookingID() {
+        return lastBookingID.get();
+    }
+
+    private void track(Booking booking) {
         bookings.add(booking);
-        updateDetails();
-        return true;
+        availability.add(booking);
+        booking.setListener((b, oldStatus) -> {
+            availability.update(b);
+            for (BookingListener listener : listeners) {
+                listener.statusChanged(b, oldStatus);
+            }
+        });
+        for (BookingListener listener : listeners) {
+            listener.bookingAdded(booking);
+        }
     }
 
-    public boolean isAvailable(LocalDate date, LocalTime startTime, LocalTime endTime) {
+    // Registers a listener and reports the bookings the room already holds to it.
+    void addListener(BookingListener listener) {
+        listeners.add(listener);
         for (Booking booking : bookings) {
-            if (booking.getDate().equals(date) && booking.isApproved()) {
-                if (booking.isClashing(date, startTime, endTime)) {
-                    return false;
+            listener.bookingAdded(booking);
+        }
+    }
+
+    // A resident room outlives the day it was loaded on; drop bookings that have
+    // become past so listings match what a fresh loadDetails() would return.
+    // Under the room's lock, so it cannot interleave with a booking being added
+    // or with another reader dropping the same bookings (and reporting them to
+    // the listeners twice). loadedOn is checked again once the lock is held.
+    private void dropExpiredBookings() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(loadedOn)) {
+            return;
+        }
+        ReentrantLock roomLock = RoomLocks.forRoom(roomID);
+        roomLock.lock();
+        try {
+            if (today.equals(loadedOn)) {
+                return;
+            }
+            List<Booking> expired = new ArrayList<>();
+            for (Booking b : bookings) {
+                if (b.getDate().isBefore(today)) {
+                    expired.add(b);
                 }
             }
+            bookings.removeAll(expired);
+            availability.dropBefore(today);
+            for (Booking b : expired) {
+                for (BookingListener listener : listeners) {
+                    listener.bookingRemoved(b);
+                }
+            }
+            loadedOn = today;
+        } finally {
+            roomLock.unlock();
         }
-        return true;
+    }
+
+    // Only approved bookings block a slot; answered from the per-date index.
+    public boolean isAvailable(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return availability.isFree(date, startTime, endTime);
+    }
+
+    // Free ranges on the given date between 'from' and 'to', ignoring pending bookings.
+    // A 'to' of LocalTime.MAX means the end of the day.
+    public List<AvailabilityIndex.Slot> getFreeSlots(LocalDate date, LocalTime from, LocalTime to) {
+        return availability.freeSlots(date, from, to);
     }
 }
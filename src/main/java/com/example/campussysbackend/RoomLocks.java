@@ -0,0 +1,34 @@
+package com.example.campussysbackend;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// One lock per room ID for the check-then-act sections of /bookroom,
+// /cancelbooking and /approverejectbooking.
+//
+// Requests on the same room are serialized; requests on different rooms never
+// share a lock (unlike a fixed stripe array, two busy rooms cannot collide).
+// The map only grows with the number of rooms, which RoomRepository keeps
+// resident anyway. ReentrantLock is used instead of synchronized because the
+// guarded sections do file I/O.
+//
+// Usage:
+//   ReentrantLock lock = RoomLocks.forRoom(roomId);
+//   lock.lock();
+//   try { ... } finally { lock.unlock(); }
+
+public final class RoomLocks {
+
+    private static final ConcurrentHashMap<Integer, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private RoomLocks() {
+    }
+
+    public static ReentrantLock forRoom(int roomID) {
+        ReentrantLock lock = LOCKS.get(roomID);
+        if (lock != null) {
+            return lock;
+        }
+        return LOCKS.computeIfAbsent(roomID, id -> new ReentrantLock());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.campussysbackend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Resident store of Room objects.
+// Each room file (and its booking files) is read from disk once, the first time
+// the room is asked for. After that every request shares the same Room instance,
+// and all changes still go through Room/Booking, which write through to disk.
+//
+// Rooms are grouped by their file prefix, e.g. "data/rooms/" or "data/map/1-",
+// because the same room ID can exist under different layouts. Each prefix also
+// has a UserBookingIndex that every room under it reports its bookings to.
+
+public final class RoomRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomRepository.class);
+
+    private static final ConcurrentHashMap<String, ConcurrentSkipListMap<Integer, Room>> ROOMS =
+            new ConcurrentHashMap<>();
+
+    private static final ConcurrentHashMap<String, UserBookingIndex> USER_INDEXES =
+            new ConcurrentHashMap<>();
+
+    // Prefixes whose directory has already been listed by getRooms(...)
+    private static final Set<String> SCANNED = ConcurrentHashMap.newKeySet();
+
+    private RoomRepository() {
+    }
+
+    /* -------------------------------------------------------------------------
+     * Lookups
+     * ---------------------------------------------------------------------- */
+
+    // Returns the resident room, loading it from <filepath><roomID>.txt on first use.
+    public static Room getRoom(int roomID, int buildingID, String filepath) throws FileNotFoundException {
+        ConcurrentSkipListMap<Integer, Room> rooms = roomsFor(filepath);
+        Room room = rooms.get(roomID);
+        if (room != null) {
+            return room;
+        }
+
+        // Load under the room's lock so only one Room instance (and one set of
+        // index entries) is ever created per room.
+        ReentrantLock lock = RoomLocks.forRoom(roomID);
+        lock.lock();
+        try {
+            room = rooms.get(roomID);
+            if (room == null) {
+                room = new Room(roomID, buildingID, filepath);
+                room.addListener(userIndexFor(filepath));
+                rooms.put(roomID, room);
+            }
+            return room;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // For prefixes whose file layout has no building in it (data/rooms/). The
+    // building is only carried on the Room, and every handler working on such a
+    // prefix loads rooms with building 1, so this always finds the same resident
+    // Room they do.
+    public static Room getRoom(int roomID, String filepath) throws FileNotFoundException {
+        return getRoom(roomID, 1, filepath);
+    }
+
+    // Same as getRoom(...), but writes a default room file first if the room does not exist yet.
+    public static Room getOrCreateRoom(int roomID, int buildingID, String filepath) throws FileNotFoundException {
+        Room room = roomsFor(filepath).get(roomID);
+        if (room != null) {
+            return room;
+        }
+
+        String roomPath = filepath + roomID + ".txt";
+        RecordStore store = RecordStores.get();
+        if (!store.exists(roomPath)) {
+            // Default room file layout (capacity, lastBookingID, then "Bookings" section)
+            StringWriter text = new StringWriter();
+            try (PrintWriter writer = new PrintWriter(text)) {
+                writer.println("50");     // capacity (default)
+                writer.println("0");      // lastBookingID
+                writer.println("Bookings");
+            }
+            store.write(roomPath, text.toString());
+        }
+        return getRoom(roomID, buildingID, filepath);
+    }
+
+    // All rooms stored under the given prefix, ordered by room ID.
+    // The directory is only listed the first time; rooms created later through
+    // getOrCreateRoom(...) are picked up because they land in the same map.
+    public static Collection<Room> getRooms(String filepath) {
+        ConcurrentSkipListMap<Integer, Room> rooms = roomsFor(filepath);
+        if (SCANNED.contains(filepath)) {
+            return Collections.unmodifiableCollection(rooms.values());
+        }
+
+        // Room metadata files look like: <roomId>.txt (no dash)
+        for (String fileName : RecordStores.get().list(filepath)) { // e.g. "3300.txt"
+            if (!fileName.endsWith(".txt") || fileName.contains("-")) continue;
+
+            int roomID;
+            try {
+                roomID = Integer.parseInt(fileName.substring(0, fileName.length() - 4));
+            } catch (NumberFormatException ex) {
+                // Skip any unexpected file names
+                continue;
+            }
+
+            try {
+                getRoom(roomID, filepath);
+            } catch (FileNotFoundException e) {
+                // If a room file disappears between listing and reading, skip it
+                log.warn("Room {} disappeared while listing {}", roomID, filepath, e);
+            }
+        }
+        SCANNED.add(filepath);
+        return Collections.unmodifiableCollection(rooms.values());
+    }
+
+    // The given user's upcoming bookings in every room under the prefix,
+    // ordered by room ID then booking ID.
+    public static Collection<Booking> getUserBookings(String filepath, int userID) {
+        return getUserBookings(filepath, userID, Clock.systemDefaultZone());
+    }
+
+    static Collection<Booking> getUserBookings(String filepath, int userID, Clock clock) {
+        getRooms(filepath); // make sure every room has reported its bookings
+        return userIndexFor(filepath).getBookings(userID, LocalDate.now(clock));
+    }
+
+    // Drops every resident room so the next lookup reloads from disk.
+    static void clear() {
+        ROOMS.clear();
+        USER_INDEXES.clear();
+        SCANNED.clear();
+    }
+
+    private static UserBookingIndex userIndexFor(String filepath) {
+        return USER_INDEXES.computeIfAbsent(filepath, p -> new UserBookingIndex());
+    }
+
+    private static ConcurrentSkipListMap<Integer, Room> roomsFor(String filepath) {
+        return ROOMS.computeIfAbsent(filepath, p -> new ConcurrentSkipListMap<>());
+    }
+}
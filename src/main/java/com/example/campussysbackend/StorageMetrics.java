@@ -0,0 +1,118 @@
+package com.example.campussysbackend;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Meters for the storage layer and for loading the domain objects.
+//
+// The domain classes are not Spring beans, so the meters live in Micrometer's
+// global registry. Spring Boot adds its own registry (and with it the
+// Prometheus one) to the global registry, see management.metrics.use-global-registry,
+// so everything here is served at /actuator/prometheus next to the per-endpoint
+// http_server_requests_seconds histograms.
+//
+//   campussys.storage.operations{engine,op}   timer per RecordStore call
+//   campussys.storage.bytes{direction}        record bytes read / written
+//   campussys.files.opened                    files opened by FileRecordStore and RecordReader
+//   campussys.entity.load{entity}             Room (with its bookings), Event (with its
+//                                             feedback), Booking, Feedback, MaintenanceRequest
+//   campussys.wal.commit                      one fsync'd group commit
+//   campussys.wal.batch.size                  records per group commit
+
+public final class StorageMetrics {
+
+    private static final MeterRegistry REGISTRY = Metrics.globalRegistry;
+
+    private static final Counter BYTES_READ = bytes("read");
+    private static final Counter BYTES_WRITTEN = bytes("written");
+    private static final Counter FILES_OPENED = Counter.builder("campussys.files.opened")
+            .description("Files opened for reading or writing records")
+            .register(REGISTRY);
+    private static final Timer WAL_COMMIT = Timer.builder("campussys.wal.commit")
+            .description("Writing and syncing one WAL group commit")
+            .publishPercentileHistogram()
+            .register(REGISTRY);
+    private static final DistributionSummary WAL_BATCH = DistributionSummary.builder("campussys.wal.batch.size")
+            .description("Records per WAL group commit")
+            .baseUnit("records")
+            .register(REGISTRY);
+
+    private static final ConcurrentHashMap<String, Timer> OPERATIONS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Timer> LOADS = new ConcurrentHashMap<>();
+
+    private StorageMetrics() {
+    }
+
+    // The timer for one kind of RecordStore call, e.g. ("wal", "read").
+    static Timer operation(String engine, String op) {
+        return OPERATIONS.computeIfAbsent(engine + "/" + op, k -> Timer.builder("campussys.storage.operations")
+                .description("RecordStore calls")
+                .tags("engine", engine, "op", op)
+                .publishPercentileHistogram()
+                .register(REGISTRY));
+    }
+
+    // Records the time since 'startNanos' (from System.nanoTime()) as one load of the entity.
+    public static void loaded(String entity, long startNanos) {
+        LOADS.computeIfAbsent(entity, e -> Timer.builder("campussys.entity.load")
+                        .description("Loading one object from storage")
+                        .tags("entity", e)
+                        .publishPercentileHistogram()
+                        .register(REGISTRY))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void fileOpened() {
+        FILES_OPENED.increment();
+    }
+
+    static void bytesRead(String text) {
+        BYTES_READ.increment(utf8Length(text));
+    }
+
+    static void bytesRead(long bytes) {
+        BYTES_READ.increment(bytes);
+    }
+
+    static void bytesWritten(String text) {
+        BYTES_WRITTEN.increment(utf8Length(text));
+    }
+
+    static void walCommit(int records, long nanos) {
+        WAL_BATCH.record(records);
+        WAL_COMMIT.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Counter bytes(String direction) {
+        return Counter.builder("campussys.storage.bytes")
+                .description("Record bytes read from or written to storage")
+                .baseUnit("bytes")
+                .tags("direction", direction)
+                .register(REGISTRY);
+    }
+
+    // Without encoding the text; records are almost all ASCII, so this is one pass.
+    private static long utf8Length(String text) {
+        long bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c)) {
+                    bytes += 2; // with its low surrogate: 4 bytes for 2 chars
+                    i++;
+                } else {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -149,10 +149,10 @@ public class Student extends User {
         String[] out = new String[6];
         File file = new File(filepath.endsWith(".txt") ? filepath : filepath + ".txt");
 
-        try (Scanner scanner = new Scanner(file)) {
+        try (RecordReader in = RecordReader.open(file)) {
             int i = 0;
-            while (i < out.length && scanner.hasNextLine()) {
-                out[i++] = scanner.nextLine();
+            while (i < out.length && in.nextLine()) {
+                out[i++] = in.asString();
             }
         }
         return out;
@@ -212,8 +212,8 @@ public class Student extends User {
             throw new IllegalStateException("Only club leaders can schedule events");
         }
 
-        File idsFile = new File(eventsPath + "eventIDs.txt");
-        int eventId = getNextEventId(idsFile);
+        IdSequence eventIds = IdSequence.forIdsFile(eventsPath + "eventIDs.txt");
+        int eventId = eventIds.next();
 
         Event event = new Event(
                 eventId,
@@ -227,7 +227,7 @@ public class Student extends User {
                 eventsPath
         );
 
-        appendEventId(idsFile, eventId);
+        eventIds.record(eventId);
 
         if (createdEvents == null) {
             createdEvents = new ArrayList<>();
@@ -247,8 +247,8 @@ public class Student extends User {
             return;
         }
 
-        File idsFile = new File(EVENTS_IDS_FILE);
-        int eventId = getNextEventId(idsFile);
+        IdSequence eventIds = IdSequence.forIdsFile(EVENTS_IDS_FILE);
+        int eventId = eventIds.next();
 
         // Event(int id, ...) uses its default base (data/events/)
         Event event = new Event(
@@ -262,7 +262,7 @@ public class Student extends User {
                 endTime
         );
 
-        appendEventId(idsFile, eventId);
+        eventIds.record(eventId);
 
         if (createdEvents == null) {
             createdEvents = new ArrayList<>();
@@ -270,37 +270,10 @@ public class Student extends User {
         createdEvents.add(event);
     }
 
-    private int getNextEventId(File idsFile) throws FileNotFoundException {
-        int lastId = 0;
-        if (idsFile.exists()) {
-            try (Scanner scanner = new Scanner(idsFile)) {
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    if (!line.isEmpty()) {
-                        lastId = Integer.parseInt(line);
-                    }
-                }
-            }
-        }
-        return lastId + 1;
-    }
-
-    private void appendEventId(File idsFile, int eventId) throws IOException {
-        File parent = idsFile.getParentFile();
-        if (parent != null && !parent.exists()) {
-            parent.mkdirs();
-        }
-
-        try (PrintWriter writer = new PrintWriter(new FileWriter(idsFile, true))) {
-            writer.println(eventId);
-        }
-    }
-
     private void loadCreatedEventsSafe() {
         if (!isClubLeader) return;
 
-        File idsFile = new File(EVENTS_IDS_FILE);
-        if (!idsFile.exists()) {
+        if (!RecordStores.get().exists(EVENTS_IDS_FILE)) {
             return;
         }
 
@@ -308,12 +281,11 @@ public class Student extends User {
             createdEvents = new ArrayList<>();
         }
 
-        try (Scanner idScanner = new Scanner(idsFile)) {
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(EVENTS_IDS_FILE))) {
             ArrayList<Integer> eventIDs = new ArrayList<>();
-            while (idScanner.hasNextLine()) {
-                String line = idScanner.nextLine().trim();
-                if (!line.isEmpty()) {
-                    eventIDs.add(Integer.parseInt(line));
+            while (in.nextLine()) {
+                if (!in.isBlank()) {
+                    eventIDs.add(in.asInt());
                 }
             }
 
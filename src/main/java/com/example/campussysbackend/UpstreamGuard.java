@@ -0,0 +1,149 @@
+package com.example.campussysbackend;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Protects the backend from a slow or failing LLM upstream. Every call goes
+// through:
+//
+//   circuit breaker  fails fast while the upstream is failing (see CircuitBreaker)
+//   bulkhead         at most 'maxConcurrent' calls in flight; more are refused, not queued
+//   timeout          a call is abandoned after 'timeout'; a stream when no chunk
+//                    arrived for 'streamIdleTimeout'
+//
+// call() also coalesces identical questions: while one is in flight, the same
+// key joins it instead of making a second call, and every caller gets its result.
+//
+// Refused calls fail with Rejected, and the caller answers with its fallback.
+// Meters, in the global registry:
+//   campussys.chatbot.upstream.state        0 closed, 1 open, 2 half-open
+//   campussys.chatbot.upstream.in.flight    calls holding a bulkhead permit
+//   campussys.chatbot.upstream.rejected     {reason=open|full}
+//   campussys.chatbot.upstream.coalesced    callers that joined a call in flight
+
+final class UpstreamGuard {
+
+    // A call refused without reaching the upstream; no stack trace, these are expected under load
+    static final class Rejected extends RuntimeException {
+        Rejected(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final Duration streamIdleTimeout;
+    private final CircuitBreaker breaker;
+    private final ConcurrentHashMap<Object, Mono<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter rejectedOpen;
+    private final Counter rejectedFull;
+    private final Counter coalesced;
+
+    UpstreamGuard(int maxConcurrent, Duration timeout, Duration streamIdleTimeout, CircuitBreaker breaker) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+        this.streamIdleTimeout = streamIdleTimeout;
+        this.breaker = breaker;
+
+        MeterRegistry registry = Metrics.globalRegistry;
+        Gauge.builder("campussys.chatbot.upstream.state", breaker, b -> b.state().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+        Gauge.builder("campussys.chatbot.upstream.in.flight", this, g -> g.maxConcurrent - g.permits.availablePermits())
+                .description("LLM calls in flight")
+                .register(registry);
+        this.rejectedOpen = rejected(registry, "open");
+        this.rejectedFull = rejected(registry, "full");
+        this.coalesced = Counter.builder("campussys.chatbot.upstream.coalesced")
+                .description("Callers that joined an identical LLM call already in flight")
+                .register(registry);
+    }
+
+    // The upstream's answer for 'key', shared with any identical call already in flight.
+    Mono<String> call(Object key, Supplier<Mono<String>> upstream) {
+        Mono<String> shared = inFlight.get(key);
+        if (shared != null) {
+            coalesced.increment();
+            return shared;
+        }
+        // Only the entry for a call in flight is ever removed: a new one can only be
+        // put once this one is gone
+        Mono<String> created = guarded(upstream)
+                .doFinally(signal -> inFlight.remove(key))
+                .cache();
+        shared = inFlight.putIfAbsent(key, created);
+        if (shared != null) {
+            coalesced.increment();
+            return shared;
+        }
+        return created;
+    }
+
+    // The upstream's chunks, under the same breaker and bulkhead; streams are not coalesced.
+    Flux<String> stream(Supplier<Flux<String>> upstream) {
+        return Flux.defer(() -> {
+            Rejected rejected = acquire();
+            if (rejected != null) {
+                return Flux.error(rejected);
+            }
+            return Flux.defer(upstream)
+                    .timeout(streamIdleTimeout)
+                    .doOnComplete(breaker::onSuccess)
+                    .doOnError(e -> breaker.onError())
+                    .doOnCancel(breaker::releasePermission)
+                    .doFinally(signal -> permits.release());
+        });
+    }
+
+    CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    private Mono<String> guarded(Supplier<Mono<String>> upstream) {
+        return Mono.defer(() -> {
+            Rejected rejected = acquire();
+            if (rejected != null) {
+                return Mono.error(rejected);
+            }
+            return Mono.defer(upstream)
+                    .timeout(timeout)
+                    .doOnSuccess(answer -> breaker.onSuccess())
+                    .doOnError(e -> breaker.onError())
+                    .doOnCancel(breaker::releasePermission)
+                    .doFinally(signal -> permits.release());
+        });
+    }
+
+    // Takes a breaker permission and a bulkhead permit, or returns why not.
+    private Rejected acquire() {
+        if (!breaker.tryAcquirePermission()) {
+            rejectedOpen.increment();
+            return new Rejected("LLM upstream circuit is open");
+        }
+        if (!permits.tryAcquire()) {
+            breaker.releasePermission();
+            rejectedFull.increment();
+            return new Rejected("Too many LLM calls in flight (" + maxConcurrent + ")");
+        }
+        return null;
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("campussys.chatbot.upstream.rejected")
+                .description("LLM calls refused without reaching the upstream")
+                .tags("reason", reason)
+                .register(registry);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.campussysbackend;
 import java.io.*;
 import java.util.*;
 import java.time.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class User {
     protected int userID;
@@ -51,25 +52,29 @@ public abstract class User {
      * ---------------------------------------------------------------------- */
 
     private void loadRequestsSafe() {
-        File idsFile = new File(REQUESTS_IDS_FILE);
-        if (!idsFile.exists()) {
+        if (!RecordStores.get().exists(REQUESTS_IDS_FILE)) {
             return;
         }
 
-        try (Scanner idScanner = new Scanner(idsFile)) {
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(REQUESTS_IDS_FILE))) {
             ArrayList<Integer> requestIDs = new ArrayList<>();
-            while (idScanner.hasNextInt()) {
-                requestIDs.add(idScanner.nextInt());
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                try {
+                    requestIDs.add(in.asInt());
+                } catch (NumberFormatException e) {
+                    break; // the list ends at the first non-number
+                }
             }
 
             for (int reqId : requestIDs) {
                 // Each request file: data/requests/<id>.txt
-                File requestFile = new File(REQUESTS_BASE_PATH + reqId + ".txt");
-                if (!requestFile.exists()) {
+                String requestPath = REQUESTS_BASE_PATH + reqId + ".txt";
+                if (!RecordStores.get().exists(requestPath)) {
                     continue;
                 }
                 MaintenanceRequest newRequest =
-                        new MaintenanceRequest(reqId, requestFile.getPath());
+                        new MaintenanceRequest(reqId, requestPath);
                 // Fix bug from "new" version: compare to userID, not request ID
                 if (newRequest.getUserID() == this.userID) {
                     requests.add(newRequest);
@@ -81,17 +86,15 @@ public abstract class User {
     }
 
     private void loadEventsSafe() {
-        File idsFile = new File(EVENTS_IDS_FILE);
-        if (!idsFile.exists()) {
+        if (!RecordStores.get().exists(EVENTS_IDS_FILE)) {
             return;
         }
 
-        try (Scanner idScanner = new Scanner(idsFile)) {
+        try (RecordReader in = RecordReader.of(RecordStores.get().read(EVENTS_IDS_FILE))) {
             ArrayList<Integer> eventIDs = new ArrayList<>();
-            while (idScanner.hasNextLine()) {
-                String line = idScanner.nextLine().trim();
-                if (line.isEmpty()) continue;
-                eventIDs.add(Integer.parseInt(line));
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
+                eventIDs.add(in.asInt());
             }
 
             for (int eventId : eventIDs) {
@@ -112,14 +115,20 @@ public abstract class User {
                                         LocalDate date,
                                         LocalTime startTime,
                                         LocalTime endTime) throws IOException {
-        Room room = new Room(roomID, buildingID, ROOMS_BASE_PATH + buildingID + "-");
-        return room.makeBooking(date, startTime, endTime, userID);
+        Room room = RoomRepository.getRoom(roomID, buildingID, ROOMS_BASE_PATH + buildingID + "-");
+        return room.makeBooking(date, startTime, endTime, userID) > 0;
     }
 
     // Old signature (explicit eventsPath) – kept for compatibility
     public void registerForEvent(int eventID, String eventsPath) throws FileNotFoundException {
-        Event event = new Event(eventID, eventsPath);
-        event.registerUser(userID);
+        ReentrantLock lock = EventLocks.forEvent(eventID);
+        lock.lock();
+        try {
+            Event event = new Event(eventID, eventsPath);
+            event.registerUser(userID);
+        } finally {
+            lock.unlock();
+        }
     }
 
     // New signature (no path) – uses data/events/ under the hood
@@ -199,24 +208,23 @@ public abstract class User {
     public boolean loadNewNotifications(String filepath) throws FileNotFoundException {
         boolean found = false;
 
-        try (Scanner scanner = new Scanner(new File(filepath))) {
+        try (RecordReader in = RecordReader.open(new File(filepath))) {
             int id;
             int priority;
             String message;
             LocalDateTime time;
 
             // First line: last read ID (ignored here, same as old code)
-            if (scanner.hasNextLine()) {
-                scanner.nextLine();
-            }
+            in.nextLine();
 
-            while (scanner.hasNext()) {
+            while (in.nextLine()) {
+                if (in.isBlank()) continue;
                 found = true;
-                id = scanner.nextInt();
-                priority = scanner.nextInt();
-                message = scanner.nextLine(); // rest of line
-                if (!scanner.hasNextLine()) break;
-                time = LocalDateTime.parse(scanner.nextLine());
+                id = in.nextInt();
+                priority = in.nextInt();
+                message = in.rest(); // rest of line
+                if (!in.nextLine()) break;
+                time = in.asDateTime();
                 notifications.add(new Notification(id, userID, message, priority, time));
             }
         }
@@ -0,0 +1,58 @@
+package com.example.campussysbackend;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Secondary index userId -> bookings, for the rooms of one file prefix.
+//
+// Rooms report every booking they load or create (Room.makeBooking) and every
+// booking they drop, so a user's bookings can be listed without looking at any
+// other user's. Entries are the rooms' own Booking objects, so a status change
+// through Booking.setStatus is visible here as soon as it is written.
+//
+// Each user's bookings are ordered by room ID, then booking ID.
+
+class UserBookingIndex implements BookingListener {
+
+    private static final Comparator<Booking> ORDER =
+            Comparator.comparingInt(Booking::getRoomID).thenComparingInt(Booking::getBookingID);
+
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<Booking>> byUser = new ConcurrentHashMap<>();
+
+    // The user's bookings dated today or later. A room only drops its past bookings
+    // (and reports them removed) when it is next read, so the index can still hold
+    // some after the date rolls over.
+    Collection<Booking> getBookings(int userID, LocalDate today) {
+        ConcurrentSkipListSet<Booking> bookings = byUser.get(userID);
+        if (bookings == null) {
+            return Collections.emptySet();
+        }
+        List<Booking> upcoming = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            if (!booking.getDate().isBefore(today)) {
+                upcoming.add(booking);
+            }
+        }
+        return upcoming;
+    }
+
+    @Override
+    public void bookingAdded(Booking booking) {
+        byUser.computeIfAbsent(booking.getUserID(), id -> new ConcurrentSkipListSet<>(ORDER))
+                .add(booking);
+    }
+
+    @Override
+    public void bookingRemoved(Booking booking) {
+        ConcurrentSkipListSet<Booking> bookings = byUser.get(booking.getUserID());
+        if (bookings != null) {
+            bookings.remove(booking);
+        }
+    }
+
+    @Override
+    public void statusChanged(Booking booking, String oldStatus) {
+        // Nothing to move: the index is keyed by user, and the entry is the booking itself.
+    }
+}
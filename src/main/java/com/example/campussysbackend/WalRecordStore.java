@@ -0,0 +1,561 @@
+package com.example.campussysbackend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+// Record store backed by an append-only, segmented write-ahead log.
+//
+// The current text of every record is kept in memory. A write appends one
+// mutation to the log and returns once it is on disk; no per-record file is
+// created or truncated. Layout of the WAL directory:
+//
+//   wal-<n>.log         log segments, appended in order; a new one is started
+//                       once the current one reaches segmentBytes
+//   snapshot-<n>.snap   every record as of the start of segment n
+//
+// Group commit: writers hand their mutation to a single committer thread and
+// wait. The committer takes everything queued at that moment, appends it with
+// one write, syncs once and then wakes all of those writers, so concurrent
+// writers share one fsync.
+//
+// Snapshots and compaction: once snapshotBytes of log have been written since
+// the last snapshot, the committer starts a new segment, writes all records to
+// a new snapshot and deletes the older snapshot and every segment it covers.
+//
+// Recovery: the newest snapshot is loaded and the segments after it replayed.
+// A torn or corrupt record at the end of a segment (a crash mid-append) is cut
+// off; the writer of that record was never told it succeeded.
+//
+// Records that were written as plain files before the WAL was turned on are
+// still read from their files until they are next written or deleted.
+//
+// Frame format, for log and snapshot alike:
+//   int length, int crc32(payload), payload =
+//   byte op, int keyLength, key (UTF-8), int valueLength, value (UTF-8)
+// An append is logged with only the appended text as its value; snapshots hold
+// whole records, so they never contain one.
+
+public final class WalRecordStore implements RecordStore, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WalRecordStore.class);
+
+    static final long DEFAULT_SEGMENT_BYTES = 16L << 20;
+    static final long DEFAULT_SNAPSHOT_BYTES = 64L << 20;
+
+    private static final int MAX_BATCH = 1024;
+    private static final int HEADER_BYTES = 8;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte APPEND = 4;
+    private static final byte SNAPSHOT = 3; // queue marker only, never written to the log
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path dir;
+    private final Path workingDir = Paths.get("").toAbsolutePath();
+    private final long segmentBytes;
+    private final long snapshotBytes;
+
+    private final ConcurrentSkipListMap<String, String> records = new ConcurrentSkipListMap<>();
+    private final LinkedBlockingQueue<Mutation> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean closed;
+
+    // Only used by the committer thread once open(...) has returned
+    private FileChannel segment;
+    private long segmentNo;
+    private long segmentSize;
+    private long bytesSinceSnapshot;
+
+    private WalRecordStore(Path dir, long segmentBytes, long snapshotBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.snapshotBytes = snapshotBytes;
+        this.committer = new Thread(this::runCommitter, "wal-committer");
+        this.committer.setDaemon(true);
+    }
+
+    public static WalRecordStore open(String dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_BYTES, DEFAULT_SNAPSHOT_BYTES);
+    }
+
+    static WalRecordStore open(String dir, long segmentBytes, long snapshotBytes) throws IOException {
+        WalRecordStore store = new WalRecordStore(Paths.get(dir).toAbsolutePath().normalize(),
+                segmentBytes, snapshotBytes);
+        store.recover();
+        store.committer.start();
+        return store;
+    }
+
+    /* -------------------------------------------------------------------------
+     * RecordStore
+     * ---------------------------------------------------------------------- */
+
+    @Override
+    public String read(String path) throws FileNotFoundException {
+        String value = records.get(key(path));
+        if (value != null) {
+            return value;
+        }
+        // Not written since the WAL was turned on: the original file, if any
+        File legacy = new File(path);
+        if (!legacy.isFile()) {
+            throw new FileNotFoundException(path);
+        }
+        try {
+            return Files.readString(legacy.toPath(), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(String path, String contents) {
+        submit(new Mutation(PUT, key(path), contents));
+    }
+
+    @Override
+    public void append(String path, String text) {
+        submit(new Mutation(APPEND, key(path), text));
+    }
+
+    @Override
+    public void delete(String path) {
+        submit(new Mutation(DELETE, key(path), ""));
+        // So the original file cannot show through again
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return records.containsKey(key(path)) || new File(path).isFile();
+    }
+
+    @Override
+    public List<String> list(String dirPath) {
+        String prefix = key(dirPath) + File.separator;
+        Set<String> names = new TreeSet<>();
+        for (String key : records.subMap(prefix, prefix + Character.MAX_VALUE).keySet()) {
+            String name = key.substring(prefix.length());
+            if (!name.contains(File.separator)) {
+                names.add(name);
+            }
+        }
+        String[] legacy = new File(dirPath).list((d, name) -> !name.endsWith(".tmp") && new File(d, name).isFile());
+        if (legacy != null) {
+            names.addAll(Arrays.asList(legacy));
+        }
+        return new ArrayList<>(names);
+    }
+
+    /* -------------------------------------------------------------------------
+     * Snapshots and shutdown
+     * ---------------------------------------------------------------------- */
+
+    // Writes a snapshot now and drops the log it covers.
+    public void snapshot() {
+        submit(new Mutation(SNAPSHOT, "", ""));
+    }
+
+    // Waits for queued writes, then stops the committer. Later writes fail.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything that slipped in after the committer stopped
+        List<Mutation> left = new ArrayList<>();
+        queue.drainTo(left);
+        fail(left, new IllegalStateException("WAL is closed"));
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close the WAL segment", e);
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Group commit
+     * ---------------------------------------------------------------------- */
+
+    private void submit(Mutation mutation) {
+        if (closed) {
+            throw new IllegalStateException("WAL is closed");
+        }
+        queue.add(mutation);
+        while (true) {
+            try {
+                mutation.done.get(1, TimeUnit.SECONDS);
+                return;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                // Added while close() was finishing: nobody will commit it any more
+                if (closed && !committer.isAlive() && queue.remove(mutation)) {
+                    throw new IllegalStateException("WAL is closed");
+                }
+            } catch (InterruptedException e) {
+                // The mutation may already be on disk, so keep waiting for the outcome
+                Thread.currentThread().interrupt();
+                try {
+                    mutation.done.join();
+                    return;
+                } catch (CompletionException ce) {
+                    if (ce.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ce.getCause();
+                    }
+                    throw ce;
+                }
+            }
+        }
+    }
+
+    private void runCommitter() {
+        List<Mutation> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Mutation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                // Only close() stops the committer
+            } catch (RuntimeException e) {
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Mutation> batch) {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        boolean snapshotRequested = false;
+        for (Mutation m : batch) {
+            if (m.op == SNAPSHOT) {
+                snapshotRequested = true;
+            } else {
+                writeFrame(frames, m.op, m.key, m.value);
+            }
+        }
+
+        try {
+            if (frames.size() > 0) {
+                long start = System.nanoTime();
+                if (segmentSize >= segmentBytes) {
+                    rollSegment();
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(frames.toByteArray());
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+                segment.force(false);
+                segmentSize += frames.size();
+                bytesSinceSnapshot += frames.size();
+                StorageMetrics.walCommit(batch.size(), System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            fail(batch, new UncheckedIOException(e));
+            return;
+        }
+
+        // Durable: make it visible and release the writers
+        for (Mutation m : batch) {
+            if (m.op != SNAPSHOT) {
+                apply(m.op, m.key, m.value);
+                m.done.complete(null);
+            }
+        }
+
+        if (snapshotRequested || bytesSinceSnapshot >= snapshotBytes) {
+            try {
+                writeSnapshot();
+                for (Mutation m : batch) {
+                    if (m.op == SNAPSHOT) m.done.complete(null);
+                }
+            } catch (IOException e) {
+                // The log is still complete, so only the snapshot is lost
+                log.error("WAL snapshot failed", e);
+                for (Mutation m : batch) {
+                    if (m.op == SNAPSHOT) m.done.completeExceptionally(new UncheckedIOException(e));
+                }
+            }
+        }
+    }
+
+    private static void fail(List<Mutation> batch, RuntimeException e) {
+        for (Mutation m : batch) {
+            m.done.completeExceptionally(e);
+        }
+    }
+
+    private void apply(byte op, String key, String value) {
+        if (op == PUT) {
+            records.put(key, value);
+        } else if (op == DELETE) {
+            records.remove(key);
+        } else if (op == APPEND) {
+            records.compute(key, (k, old) -> (old != null ? old : legacyText(k)) + value);
+        }
+    }
+
+    // The original file of a record the WAL does not hold yet, or "" if there is none.
+    private String legacyText(String key) {
+        Path file = workingDir.resolve(key);
+        try {
+            return Files.isRegularFile(file) ? Files.readString(file, StandardCharsets.UTF_8) : "";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Segments and snapshots
+     * ---------------------------------------------------------------------- */
+
+    private void rollSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        segmentNo++;
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        segment = FileChannel.open(segmentPath(segmentNo),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = segment.size();
+    }
+
+    // Called on the committer thread, so no record changes while it runs.
+    private void writeSnapshot() throws IOException {
+        // Everything so far is in segments before this new one
+        rollSegment();
+        long covered = segmentNo;
+
+        Path target = snapshotPath(covered);
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+            for (Map.Entry<String, String> e : records.entrySet()) {
+                writeFrame(chunk, PUT, e.getKey(), e.getValue());
+                if (chunk.size() >= (1 << 20)) {
+                    writeFully(out, chunk);
+                }
+            }
+            writeFully(out, chunk);
+            out.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        // Compaction: the snapshot replaces every older snapshot and segment
+        for (long n : numbered(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (n < covered) Files.deleteIfExists(snapshotPath(n));
+        }
+        for (long n : numbered(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (n < covered) Files.deleteIfExists(segmentPath(n));
+        }
+        bytesSinceSnapshot = 0;
+    }
+
+    private static void writeFully(FileChannel out, ByteArrayOutputStream chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.toByteArray());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        chunk.reset();
+    }
+
+    // Makes the snapshot rename durable; not every platform can open a directory
+    private void syncDirectory() {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    /* -------------------------------------------------------------------------
+     * Recovery
+     * ---------------------------------------------------------------------- */
+
+    private void recover() throws IOException {
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> partial = Files.newDirectoryStream(dir, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX + ".tmp")) {
+            for (Path file : partial) {
+                Files.deleteIfExists(file); // snapshot interrupted by a crash
+            }
+        }
+
+        long covered = 0;
+        List<Long> snapshots = numbered(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            covered = snapshots.get(snapshots.size() - 1);
+            Path snapshot = snapshotPath(covered);
+            byte[] bytes = Files.readAllBytes(snapshot);
+            if (replay(bytes) != bytes.length) {
+                // Snapshots are synced before they are renamed into place
+                throw new IOException("Corrupt WAL snapshot: " + snapshot);
+            }
+        }
+
+        long last = covered;
+        for (long n : numbered(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (n < covered) {
+                // Left over from a compaction that did not finish
+                Files.deleteIfExists(segmentPath(n));
+                continue;
+            }
+            Path path = segmentPath(n);
+            byte[] bytes = Files.readAllBytes(path);
+            int end = replay(bytes);
+            if (end != bytes.length) {
+                log.warn("WAL: cutting {} torn bytes off {}", bytes.length - end, path.getFileName());
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(end);
+                    channel.force(true);
+                }
+            }
+            bytesSinceSnapshot += end;
+            last = Math.max(last, n);
+        }
+
+        // Appends always go to a fresh segment
+        segmentNo = last + 1;
+        openSegment();
+    }
+
+    // Applies every valid frame; returns the offset just past the last one.
+    private int replay(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int expected = buffer.getInt();
+            if (length < 9 || length > buffer.remaining()) {
+                return start;
+            }
+            crc.reset();
+            crc.update(bytes, buffer.position(), length);
+            if ((int) crc.getValue() != expected) {
+                return start;
+            }
+
+            byte op = buffer.get();
+            int keyLength = buffer.getInt();
+            if (keyLength < 0 || keyLength > length - 9) {
+                return start;
+            }
+            String key = new String(bytes, buffer.position(), keyLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + keyLength);
+            int valueLength = buffer.getInt();
+            if (valueLength != length - 9 - keyLength) {
+                return start;
+            }
+            String value = new String(bytes, buffer.position(), valueLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + valueLength);
+
+            apply(op, key, value);
+        }
+        return buffer.position();
+    }
+
+    /* -------------------------------------------------------------------------
+     * Helpers
+     * ---------------------------------------------------------------------- */
+
+    private static void writeFrame(ByteArrayOutputStream out, byte op, String key, String value) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] v = value.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 4 + k.length + 4 + v.length;
+
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + length);
+        frame.putInt(length).putInt(0);
+        frame.put(op).putInt(k.length).put(k).putInt(v.length).put(v);
+
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), HEADER_BYTES, length);
+        frame.putInt(4, (int) crc.getValue());
+        out.write(frame.array(), 0, frame.capacity());
+    }
+
+    // Paths under the working directory are stored relative to it, so the WAL
+    // keeps working if the whole project directory is moved.
+    private String key(String path) {
+        Path absolute = Paths.get(path).toAbsolutePath().normalize();
+        return absolute.startsWith(workingDir) ? workingDir.relativize(absolute).toString() : absolute.toString();
+    }
+
+    private List<Long> numbered(String prefix, String suffix) throws IOException {
+        List<Long> out = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    out.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    private Path segmentPath(long n) {
+        return dir.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, n, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long n) {
+        return dir.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, n, SNAPSHOT_SUFFIX));
+    }
+
+    private static final class Mutation {
+        private final byte op;
+        private final String key;
+        private final String value;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Mutation(byte op, String key, String value) {
+            this.op = op;
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.campussysbackend;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The chatbot endpoints against a stub Gemini served from this JVM: plain
+// answers, streamed chunks, the fallback when the model fails, the response
+// cache, and the upstream guard against a slow (/slow) or failing Gemini.
+// The intent router is off except in the test for it, so every prompt reaches the stub.
+// Calls go through the same pooled client as in production (ChatbotHttpClient).
+class ChatbotControllerTests {
+
+	private static final Duration WAIT = Duration.ofSeconds(10);
+	private static final Duration SLOW = Duration.ofMillis(1500);
+	private static final String ANSWER = "{\"assistantMessage\":\"Hello\",\"selectedServiceId\":null}";
+
+	private HttpServer gemini;
+	private String base;
+	private volatile String lastQuery;
+	private volatile String lastApiKey;
+	private volatile String lastBody;
+	private final AtomicInteger calls = new AtomicInteger();
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+	private ChatbotResponseCache cache;
+	private ConnectionProvider pool;
+
+	@BeforeEach
+	void startStub() throws IOException {
+		gemini = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		gemini.createContext("/answer", exchange -> reply(exchange, 200, "application/json", candidate(ANSWER)));
+		// The answer in two chunks, then a chunk with only the finish reason, as Gemini sends it
+		gemini.createContext("/stream", exchange -> reply(exchange, 200, "text/event-stream",
+				"data: " + candidate(ANSWER.substring(0, 20)) + "\r\n\r\n"
+						+ "data: " + candidate(ANSWER.substring(20)) + "\r\n\r\n"
+						+ "data: {\"candidates\":[{\"finishReason\":\"STOP\"}]}\r\n\r\n"));
+		gemini.createContext("/slow", exchange -> {
+			try {
+				Thread.sleep(SLOW.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			reply(exchange, 200, "application/json", candidate(ANSWER));
+		});
+		gemini.createContext("/broken", exchange -> reply(exchange, 500, "application/json",
+				"{\"error\":{\"code\":500,\"message\":\"Internal error\"}}"));
+		gemini.setExecutor(Executors.newCachedThreadPool());
+		gemini.start();
+		base = "http://127.0.0.1:" + gemini.getAddress().getPort();
+		cache = new ChatbotResponseCache(100, Duration.ofMinutes(1));
+		pool = ChatbotHttpClient.connectionProvider(16, 32, WAIT, Duration.ofSeconds(30),
+				Duration.ofMinutes(5), Duration.ofSeconds(30));
+	}
+
+	@AfterEach
+	void stopStub() {
+		pool.dispose();
+		gemini.stop(0);
+	}
+
+	@Test
+	void askReturnsTheModelAnswer() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		ResponseEntity<Map<String, Object>> response = chatbot.askChatbot(Map.of("prompt", "hi"), null).block(WAIT);
+
+		assertEquals(200, response.getStatusCode().value());
+		assertEquals(true, response.getBody().get("success"));
+		assertEquals(ANSWER, response.getBody().get("response"));
+		assertEquals("test-key", lastApiKey);
+		assertNull(lastQuery);
+	}
+
+	@Test
+	void theModelIsSentTheHandlersCatalogueAndTheQuestion() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		chatbot.askChatbot(Map.of("prompt", "Fix the \"lab\" heater", "userType", "faculty"), null).block(WAIT);
+
+		assertTrue(lastBody.startsWith("{\"contents\":[{\"parts\":[{\"text\":\""), lastBody);
+		assertTrue(lastBody.contains("You help faculty"));
+		assertTrue(lastBody.contains("1: Room Booking (POST /bookroom)"));
+		assertTrue(lastBody.contains("14: Update Maintenance Status (POST /updatemaintenancestatus)"));
+		assertTrue(lastBody.endsWith("User question: Fix the \\\"lab\\\" heater\"}]}]}"), lastBody);
+	}
+
+	@Test
+	void askFallsBackWhenTheModelFails() {
+		ChatbotController chatbot = chatbot(base + "/broken", base + "/broken");
+
+		ResponseEntity<Map<String, Object>> response = chatbot.askChatbot(Map.of("prompt", "hi"), null).block(WAIT);
+
+		assertEquals(200, response.getStatusCode().value());
+		assertTrue(response.getBody().get("response").toString().contains("internal error"));
+	}
+
+	@Test
+	void askRejectsABlankPrompt() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		ResponseEntity<Map<String, Object>> response = chatbot.askChatbot(Map.of("prompt", "  "), null).block(WAIT);
+
+		assertEquals(400, response.getStatusCode().value());
+		assertNull(lastQuery);
+	}
+
+	@Test
+	void streamForwardsEachChunkThenDone() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		List<ServerSentEvent<String>> events = chatbot.streamChatbot(Map.of("prompt", "hi"), null).collectList().block(WAIT);
+
+		assertEquals(List.of("token", "token", "done"),
+				events.stream().map(ServerSentEvent::event).collect(Collectors.toList()));
+		assertEquals(ANSWER, events.stream().limit(2).map(ServerSentEvent::data).collect(Collectors.joining()));
+		assertEquals("alt=sse", lastQuery);
+		assertEquals("test-key", lastApiKey);
+	}
+
+	@Test
+	void streamEndsWithAnErrorEventWhenTheModelFails() {
+		ChatbotController chatbot = chatbot(base + "/broken", base + "/broken");
+
+		List<ServerSentEvent<String>> events = chatbot.streamChatbot(Map.of("prompt", "hi"), null).collectList().block(WAIT);
+
+		assertEquals(1, events.size());
+		assertEquals("error", events.get(0).event());
+		assertTrue(events.get(0).data().contains("internal error"));
+	}
+
+	@Test
+	void theSameQuestionIsAnsweredFromTheCache() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		ResponseEntity<Map<String, Object>> first = chatbot.askChatbot(
+				Map.of("prompt", "How do I book a room?", "userType", "student"), null).block(WAIT);
+		ResponseEntity<Map<String, Object>> second = chatbot.askChatbot(
+				Map.of("prompt", "  how do i   BOOK a room ", "userType", "student"), null).block(WAIT);
+		ResponseEntity<Map<String, Object>> otherUser = chatbot.askChatbot(
+				Map.of("prompt", "How do I book a room?", "userType", "faculty"), null).block(WAIT);
+
+		assertEquals("MISS", first.getHeaders().getFirst(ChatbotResponseCache.HEADER));
+		assertEquals("HIT", second.getHeaders().getFirst(ChatbotResponseCache.HEADER));
+		assertEquals(ANSWER, second.getBody().get("response"));
+		assertEquals("MISS", otherUser.getHeaders().getFirst(ChatbotResponseCache.HEADER));
+		assertEquals(2, calls.get());
+		assertEquals(1, cache.stats().hitCount());
+	}
+
+	@Test
+	void noCacheAsksTheModelAgain() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		chatbot.askChatbot(Map.of("prompt", "hi"), null).block(WAIT);
+		ResponseEntity<Map<String, Object>> bypassed = chatbot.askChatbot(Map.of("prompt", "hi"), "no-cache").block(WAIT);
+
+		assertEquals("BYPASS", bypassed.getHeaders().getFirst(ChatbotResponseCache.HEADER));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void fallbacksAreNotCached() {
+		ChatbotController chatbot = chatbot(base + "/broken", base + "/broken");
+
+		chatbot.askChatbot(Map.of("prompt", "hi"), null).block(WAIT);
+		ResponseEntity<Map<String, Object>> again = chatbot.askChatbot(Map.of("prompt", "hi"), null).block(WAIT);
+
+		assertEquals("MISS", again.getHeaders().getFirst(ChatbotResponseCache.HEADER));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void aStreamedAnswerIsCachedForTheNextAsk() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		chatbot.streamChatbot(Map.of("prompt", "hi"), null).collectList().block(WAIT);
+		ResponseEntity<Map<String, Object>> response = chatbot.askChatbot(Map.of("prompt", "hi"), null).block(WAIT);
+
+		assertEquals("HIT", response.getHeaders().getFirst(ChatbotResponseCache.HEADER));
+		assertEquals(ANSWER, response.getBody().get("response"));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void aSlowModelTimesOutToTheFallback() {
+		UpstreamGuard guard = guard(4, Duration.ofMillis(200));
+		ChatbotController chatbot = chatbot(base + "/slow", base + "/slow", guard);
+
+		long start = System.nanoTime();
+		ResponseEntity<Map<String, Object>> response = chatbot.askChatbot(Map.of("prompt", "hi"), null).block(WAIT);
+
+		assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(SLOW) < 0);
+		assertTrue(response.getBody().get("response").toString().contains("internal error"));
+	}
+
+	@Test
+	void identicalQuestionsInFlightShareOneCall() {
+		ChatbotController chatbot = chatbot(base + "/slow", base + "/slow", guard(4, WAIT));
+
+		List<ResponseEntity<Map<String, Object>>> responses = Flux.range(0, 8)
+				.flatMap(i -> chatbot.askChatbot(Map.of("prompt", "How do I book a room?"), null))
+				.collectList()
+				.block(WAIT);
+
+		assertEquals(8, responses.size());
+		responses.forEach(response -> assertEquals(ANSWER, response.getBody().get("response")));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void callsOverTheLimitGetTheFallbackAtOnce() {
+		ChatbotController chatbot = chatbot(base + "/slow", base + "/slow", guard(2, WAIT));
+
+		List<String> answers = Flux.range(0, 5)
+				.flatMap(i -> chatbot.askChatbot(Map.of("prompt", "question " + i), null))
+				.map(response -> response.getBody().get("response").toString())
+				.collectList()
+				.block(WAIT);
+
+		assertEquals(2, answers.stream().filter(ANSWER::equals).count());
+		assertEquals(3, answers.stream().filter(answer -> answer.contains("busy")).count());
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void anOpenBreakerFailsFastWithoutCallingTheModel() {
+		UpstreamGuard guard = new UpstreamGuard(4, WAIT, WAIT,
+				new CircuitBreaker(4, 2, 50, Duration.ofMinutes(1)));
+		ChatbotController chatbot = chatbot(base + "/broken", base + "/broken", guard);
+
+		chatbot.askChatbot(Map.of("prompt", "one"), null).block(WAIT);
+		chatbot.askChatbot(Map.of("prompt", "two"), null).block(WAIT);
+		assertEquals(CircuitBreaker.State.OPEN, guard.state());
+
+		ResponseEntity<Map<String, Object>> response = chatbot.askChatbot(Map.of("prompt", "three"), null).block(WAIT);
+		List<ServerSentEvent<String>> events = chatbot.streamChatbot(Map.of("prompt", "four"), null).collectList().block(WAIT);
+
+		assertTrue(response.getBody().get("response").toString().contains("busy"));
+		assertEquals("error", events.get(0).event());
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void aPlainRequestIsAnsweredWithoutCallingTheModel() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream", guard(16, WAIT), true);
+
+		ResponseEntity<Map<String, Object>> routed = chatbot.askChatbot(
+				Map.of("prompt", "Cancel booking 15"), null).block(WAIT);
+		List<ServerSentEvent<String>> events = chatbot.streamChatbot(
+				Map.of("prompt", "Cancel booking 15"), null).collectList().block(WAIT);
+		ResponseEntity<Map<String, Object>> question = chatbot.askChatbot(
+				Map.of("prompt", "How do I book a room?"), null).block(WAIT);
+
+		assertEquals("rules", routed.getHeaders().getFirst(ChatbotIntentRouter.HEADER));
+		assertTrue(routed.getBody().get("response").toString()
+				.contains("\"selectedServiceId\":5,"), routed.getBody().toString());
+		assertEquals(routed.getBody().get("response"), events.get(0).data());
+		assertEquals("done", events.get(1).event());
+		assertEquals("MISS", question.getHeaders().getFirst(ChatbotResponseCache.HEADER));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void callsReuseThePooledConnection() {
+		ChatbotController chatbot = chatbot(base + "/answer", base + "/stream");
+
+		for (int i = 0; i < 5; i++) {
+			chatbot.askChatbot(Map.of("prompt", "question " + i), null).block(WAIT);
+		}
+
+		assertEquals(5, calls.get());
+		assertEquals(1, clientPorts.size(), clientPorts.toString());
+	}
+
+	private ChatbotController chatbot(String apiUrl, String streamUrl) {
+		return chatbot(apiUrl, streamUrl, guard(16, WAIT));
+	}
+
+	private ChatbotController chatbot(String apiUrl, String streamUrl, UpstreamGuard guard) {
+		return chatbot(apiUrl, streamUrl, guard, false);
+	}
+
+	private ChatbotController chatbot(String apiUrl, String streamUrl, UpstreamGuard guard, boolean routing) {
+		ChatbotPrompts prompts = ChatbotPrompts.fromHandlers(CampussysbackendApplication.class);
+		return new ChatbotController(apiUrl, streamUrl, "test-key", prompts,
+				new ChatbotIntentRouter(prompts, Clock.systemUTC(), routing), cache, guard,
+				ChatbotHttpClient.webClient(pool, true, Duration.ofSeconds(5), 1024 * 1024));
+	}
+
+	private static UpstreamGuard guard(int maxConcurrent, Duration timeout) {
+		return new UpstreamGuard(maxConcurrent, timeout, timeout,
+				new CircuitBreaker(20, 10, 50, Duration.ofSeconds(30)));
+	}
+
+	private void reply(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		lastQuery = exchange.getRequestURI().getQuery();
+		lastApiKey = exchange.getRequestHeaders().getFirst("x-goog-api-key");
+		clientPorts.add(exchange.getRemoteAddress().getPort());
+		calls.incrementAndGet();
+		lastBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static String candidate(String text) {
+		String escaped = text.replace("\\", "\\\\").replace("\"", "\\\"");
+		return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + escaped + "\"}],\"role\":\"model\"}}]}";
+	}
+}
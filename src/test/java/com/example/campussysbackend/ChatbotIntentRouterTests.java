@@ -0,0 +1,79 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Which prompts are answered locally and what is read from them. Today is
+// Wednesday 2026-10-14 on a fixed clock.
+class ChatbotIntentRouterTests {
+
+	private static final Clock WEDNESDAY = Clock.fixed(Instant.parse("2026-10-14T09:00:00Z"), ZoneOffset.UTC);
+	private static final ChatbotPrompts PROMPTS = ChatbotPrompts.fromHandlers(CampussysbackendApplication.class);
+
+	private final ChatbotIntentRouter router = new ChatbotIntentRouter(PROMPTS, WEDNESDAY, true);
+
+	@Test
+	void aRoomBookingIsFilledFromThePrompt() {
+		String answer = router.route("Book room 101 tomorrow from 2pm to 4pm", "");
+
+		assertNotNull(answer);
+		assertTrue(answer.startsWith("{\"assistantMessage\":\"Redirecting to Room Booking...\",\"selectedServiceId\":1,"), answer);
+		assertTrue(answer.contains("\"1\":{\"userId\":null,\"roomId\":101,\"date\":\"2026-10-15\","
+				+ "\"startTime\":\"14:00\",\"endTime\":\"16:00\"}"), answer);
+		// Every other service is listed with an empty payload
+		assertTrue(answer.contains("\"14\":{}"), answer);
+	}
+
+	@Test
+	void weekdaysAndDurationsAreResolved() {
+		String answer = router.route("I want to reserve room 12 on Friday at 10am for 2 hours", "");
+
+		assertTrue(answer.contains("\"roomId\":12,\"date\":\"2026-10-16\",\"startTime\":\"10:00\",\"endTime\":\"12:00\""),
+				answer);
+	}
+
+	@Test
+	void aBrokenThingIsAMaintenanceRequest() {
+		String answer = router.route("The light in lab 3 is broken, urgent! Reach me at a.b@uni.edu", "");
+
+		assertTrue(answer.contains("\"selectedServiceId\":6,"), answer);
+		assertTrue(answer.contains("\"location\":\"lab 3\",\"category\":\"electrical\","
+				+ "\"description\":\"The light in lab 3 is broken, urgent! Reach me at a.b@uni.edu\","
+				+ "\"priority\":\"high\",\"contactEmail\":\"a.b@uni.edu\""), answer);
+	}
+
+	@Test
+	void feedbackDatesAreInThePast() {
+		String answer = router.route("Show feedback mentioning \"Wi-Fi\" since Oct 1", "");
+
+		assertTrue(answer.contains("\"12\":{\"keyword\":\"Wi-Fi\",\"fromDate\":\"2026-10-01\",\"toDate\":null}"), answer);
+	}
+
+	@Test
+	void wordsAreTakenFromThePromptAsTyped() {
+		// Lower-casing "\u0130" gives two chars, so a lower-cased copy's indices run past the prompt
+		String answer = router.route("Cancel event 3 because the \u0130stanbul trip moved \u0130T", "");
+
+		assertTrue(answer.contains("\"4\":{\"eventId\":3,\"reason\":\"the \u0130stanbul trip moved \u0130T\"}"), answer);
+	}
+
+	@Test
+	void questionsAndMixedRequestsGoToTheModel() {
+		assertNull(router.route("How do I book a room?", ""));
+		assertNull(router.route("What are the booking rules?", ""));
+		assertNull(router.route("Book a room and cancel event 3", ""));
+		assertNull(router.route("hello there", ""));
+	}
+
+	@Test
+	void aDisabledRouterRoutesNothing() {
+		ChatbotIntentRouter disabled = new ChatbotIntentRouter(PROMPTS, WEDNESDAY, false);
+
+		assertNull(disabled.route("Cancel booking 15", ""));
+	}
+}
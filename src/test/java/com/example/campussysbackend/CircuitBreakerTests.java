@@ -0,0 +1,88 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Opening on the failure rate, failing fast while open, and the single trial
+// call that closes or reopens the breaker. Time is a fake clock.
+class CircuitBreakerTests {
+
+	private final AtomicLong now = new AtomicLong();
+	private final CircuitBreaker breaker = new CircuitBreaker(4, 2, 50, Duration.ofSeconds(30), now::get);
+
+	@Test
+	void opensOnceTheFailureRateIsReached() {
+		call(true);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state(), "below minimumCalls");
+		call(false);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void oldOutcomesLeaveTheWindow() {
+		call(false);
+		call(true);
+		call(true);
+		call(true);
+		call(true);
+		// The window now holds 4 successes; 2 failures make 2 of 4
+		call(false);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		call(false);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+	}
+
+	@Test
+	void letsOneTrialThroughAfterOpenFor() {
+		call(false);
+		call(false);
+		now.addAndGet(Duration.ofSeconds(29).toNanos());
+		assertFalse(breaker.tryAcquirePermission());
+
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertTrue(breaker.tryAcquirePermission());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+		assertFalse(breaker.tryAcquirePermission(), "one trial at a time");
+
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void aFailedTrialReopens() {
+		call(false);
+		call(false);
+		now.addAndGet(Duration.ofSeconds(30).toNanos());
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.onError();
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertFalse(breaker.tryAcquirePermission());
+	}
+
+	@Test
+	void anAbandonedTrialFreesTheSlot() {
+		call(false);
+		call(false);
+		now.addAndGet(Duration.ofSeconds(30).toNanos());
+		assertTrue(breaker.tryAcquirePermission());
+		breaker.releasePermission();
+
+		assertTrue(breaker.tryAcquirePermission());
+	}
+
+	private void call(boolean succeeds) {
+		assertTrue(breaker.tryAcquirePermission());
+		if (succeeds) {
+			breaker.onSuccess();
+		} else {
+			breaker.onError();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The feedback index built from a generated events directory, kept current by
+// Event.addFeedback, and its date ranges, summaries and removal of cancelled events.
+class FeedbackIndexTests {
+
+	@TempDir
+	Path dataDir;
+
+	@Test
+	void indexesTheFilesAndFeedbackAddedLater() throws Exception {
+		String root = dataDir.toString() + "/";
+		new CampusDataGenerator(root, 42).users(10).events(3, 2, 4);
+		String events = root + "events/";
+		FeedbackIndex index = FeedbackIndex.forPath(events);
+
+		assertEquals(12, index.find(null, null, null).size());
+
+		new Event(2, events).addFeedback(1005, "The Wi-Fi kept dropping, not good at all", "lecture", 3f);
+
+		List<FeedbackIndex.Entry> found = index.find("dropping wi-fi", null, null);
+		assertEquals(1, found.size());
+		assertEquals("2-5", found.get(0).id());
+		assertEquals(FeedbackIndex.Sentiment.NEGATIVE, found.get(0).sentiment);
+		FeedbackIndex.Summary summary = index.summarize(null, null);
+		assertEquals(13, summary.getTotal());
+		assertTrue(summary.getThemes().containsKey("Wi-Fi & Tech"), summary.getThemes().toString());
+	}
+
+	@Test
+	void datesSummariesAndCancelledEvents() {
+		FeedbackIndex index = FeedbackIndex.forPath(dataDir.toString() + "/events/");
+		// Nothing on disk; the first query builds an empty index
+		assertTrue(index.find(null, null, null).isEmpty());
+
+		index.add(1, 1, 1001, "Great talk, very clear", "lecture", 5f, LocalDate.of(2026, 1, 10));
+		index.add(1, 2, 1002, "Far too loud in the hall", "lecture", 2f, LocalDate.of(2026, 1, 20));
+		index.add(2, 1, 1003, "It was fine", "workshop", 3f, LocalDate.of(2026, 2, 1));
+		// Already indexed
+		index.add(2, 1, 1003, "It was fine", "workshop", 3f, LocalDate.of(2026, 2, 1));
+
+		assertEquals(2, index.find(null, LocalDate.of(2026, 1, 15), null).size());
+		assertEquals(1, index.find("LOUD", null, LocalDate.of(2026, 1, 31)).size());
+		FeedbackIndex.Summary january = index.summarize(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+		assertEquals(2, january.getTotal());
+		assertEquals(1, january.getCount(FeedbackIndex.Sentiment.POSITIVE));
+		assertEquals(1, january.getCount(FeedbackIndex.Sentiment.NEGATIVE));
+		assertEquals(3.5, january.getAverageRating(), 1e-9);
+
+		index.remove(1);
+
+		assertTrue(index.find("loud", null, null).isEmpty());
+		FeedbackIndex.Summary all = index.summarize(null, null);
+		assertEquals(1, all.getTotal());
+		assertEquals(1, all.getCount(FeedbackIndex.Sentiment.NEUTRAL));
+	}
+
+	@Test
+	void wordsDecideWhenTheRatingDoesNot() {
+		assertEquals(FeedbackIndex.Sentiment.POSITIVE,
+				FeedbackIndex.sentiment(FeedbackIndex.words("Never boring, and the speaker was clear"), 3f));
+		assertEquals(FeedbackIndex.Sentiment.NEGATIVE,
+				FeedbackIndex.sentiment(FeedbackIndex.words("The slides weren't useful"), 0f));
+		assertEquals(FeedbackIndex.Sentiment.POSITIVE,
+				FeedbackIndex.sentiment(FeedbackIndex.words("The slides weren't useful"), 5f));
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Concurrent writers of one record file: every write succeeds and the file
+// always holds one writer's whole text. Appends to a list whose last line was
+// cut off by a crash.
+class FileRecordStoreTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void concurrentWritersOfOneRecordNeverTearIt() throws Exception {
+		FileRecordStore store = new FileRecordStore();
+		String path = dir.resolve("events/7.txt").toString();
+		int writers = 8;
+		int writes = 200;
+		List<String> texts = new ArrayList<>();
+		for (int w = 0; w < writers; w++) {
+			texts.add(String.valueOf((char) ('a' + w)).repeat(4096 + w));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> done = new ArrayList<>();
+		for (String text : texts) {
+			done.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < writes; i++) {
+					store.write(path, text);
+					assertTrue(texts.contains(store.read(path)));
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : done) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		assertTrue(texts.contains(store.read(path)));
+		assertEquals(List.of("7.txt"), store.list(dir.resolve("events").toString()));
+		assertEquals(1, dir.resolve("events").toFile().list().length);
+	}
+
+	@Test
+	void anAppendAfterACutOffLineStartsOnANewLine() throws Exception {
+		FileRecordStore store = new FileRecordStore();
+		String path = dir.resolve("events/eventIDs.txt").toString();
+		store.append(path, "1" + System.lineSeparator());
+		store.append(path, "2" + System.lineSeparator());
+		assertEquals(List.of(1, 2), ids(store.read(path)));
+
+		// A crash in the middle of writing "30"
+		Files.writeString(Path.of(path), "3", StandardOpenOption.APPEND);
+		store.append(path, "4" + System.lineSeparator());
+		assertEquals(List.of(1, 2, 3, 4), ids(store.read(path)));
+	}
+
+	private static List<Integer> ids(String text) {
+		return text.lines().map(Integer::parseInt).toList();
+	}
+}
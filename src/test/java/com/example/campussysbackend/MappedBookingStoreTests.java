@@ -0,0 +1,120 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The memory-mapped booking store: records surviving a reopen, growing past
+// the first mapping, the edges of the mapping, rejected files and status
+// changes, and the migration from text booking records.
+class MappedBookingStoreTests {
+
+	private static final LocalDate DATE = LocalDate.of(2027, 3, 4);
+	private static final LocalTime NINE = LocalTime.of(9, 0);
+	private static final LocalTime TEN = LocalTime.of(10, 30);
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void closeStores() {
+		MappedBookingStore.clear();
+		RecordStores.set(null);
+	}
+
+	@Test
+	void bookingsSurviveReopenAndGrowPastTheFirstMapping() {
+		String prefix = dir.resolve("3300-").toString();
+		MappedBookingStore store = MappedBookingStore.forPrefix(prefix);
+		store.write(1, 1001, 3300, DATE, NINE, TEN, "Pending");
+		// Well past the slots mapped for the first write
+		store.write(1000, 1002, 3300, DATE.plusDays(1), NINE, TEN, "Approved");
+		store.writeStatus(1, "Cancelled");
+		MappedBookingStore.clear();
+
+		MappedBookingStore reopened = MappedBookingStore.forPrefix(prefix);
+		assertNotSame(store, reopened);
+		MappedBookingStore.Entry first = reopened.read(1);
+		assertEquals(1001, first.getUserID());
+		assertEquals(3300, first.getRoomID());
+		assertEquals(DATE, first.getDate());
+		assertEquals(NINE, first.getStartTime());
+		assertEquals(TEN, first.getEndTime());
+		assertEquals("Cancelled", first.getStatus());
+		assertEquals("Approved", reopened.read(1000).getStatus());
+		assertEquals(1002, reopened.read(1000).getUserID());
+		assertNull(reopened.read(999));
+	}
+
+	@Test
+	void idsOutsideTheMappingAreAbsent() {
+		MappedBookingStore store = MappedBookingStore.forPrefix(dir.resolve("1-").toString());
+		// An empty store maps the header only
+		assertFalse(store.contains(1));
+		assertNull(store.read(1));
+
+		store.write(1, 1001, 1, DATE, NINE, TEN, "Pending");
+		assertTrue(store.contains(1));
+		assertFalse(store.contains(0));
+		assertFalse(store.contains(-1));
+		assertFalse(store.contains(2));
+		assertFalse(store.contains(Integer.MAX_VALUE));
+		assertNull(store.read(Integer.MAX_VALUE));
+		// (id - 1) * 20 wraps around to just past the header, inside booking 1
+		assertFalse(store.contains(214_748_366));
+		assertNull(store.read(214_748_366));
+		assertThrows(IllegalArgumentException.class, () -> store.write(214_748_366, 1001, 1, DATE, NINE, TEN, "Pending"));
+		assertThrows(IllegalArgumentException.class, () -> store.write(0, 1001, 1, DATE, NINE, TEN, "Pending"));
+	}
+
+	@Test
+	void statusChangesNeedAnExistingBookingAndAKnownStatus() {
+		MappedBookingStore store = MappedBookingStore.forPrefix(dir.resolve("2-").toString());
+		store.write(1, 1001, 2, DATE, NINE, TEN, "Pending");
+
+		assertThrows(IllegalStateException.class, () -> store.writeStatus(2, "Approved"));
+		assertThrows(IllegalStateException.class, () -> store.writeStatus(100_000, "Approved"));
+		assertThrows(IllegalArgumentException.class, () -> store.writeStatus(1, "Maybe"));
+		assertThrows(IllegalArgumentException.class, () -> store.write(2, 1001, 2, DATE, NINE, TEN, "Maybe"));
+		assertEquals("Pending", store.read(1).getStatus());
+		assertFalse(store.contains(2));
+	}
+
+	@Test
+	void aFileThatIsNotABookingStoreIsRejected() throws IOException {
+		Files.writeString(dir.resolve("4-" + MappedBookingStore.FILE_NAME), "not a booking store at all");
+
+		assertThrows(UncheckedIOException.class, () -> MappedBookingStore.forPrefix(dir.resolve("4-").toString()));
+	}
+
+	@Test
+	void migrationCopiesTheTextRecordsAndSkipsMalformedOnes() throws IOException {
+		RecordStores.set(new FileRecordStore());
+		Path rooms = Files.createDirectories(dir.resolve("rooms"));
+		Files.writeString(rooms.resolve("3300.txt"), "50\n3\nBookings\n1\n2\n3\n");
+		Files.writeString(rooms.resolve("3300-1.txt"), "1001\n3300\n2027-03-04\n09:00\n10:30\nApproved\n");
+		// No status line: still pending
+		Files.writeString(rooms.resolve("3300-2.txt"), "1002\n3300\n2027-03-05\n11:00\n12:00\n");
+		Files.writeString(rooms.resolve("3300-3.txt"), "1003\n3300\nnot a date\n");
+		Files.writeString(rooms.resolve("3301-1.txt"), "1004\n3301\n2027-03-06\n13:00\n14:00\nRejected\n");
+
+		MappedBookingStore.main(new String[]{rooms.toString()});
+
+		String prefix = rooms + File.separator;
+		MappedBookingStore store = MappedBookingStore.forPrefix(prefix + "3300-");
+		assertEquals("Approved", store.read(1).getStatus());
+		assertEquals(LocalTime.of(10, 30), store.read(1).getEndTime());
+		assertEquals("Pending", store.read(2).getStatus());
+		assertNull(store.read(3));
+		assertEquals("Rejected", MappedBookingStore.forPrefix(prefix + "3301-").read(1).getStatus());
+		// The text records are left in place
+		assertTrue(Files.exists(rooms.resolve("3300-1.txt")));
+	}
+}
@@ -0,0 +1,148 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many clients calling /bookroom and /approverejectbooking on the same room at
+// once, through the handlers themselves. The handlers work on data/rooms/ under
+// the working directory, so these rooms have IDs no real room uses and their
+// files are deleted afterwards.
+class RoomConcurrencyTests {
+
+	private static final int CLIENTS = 64;
+	private static final String ROOMS = "data/rooms/";
+
+	private final CampussysbackendApplication handlers = new CampussysbackendApplication();
+	private final List<Integer> roomIds = new ArrayList<>();
+
+	@AfterEach
+	void deleteRooms() {
+		RoomRepository.clear();
+		File[] files = new File(ROOMS).listFiles((dir, name) -> roomIds.stream()
+				.anyMatch(id -> name.equals(id + ".txt") || name.startsWith(id + "-")));
+		if (files != null) {
+			for (File file : files) {
+				assertTrue(file.delete(), file.getPath());
+			}
+		}
+	}
+
+	@Test
+	void concurrentBookingsGetDistinctIdsAndAreAllPersisted() throws Exception {
+		int roomId = room(990101);
+		LocalDate date = LocalDate.now().plusDays(1);
+
+		Set<Integer> ids = ConcurrentHashMap.newKeySet();
+		runConcurrently(client -> {
+			LocalTime start = LocalTime.of(0, 0).plusMinutes(client * 15L);
+			ResponseEntity<?> response = handlers.bookRoom(bookRequest(roomId, date, start, start.plusMinutes(15), client));
+			assertEquals(201, response.getStatusCode().value(), String.valueOf(response.getBody()));
+			ids.add((Integer) body(response).get("bookingId"));
+		});
+
+		assertEquals(CLIENTS, ids.size());
+
+		// A fresh load from disk must see every booking and the final counter
+		Room reloaded = new Room(roomId, 1, ROOMS);
+		assertEquals(CLIENTS, reloaded.getBookings().size());
+		assertEquals(CLIENTS, reloaded.getLastBookingID());
+	}
+
+	@Test
+	void concurrentApprovalsApproveOneBookingPerSlot() throws Exception {
+		int roomId = room(990102);
+		int slots = 8;
+		LocalDate date = LocalDate.now().plusDays(1);
+
+		// Pending bookings do not block each other: every slot gets CLIENTS / slots of them
+		List<Integer> pending = new ArrayList<>();
+		for (int client = 0; client < CLIENTS; client++) {
+			LocalTime start = LocalTime.of(9, 0).plusHours(client % slots);
+			ResponseEntity<?> response = handlers.bookRoom(bookRequest(roomId, date, start, start.plusHours(1), client));
+			assertEquals(201, response.getStatusCode().value(), String.valueOf(response.getBody()));
+			pending.add((Integer) body(response).get("bookingId"));
+		}
+
+		AtomicIntegerArray approved = new AtomicIntegerArray(slots);
+		runConcurrently(client -> {
+			ResponseEntity<?> response = handlers.approveRejectBooking(Map.of(
+					"bookingId", pending.get(client), "roomId", roomId, "decision", "approve"));
+			int status = response.getStatusCode().value();
+			assertTrue(status == 200 || status == 409, status + " " + response.getBody());
+			if (status == 200) {
+				approved.incrementAndGet(client % slots);
+			}
+		});
+
+		Room room = RoomRepository.getRoom(roomId, 1, ROOMS);
+		for (int slot = 0; slot < slots; slot++) {
+			assertEquals(1, approved.get(slot), "slot " + slot);
+			LocalTime start = LocalTime.of(9, 0).plusHours(slot);
+			assertFalse(room.isAvailable(date, start, start.plusHours(1)));
+		}
+
+		// And on disk: one approved booking per slot, the rest still pending
+		Map<LocalTime, Long> approvedOnDisk = new HashMap<>();
+		for (Booking booking : new Room(roomId, 1, ROOMS).getBookings()) {
+			if (booking.isApproved()) {
+				approvedOnDisk.merge(booking.getStartTime(), 1L, Long::sum);
+			}
+		}
+		assertEquals(slots, approvedOnDisk.size());
+		assertTrue(approvedOnDisk.values().stream().allMatch(count -> count == 1), approvedOnDisk.toString());
+	}
+
+	private int room(int roomId) {
+		roomIds.add(roomId);
+		return roomId;
+	}
+
+	private static Map<String, Object> bookRequest(int roomId, LocalDate date, LocalTime start, LocalTime end,
+												   int client) {
+		return Map.of("userId", 1000 + client, "roomId", roomId, "date", date.toString(),
+				"startTime", start.toString(), "endTime", end.toString());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> body(ResponseEntity<?> response) {
+		return (Map<String, Object>) response.getBody();
+	}
+
+	private interface Client {
+		void run(int client) throws Exception;
+	}
+
+	// Starts all clients at the same moment and fails on the first error
+	private static void runConcurrently(Client body) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+		CountDownLatch startGate = new CountDownLatch(1);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < CLIENTS; i++) {
+				int client = i;
+				futures.add(pool.submit(() -> {
+					startGate.await();
+					body.run(client);
+					return null;
+				}));
+			}
+			startGate.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
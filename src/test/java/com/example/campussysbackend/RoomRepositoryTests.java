@@ -0,0 +1,86 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A user's bookings from the per-user index, on a clock that has moved past
+// some of them since the rooms were loaded, and a status change that cannot
+// be stored leaving the room's indexes as they were.
+class RoomRepositoryTests {
+
+	@TempDir
+	Path dataDir;
+
+	@AfterEach
+	void dropRooms() {
+		RoomRepository.clear();
+		RecordStores.set(null);
+	}
+
+	@Test
+	void bookingsThatHavePassedAreNotListed() throws Exception {
+		String roomsPath = createRoom(9201);
+		LocalDate today = LocalDate.now();
+		Room room = RoomRepository.getRoom(9201, 1, roomsPath);
+		int soon = room.makeBooking(today.plusDays(1), LocalTime.of(9, 0), LocalTime.of(10, 0), 1001);
+		int later = room.makeBooking(today.plusDays(3), LocalTime.of(9, 0), LocalTime.of(10, 0), 1001);
+		room.makeBooking(today.plusDays(3), LocalTime.of(11, 0), LocalTime.of(12, 0), 1002);
+
+		assertEquals(List.of(soon, later), ids(RoomRepository.getUserBookings(roomsPath, 1001)));
+
+		// Two days on, without the room being read again
+		Clock twoDaysOn = Clock.fixed(today.plusDays(2).atStartOfDay(ZoneId.systemDefault()).toInstant(),
+				ZoneId.systemDefault());
+		assertEquals(List.of(later), ids(RoomRepository.getUserBookings(roomsPath, 1001, twoDaysOn)));
+	}
+
+	@Test
+	void aStatusThatCannotBeStoredIsNotApplied() throws Exception {
+		String roomsPath = createRoom(9202);
+		LocalDate date = LocalDate.now().plusDays(1);
+		Room room = RoomRepository.getRoom(9202, 1, roomsPath);
+		Booking first = room.getBooking(room.makeBooking(date, LocalTime.of(9, 0), LocalTime.of(10, 0), 1001));
+		Booking second = room.getBooking(room.makeBooking(date, LocalTime.of(9, 0), LocalTime.of(10, 0), 1002));
+
+		FileRecordStore files = new FileRecordStore();
+		RecordStores.set(new RecordStore() {
+			public String read(String path) throws FileNotFoundException { return files.read(path); }
+			public void write(String path, String contents) { throw new UncheckedIOException(new IOException("disk full")); }
+			public void append(String path, String text) { files.append(path, text); }
+			public void delete(String path) { files.delete(path); }
+			public boolean exists(String path) { return files.exists(path); }
+			public List<String> list(String dir) { return files.list(dir); }
+		});
+		assertThrows(UncheckedIOException.class, first::approveBooking);
+
+		assertEquals("Pending", first.getStatus());
+		assertTrue(room.isAvailable(date, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+
+		RecordStores.set(files);
+		assertTrue(second.approveBooking());
+		assertFalse(room.isAvailable(date, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+		assertEquals("Pending", new Booking(first.getBookingID(), roomsPath + "9202-").getStatus());
+	}
+
+	private String createRoom(int roomId) throws IOException {
+		String roomsPath = dataDir.toString() + File.separator;
+		try (PrintWriter writer = new PrintWriter(roomsPath + roomId + ".txt")) {
+			writer.println("50");
+			writer.println("0");
+			writer.println("Bookings");
+		}
+		return roomsPath;
+	}
+
+	private static List<Integer> ids(Collection<Booking> bookings) {
+		return bookings.stream().map(Booking::getBookingID).toList();
+	}
+}
@@ -0,0 +1,169 @@
+package com.example.campussysbackend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Durability of the write-ahead log: reopening, torn tails, compaction,
+// concurrent writers sharing commits and appends to the ID lists.
+class WalRecordStoreTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void writesAndDeletesSurviveReopen() throws Exception {
+		String wal = dir.resolve("wal").toString();
+		String a = dir.resolve("rooms/1.txt").toString();
+		String b = dir.resolve("rooms/2.txt").toString();
+
+		WalRecordStore store = WalRecordStore.open(wal);
+		store.write(a, "50\n0\nBookings\n");
+		store.write(b, "first");
+		store.write(b, "second");
+		store.delete(a);
+		store.close();
+
+		WalRecordStore reopened = WalRecordStore.open(wal);
+		assertFalse(reopened.exists(a));
+		assertThrows(FileNotFoundException.class, () -> reopened.read(a));
+		assertEquals("second", reopened.read(b));
+		assertEquals(List.of("2.txt"), reopened.list(dir.resolve("rooms").toString()));
+		reopened.close();
+	}
+
+	@Test
+	void tornTailIsCutOffOnRecovery() throws Exception {
+		String wal = dir.resolve("wal").toString();
+		String a = dir.resolve("a.txt").toString();
+
+		WalRecordStore store = WalRecordStore.open(wal);
+		store.write(a, "kept");
+		store.write(a, "torn");
+		store.close();
+
+		// Drop the last few bytes, as if the process died mid-append
+		Path segment;
+		try (DirectoryStream<Path> segments = Files.newDirectoryStream(Paths.get(wal), "wal-*.log")) {
+			segment = segments.iterator().next();
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		WalRecordStore reopened = WalRecordStore.open(wal);
+		assertEquals("kept", reopened.read(a));
+		reopened.write(a, "after");
+		reopened.close();
+
+		WalRecordStore again = WalRecordStore.open(wal);
+		assertEquals("after", again.read(a));
+		again.close();
+	}
+
+	@Test
+	void snapshotCompactsOldSegments() throws Exception {
+		String wal = dir.resolve("wal").toString();
+		// Tiny segments and snapshot threshold so both kick in quickly
+		WalRecordStore store = WalRecordStore.open(wal, 256, 4096);
+		for (int i = 0; i < 500; i++) {
+			store.write(dir.resolve("r" + (i % 10) + ".txt").toString(), "value " + i);
+		}
+		store.snapshot();
+		store.close();
+
+		long segments;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(wal), "wal-*.log")) {
+			segments = 0;
+			for (Path ignored : files) segments++;
+		}
+		assertTrue(segments <= 2, "old segments should have been deleted, found " + segments);
+
+		WalRecordStore reopened = WalRecordStore.open(wal);
+		for (int i = 490; i < 500; i++) {
+			assertEquals("value " + i, reopened.read(dir.resolve("r" + (i % 10) + ".txt").toString()));
+		}
+		reopened.close();
+	}
+
+	@Test
+	void concurrentWritersAreAllDurable() throws Exception {
+		String wal = dir.resolve("wal").toString();
+		WalRecordStore store = WalRecordStore.open(wal);
+
+		int writers = 64;
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < writers; i++) {
+				int writer = i;
+				futures.add(pool.submit(() -> {
+					for (int n = 0; n < 20; n++) {
+						store.write(dir.resolve("w" + writer + ".txt").toString(), "n=" + n);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		store.close();
+
+		WalRecordStore reopened = WalRecordStore.open(wal);
+		for (int i = 0; i < writers; i++) {
+			assertEquals("n=19", reopened.read(dir.resolve("w" + i + ".txt").toString()));
+		}
+		reopened.close();
+	}
+
+	@Test
+	void filesWrittenBeforeTheWalAreStillRead() throws Exception {
+		Path legacy = dir.resolve("rooms/3300.txt");
+		Files.createDirectories(legacy.getParent());
+		Files.writeString(legacy, "50\n0\nBookings\n");
+
+		WalRecordStore store = WalRecordStore.open(dir.resolve("wal").toString());
+		assertTrue(store.exists(legacy.toString()));
+		assertEquals("50\n0\nBookings\n", store.read(legacy.toString()));
+		assertEquals(List.of("3300.txt"), store.list(legacy.getParent().toString()));
+
+		store.delete(legacy.toString());
+		assertFalse(Files.exists(legacy));
+		assertFalse(store.exists(legacy.toString()));
+		store.close();
+	}
+
+	@Test
+	void appendsSurviveReopenAndExtendTheOriginalFile() throws Exception {
+		String wal = dir.resolve("wal").toString();
+		Path legacy = dir.resolve("events/eventIDs.txt");
+		Files.createDirectories(legacy.getParent());
+		Files.writeString(legacy, "1\n2\n");
+		String fresh = dir.resolve("requests/IDs.txt").toString();
+
+		WalRecordStore store = WalRecordStore.open(wal);
+		store.append(legacy.toString(), "3\n");
+		store.append(fresh, "7\n");
+		store.append(fresh, "8\n");
+		store.snapshot();
+		store.append(legacy.toString(), "4\n");
+		store.close();
+
+		WalRecordStore reopened = WalRecordStore.open(wal);
+		assertEquals("1\n2\n3\n4\n", reopened.read(legacy.toString()));
+		assertEquals("7\n8\n", reopened.read(fresh));
+		// The original file itself is left as it was
+		assertEquals("1\n2\n", Files.readString(legacy));
+		reopened.close();
+	}
+}
@@ -0,0 +1,306 @@
+package com.example.campussysbackend;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+// Writes a synthetic data/ tree in the same formats the server reads, for
+// benchmarks and load tests:
+//   <root>/rooms/<roomId>.txt, <roomId>-<bookingId>.txt
+//   <root>/events/<eventId>.txt, <eventId>-<feedbackId>.txt, eventIDs.txt
+//   <root>/requests/<requestId>.txt, IDs.txt
+//   <root>/users/credentials.txt, <userId>.txt, <userId>notifications.txt
+//   <root>/generated.properties (the sizes, read back by the load driver)
+//
+// Output is repeatable for a given seed. Bookings and events are dated after
+// today, so rooms keep them when loaded. Passwords are written in plain text
+// (see password(...)): hashing thousands of them with PBKDF2 would take far
+// longer than the rest of the tree, and the lookup path is the same.
+//
+//   CampusDataGenerator gen = new CampusDataGenerator("/tmp/campus", 42);
+//   gen.rooms(100, 50);
+//   gen.events(1000, 20, 5);
+//
+// Usage: CampusDataGenerator <root> [name=value ...]
+//   rooms=100 bookings=50 events=1000 attendees=20 feedback=5 requests=1000 users=1000 seed=42
+// e.g. rooms=10000 bookings=100 events=50000 for a 1M-booking campus.
+
+public final class CampusDataGenerator {
+
+    public static final int FIRST_ROOM_ID = 1000;
+    public static final int FIRST_USER_ID = 1000;
+
+    public static final Map<String, Integer> DEFAULTS = Map.of(
+            "rooms", 100, "bookings", 50, "events", 1000, "attendees", 20,
+            "feedback", 5, "requests", 1000, "users", 1000, "seed", 42);
+
+    private static final String MANIFEST = "generated.properties";
+
+    private static final String[] STATUSES = {"Pending", "Approved", "Rejected", "Cancelled"};
+    private static final String[] REQUEST_STATUSES = {"Pending", "In Progress", "Completed"};
+    private static final String[] CATEGORIES = {"Content", "Organisation", "Venue", "Other"};
+    private static final String[] WORDS = {
+            "projector", "lights", "heating", "chairs", "wifi", "great", "talk", "crowded",
+            "room", "late", "useful", "noisy", "clear", "broken", "door", "speaker"
+    };
+
+    private final Path root;
+    private final Random random;
+    private final LocalDate today = LocalDate.now();
+    private int users = 1000; // user IDs handed to bookings, attendees and requests
+
+    public CampusDataGenerator(String root, long seed) {
+        this.root = Paths.get(root);
+        this.random = new Random(seed);
+    }
+
+    // Number of users that bookings, events and requests are spread over.
+    public CampusDataGenerator users(int users) {
+        this.users = users;
+        return this;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Trees
+     * ---------------------------------------------------------------------- */
+
+    // Rooms FIRST_ROOM_ID.. with bookings 1..bookingsPerRoom each.
+    public void rooms(int rooms, int bookingsPerRoom) throws IOException {
+        Path dir = directory("rooms");
+        for (int r = 0; r < rooms; r++) {
+            int roomID = FIRST_ROOM_ID + r;
+            StringBuilder room = new StringBuilder();
+            room.append(20 + random.nextInt(200)).append('\n');
+            room.append(bookingsPerRoom).append('\n');
+            if (random.nextBoolean()) {
+                room.append("Projector\n");
+            }
+            room.append("Bookings\n");
+
+            for (int b = 1; b <= bookingsPerRoom; b++) {
+                LocalTime start = LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+                write(dir.resolve(roomID + "-" + b + ".txt"),
+                        user() + "\n"
+                        + roomID + "\n"
+                        + futureDate() + "\n"
+                        + start + "\n"
+                        + start.plusMinutes(30 + 30 * random.nextInt(4)) + "\n"
+                        + STATUSES[random.nextInt(STATUSES.length)] + "\n");
+                room.append(b).append('\n');
+            }
+            write(dir.resolve(roomID + ".txt"), room.toString());
+        }
+    }
+
+    // Events 1..events, each with the given number of attendees and feedback entries.
+    public void events(int events, int attendeesPerEvent, int feedbackPerEvent) throws IOException {
+        Path dir = directory("events");
+        StringBuilder ids = new StringBuilder();
+        for (int eventID = 1; eventID <= events; eventID++) {
+            LocalTime start = LocalTime.of(9 + random.nextInt(8), 0);
+            StringBuilder event = new StringBuilder();
+            event.append(feedbackPerEvent).append('\n');
+            event.append(user()).append('\n');
+            event.append("Event ").append(eventID).append('\n');
+            event.append(sentence(8)).append('\n');
+            event.append(FIRST_ROOM_ID + random.nextInt(100)).append('\n');
+            event.append(futureDate()).append('\n');
+            event.append(start).append('\n');
+            event.append(start.plusHours(1 + random.nextInt(2))).append('\n');
+            for (int a = 0; a < attendeesPerEvent; a++) {
+                event.append(FIRST_USER_ID + a % Math.max(1, users)).append(' ');
+            }
+            event.append('\n');
+            event.append("Feedback\n");
+
+            for (int f = 1; f <= feedbackPerEvent; f++) {
+                write(dir.resolve(eventID + "-" + f + ".txt"),
+                        user() + "\n"
+                        + eventID + "\n"
+                        + sentence(12) + "\n"
+                        + CATEGORIES[random.nextInt(CATEGORIES.length)] + "\n"
+                        + (1 + random.nextInt(5)) + ".0\n"
+                        + today + "\n");
+                event.append(f).append('\n');
+            }
+            write(dir.resolve(eventID + ".txt"), event.toString());
+            ids.append(eventID).append('\n');
+        }
+        write(dir.resolve("eventIDs.txt"), ids.toString());
+    }
+
+    // Maintenance requests 1..requests.
+    public void requests(int requests) throws IOException {
+        Path dir = directory("requests");
+        StringBuilder ids = new StringBuilder();
+        LocalDateTime now = LocalDateTime.now();
+        for (int requestID = 1; requestID <= requests; requestID++) {
+            write(dir.resolve(requestID + ".txt"),
+                    user() + "\n"
+                    + sentence(6) + "\n"
+                    + now.minusMinutes(random.nextInt(60 * 24 * 90)) + "\n"
+                    + REQUEST_STATUSES[random.nextInt(REQUEST_STATUSES.length)] + "\n"
+                    + (random.nextBoolean() ? sentence(4) : "") + "\n");
+            ids.append(requestID).append('\n');
+        }
+        write(dir.resolve("IDs.txt"), ids.toString());
+    }
+
+    // users/credentials.txt with one account per user ID; see role(...).
+    public void credentials() throws IOException {
+        Path dir = directory("users");
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < users; i++) {
+            int userID = FIRST_USER_ID + i;
+            out.append(userID).append(',').append(email(userID)).append(',').append(password(userID))
+                    .append(',').append(role(userID)).append(',').append(name(userID)).append('\n');
+        }
+        write(dir.resolve("credentials.txt"), out.toString());
+    }
+
+    // users/<userId>.txt in the layout of the user's role, and an empty notifications file.
+    public void profiles() throws IOException {
+        Path dir = directory("users");
+        for (int i = 0; i < users; i++) {
+            int userID = FIRST_USER_ID + i;
+            String profile;
+            switch (role(userID)) {
+                case "faculty":
+                    profile = name(userID) + "\n" + email(userID) + "\nComputer Science\nLecturer\n";
+                    break;
+                case "maintenance":
+                    profile = name(userID) + "\n" + email(userID) + "\nElectrical\n";
+                    break;
+                default:
+                    profile = name(userID) + "\n" + email(userID) + "\nComputer Science\n"
+                            + (1 + random.nextInt(4)) + "\n" + (2 + random.nextInt(3)) + ".0\nfalse\n";
+            }
+            write(dir.resolve(userID + ".txt"), profile);
+            write(dir.resolve(userID + "notifications.txt"), "0\n");
+        }
+    }
+
+    public static String email(int userID) {
+        return "user" + userID + "@sys.com";
+    }
+
+    public static String password(int userID) {
+        return "password" + userID;
+    }
+
+    // Every 20th user is maintenance staff, every 10th faculty, the rest students.
+    public static String role(int userID) {
+        int n = userID - FIRST_USER_ID;
+        if (n % 20 == 19) return "maintenance";
+        if (n % 10 == 9) return "faculty";
+        return "student";
+    }
+
+    private static String name(int userID) {
+        return "User " + userID;
+    }
+
+    /* -------------------------------------------------------------------------
+     * Helpers
+     * ---------------------------------------------------------------------- */
+
+    private int user() {
+        return FIRST_USER_ID + random.nextInt(Math.max(1, users));
+    }
+
+    private LocalDate futureDate() {
+        return today.plusDays(1 + random.nextInt(180));
+    }
+
+    private String sentence(int words) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) out.append(' ');
+            out.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return out.toString();
+    }
+
+    private Path directory(String name) throws IOException {
+        return Files.createDirectories(root.resolve(name));
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /* -------------------------------------------------------------------------
+     * Whole trees
+     * ---------------------------------------------------------------------- */
+
+    // DEFAULTS overridden by name=value arguments.
+    public static Map<String, Integer> options(List<String> args) {
+        Map<String, Integer> options = new TreeMap<>(DEFAULTS);
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2 || !options.containsKey(option[0])) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(option[0], Integer.parseInt(option[1]));
+        }
+        return options;
+    }
+
+    // Writes every tree and records the sizes in <root>/generated.properties.
+    public static void generate(String root, Map<String, Integer> options) throws IOException {
+        CampusDataGenerator gen = new CampusDataGenerator(root, options.get("seed")).users(options.get("users"));
+        System.out.println("Writing " + options.get("rooms") + " rooms...");
+        gen.rooms(options.get("rooms"), options.get("bookings"));
+        System.out.println("Writing " + options.get("events") + " events...");
+        gen.events(options.get("events"), options.get("attendees"), options.get("feedback"));
+        System.out.println("Writing " + options.get("requests") + " maintenance requests...");
+        gen.requests(options.get("requests"));
+        System.out.println("Writing " + options.get("users") + " users...");
+        gen.credentials();
+        gen.profiles();
+
+        Properties manifest = new Properties();
+        options.forEach((name, value) -> manifest.setProperty(name, value.toString()));
+        try (Writer out = Files.newBufferedWriter(gen.root.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            manifest.store(out, "Written by CampusDataGenerator");
+        }
+    }
+
+    // The sizes a tree was generated with, or null if it was not written by generate(...).
+    public static Map<String, Integer> readManifest(String root) throws IOException {
+        Path file = Paths.get(root).resolve(MANIFEST);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties manifest = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            manifest.load(in);
+        }
+        Map<String, Integer> options = new TreeMap<>(DEFAULTS);
+        for (String name : manifest.stringPropertyNames()) {
+            options.put(name, Integer.parseInt(manifest.getProperty(name).trim()));
+        }
+        return options;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: CampusDataGenerator <root> [rooms=N bookings=N events=N attendees=N"
+                    + " feedback=N requests=N users=N seed=N]");
+            return;
+        }
+        Map<String, Integer> options;
+        try {
+            options = options(Arrays.asList(args).subList(1, args.length));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        generate(args[0], options);
+        System.out.println("Generated " + options + " in " + args[0]);
+    }
+}